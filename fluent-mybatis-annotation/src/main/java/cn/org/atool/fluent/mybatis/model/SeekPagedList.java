@@ -0,0 +1,37 @@
+package cn.org.atool.fluent.mybatis.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 按排序字段值(keyset)定位的分页查询结果
+ *
+ * @param <E> 实体对象类
+ * @author darui.wu
+ */
+@SuppressWarnings({"unused", "unchecked"})
+@Getter
+public class SeekPagedList<E> implements IPagedList<E> {
+    /**
+     * 本次查询结果集
+     */
+    private List<E> data;
+    /**
+     * 下一页游标, 由本页最后一条记录的排序字段值编码而成
+     * next == null: 表示没有更多记录
+     */
+    private String next;
+
+    public SeekPagedList() {
+    }
+
+    public SeekPagedList(List<E> data, String next) {
+        this.data = data;
+        this.next = next;
+    }
+
+    public boolean hasNext() {
+        return this.next != null;
+    }
+}
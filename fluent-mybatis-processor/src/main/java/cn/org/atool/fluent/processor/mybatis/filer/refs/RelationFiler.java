@@ -5,6 +5,7 @@ import cn.org.atool.fluent.mybatis.base.intf.IRelation;
 import cn.org.atool.fluent.processor.mybatis.entity.EntityRefMethod;
 import cn.org.atool.fluent.processor.mybatis.entity.FluentEntity;
 import cn.org.atool.fluent.processor.mybatis.entity.FluentList;
+import cn.org.atool.fluent.mybatis.utility.ChunkKit;
 import cn.org.atool.fluent.mybatis.utility.RefKit;
 import cn.org.atool.generator.javafile.AbstractFile;
 import com.squareup.javapoet.*;
@@ -79,6 +80,15 @@ public class RelationFiler extends AbstractFile {
             .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
             .addJavadoc("{@link $L#$L()}", fluent.getClassName(), refMethod.getName());
 
+        if (refMethod.getMapping().size() == 1) {
+            /* 单字段关联, IN列表过长时分段查询, 传入执行查询的mapper, 由其判断能否并行 */
+            Map.Entry<String, String> entry = refMethod.getMapping().entrySet().iterator().next();
+            spec.addCode("return $T.list($T.mapper($T.class), values(entities, $T::get$L), values -> new $T()\n",
+                ChunkKit.class, RefKit.class, ref.entity(), fluent.entity(), capitalFirst(entry.getValue()), ref.query());
+            spec.addCode("\t.where.$L().in(values)\n", entry.getKey());
+            spec.addStatement("\t.end().to().listEntity())");
+            return spec.build();
+        }
         spec.addCode("return new $T()\n", ref.query());
         int index = 0;
         for (Map.Entry<String, String> entry : refMethod.getMapping().entrySet()) {
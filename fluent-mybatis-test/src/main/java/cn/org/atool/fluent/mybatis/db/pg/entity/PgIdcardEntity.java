@@ -0,0 +1,61 @@
+package cn.org.atool.fluent.mybatis.db.pg.entity;
+
+import cn.org.atool.fluent.mybatis.annotation.FluentMybatis;
+import cn.org.atool.fluent.mybatis.annotation.TableField;
+import cn.org.atool.fluent.mybatis.annotation.TableId;
+import cn.org.atool.fluent.mybatis.annotation.Version;
+import cn.org.atool.fluent.mybatis.base.RichEntity;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * PgIdcardEntity: 数据映射实体定义(带版本锁字段)
+ *
+ * @author Powered By Fluent Mybatis
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+@Data
+@Accessors(
+    chain = true
+)
+@EqualsAndHashCode(
+    callSuper = false
+)
+@FluentMybatis(
+    table = "idcard",
+    schema = "test",
+    dbType = DbType.POSTGRE_SQL
+)
+public class PgIdcardEntity extends RichEntity {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     *
+     */
+    @TableId(value = "id", auto = false)
+    private Long id;
+
+    /**
+     *
+     */
+    @TableField("code")
+    private String code;
+
+    /**
+     *
+     */
+    @TableField(
+        value = "version",
+        insert = "0",
+        update = "\"version\" + 1"
+    )
+    @Version
+    private Long version;
+
+    @Override
+    public final Class entityClass() {
+        return PgIdcardEntity.class;
+    }
+}
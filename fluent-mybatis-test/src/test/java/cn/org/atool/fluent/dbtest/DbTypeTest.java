@@ -1,5 +1,6 @@
 package cn.org.atool.fluent.dbtest;
 
+import cn.org.atool.fluent.mybatis.db.oracle11.entity.OracleEntity;
 import cn.org.atool.fluent.mybatis.db.oracle11.mapper.OracleMapper;
 import cn.org.atool.fluent.mybatis.db.oracle11.wrapper.OracleQuery;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
@@ -26,4 +27,36 @@ public class DbTypeTest extends BaseTest {
 
         db.sqlList().wantFirstPara().eqList(1, 11);
     }
+
+    @DisplayName("修改反义符后, 预先计算的字段名称按新的反义符包装")
+    @Test
+    void testEscapeChanged() {
+        try {
+            DbType.ORACLE.setEscapeExpress("[?]");
+            want.string(mapper.mapping().wrap("id")).eq("[id]");
+            DbType.ORACLE.setEscapeExpress("\"?\"");
+            want.string(mapper.mapping().wrap("id")).eq("\"id\"");
+        } finally {
+            DbType.ORACLE.setEscapeExpress("[?]");
+        }
+    }
+
+    @DisplayName("修改反义符后, insert语句模板按新的反义符生成")
+    @Test
+    void testInsertEscapeChanged() {
+        try {
+            DbType.ORACLE.setEscapeExpress("[?]");
+            want.exception(() -> mapper.insertWithPk(new OracleEntity().setId(1L).setCode("code")), Exception.class);
+            DbType.ORACLE.setEscapeExpress("\"?\"");
+            want.exception(() -> mapper.insertWithPk(new OracleEntity().setId(1L).setCode("code")), Exception.class);
+            db.sqlList().wantSql(0).eq("" +
+                "INSERT INTO [oracle_table] ([id], [is_deleted], [code], [version]) " +
+                "VALUES (?, 0, ?, 0)", StringMode.SameAsSpace);
+            db.sqlList().wantSql(1).eq("" +
+                "INSERT INTO \"oracle_table\" (\"id\", \"is_deleted\", \"code\", \"version\") " +
+                "VALUES (?, 0, ?, 0)", StringMode.SameAsSpace);
+        } finally {
+            DbType.ORACLE.setEscapeExpress("[?]");
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package cn.org.atool.fluent.dbtest;
 
 import cn.org.atool.fluent.mybatis.base.intf.BatchCrud;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
+import cn.org.atool.fluent.mybatis.base.provider.OracleSqlKit;
 import cn.org.atool.fluent.mybatis.db.oracle11.entity.OracleUserEntity;
 import cn.org.atool.fluent.mybatis.db.oracle11.mapper.OracleUserMapper;
 import cn.org.atool.fluent.mybatis.db.oracle11.wrapper.OracleUserUpdate;
@@ -12,6 +14,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.test4j.hamcrest.matcher.string.StringMode;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @SuppressWarnings({})
 @Disabled
 class Oracle11Test extends BaseTest {
@@ -74,12 +79,41 @@ class Oracle11Test extends BaseTest {
 
         userMapper.insertBatchWithPk(list(e1, e2));
         db.sqlList().wantFirstSql().eq("" +
-                "INSERT INTO TEST_USER (ID, IS_DELETED, CODE, VERSION2) " +
-                "SELECT TMP.* " +
-                "FROM ( (SELECT ? , ? , ? , ? FROM DUAL) UNION ALL (SELECT ? , ? , ? , ? FROM DUAL) ) TMP"
+                "INSERT ALL " +
+                "INTO TEST_USER (ID, IS_DELETED, CODE, VERSION2) VALUES (?, ?, ?, ?) " +
+                "INTO TEST_USER (ID, IS_DELETED, CODE, VERSION2) VALUES (?, ?, ?, ?) " +
+                "SELECT 1 FROM DUAL"
             , StringMode.SameAsSpace);
     }
 
+    @Test
+    void test_batchInsertWithPk_columnsLimit() {
+        List<OracleUserEntity> list = new ArrayList<>();
+        for (long id = 1; id <= 250; id++) {
+            list.add(newEntity(id, "code" + id));
+        }
+        OracleSqlKit.setBatchLimit(300, 500);
+        try {
+            /* 250行 * 4个字段超过INSERT ALL字段总数上限(ORA-24335), 使用 INSERT ... SELECT ... UNION ALL */
+            userMapper.insertBatchWithPk(list);
+        } finally {
+            OracleSqlKit.setBatchLimit(100, 500);
+        }
+        db.sqlList().wantFirstSql().start("INSERT INTO TEST_USER (ID, IS_DELETED, CODE, VERSION2) SELECT");
+    }
+
+    @Test
+    void test_save_explicitMode() {
+        List<OracleUserEntity> list = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) {
+            list.add(newEntity(id, "code" + id));
+        }
+        /* 显式指定多值insert时, 不因批量大小切换到JDBC批处理 */
+        userMapper.save(list, InsertMode.MULTI_VALUES);
+        db.sqlList().wantFirstSql().start("INSERT INTO TEST_USER (ID, IS_DELETED, CODE, VERSION2) SELECT");
+        db.sqlList().wantFirstSql().contains("UNION ALL");
+    }
+
     @Test
     void testBatchCRUD() {
         userMapper.batchCrud(BatchCrud.batch()
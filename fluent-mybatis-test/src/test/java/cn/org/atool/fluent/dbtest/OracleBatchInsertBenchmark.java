@@ -0,0 +1,85 @@
+package cn.org.atool.fluent.dbtest;
+
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
+import cn.org.atool.fluent.mybatis.base.provider.OracleSqlKit;
+import cn.org.atool.fluent.mybatis.db.oracle11.entity.OracleUserEntity;
+import cn.org.atool.fluent.mybatis.db.oracle11.mapper.OracleUserMapper;
+import cn.org.atool.fluent.mybatis.db.oracle11.wrapper.OracleUserQuery;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * oracle批量插入方式对比: UNION ALL FROM DUAL, INSERT ALL, JDBC批处理
+ * 需要oracle11环境(TEST_USER表), 手工执行
+ */
+@Disabled
+class OracleBatchInsertBenchmark extends BaseTest {
+    static final int[] SIZES = {100, 500, 2000, 5000};
+
+    static final int ROUNDS = 5;
+
+    @Autowired
+    OracleUserMapper userMapper;
+
+    @BeforeEach
+    void setup() {
+        DbType.ORACLE.setEscapeExpress("?");
+    }
+
+    @AfterEach
+    void reset() {
+        OracleSqlKit.setBatchLimit(100, 500);
+    }
+
+    @Test
+    void unionAll() {
+        OracleSqlKit.setBatchLimit(0, Integer.MAX_VALUE);
+        this.benchmark("UNION ALL", list -> userMapper.insertBatchWithPk(list));
+    }
+
+    @Test
+    void insertAll() {
+        OracleSqlKit.setBatchLimit(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        this.benchmark("INSERT ALL", list -> userMapper.insertBatchWithPk(list));
+    }
+
+    @Test
+    void jdbcBatch() {
+        this.benchmark("JDBC BATCH", list -> userMapper.save(list, InsertMode.JDBC_BATCH));
+    }
+
+    private void benchmark(String name, Consumer<List<OracleUserEntity>> inserter) {
+        for (int size : SIZES) {
+            /* 预热 */
+            db.table("TEST_USER").clean();
+            inserter.accept(entities(size));
+            long total = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                db.table("TEST_USER").clean();
+                List<OracleUserEntity> list = entities(size);
+                long start = System.nanoTime();
+                inserter.accept(list);
+                total += System.nanoTime() - start;
+            }
+            want.number(userMapper.count(new OracleUserQuery())).eq(size);
+            System.out.printf("%-10s rows=%5d avg=%8.2fms%n", name, size, total / ROUNDS / 1e6);
+        }
+    }
+
+    private static List<OracleUserEntity> entities(int size) {
+        List<OracleUserEntity> list = new ArrayList<>(size);
+        for (int index = 1; index <= size; index++) {
+            list.add(new OracleUserEntity().setId((long) index).setCode("code_" + index).setIsDeleted(false).setVersion2(0L));
+        }
+        return list;
+    }
+}
@@ -1,6 +1,7 @@
 package cn.org.atool.fluent.mybatis.test.batch;
 
 import cn.org.atool.fluent.mybatis.base.intf.BatchCrud;
+import cn.org.atool.fluent.mybatis.base.model.BatchCrudResult;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.entity.HomeAddressEntity;
 import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
@@ -66,4 +67,27 @@ public class BatchCrudTest extends BaseTest {
             .address.values("address")
             .eqTable();
     }
+
+    @DisplayName("按JDBC批处理执行批量增删改")
+    @Test
+    public void testExecuteBatch() {
+        BatchCrudResult result = BatchCrud.batch()
+            .addInsert(
+                new StudentEntity().setId(100L).setUserName("user 100"),
+                new StudentEntity().setId(101L).setUserName("user 101"))
+            .addUpdate(StudentUpdate.emptyUpdater()
+                .set.userName().is("user name23").end()
+                .where.id().eq(23L).end())
+            .addDelete(HomeAddressQuery.emptyQuery().where.id().ge(24).end())
+            .executeBatch();
+        want.array(result.getCounts()).eqReflect(new int[]{1, 1, 1, 1});
+        want.number(result.total()).eq(4);
+        ATM.dataMap.student.table(4)
+            .id.values(23L, 24L, 100L, 101L)
+            .userName.values("user name23", "user", "user 100", "user 101")
+            .eqTable();
+        ATM.dataMap.homeAddress.table(1)
+            .id.values(23)
+            .eqTable();
+    }
 }
@@ -0,0 +1,116 @@
+package cn.org.atool.fluent.mybatis.test.batch;
+
+import cn.org.atool.fluent.mybatis.base.entity.AMapping;
+import cn.org.atool.fluent.mybatis.base.provider.SqlProvider;
+import cn.org.atool.fluent.mybatis.db.mssql.entity.MsUserEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.ChunkKit;
+import cn.org.atool.fluent.mybatis.utility.RefKit;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class ChunkKitTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void reset() {
+        ChunkKit.setChunkSize(1000);
+        ChunkKit.setParallel(null);
+        ChunkKit.setInsertLimit(2000, 4L * 1024 * 1024);
+    }
+
+    @DisplayName("按最大行数和估算字节数切分批量插入的实例")
+    @Test
+    void insertChunks() {
+        AMapping mapping = RefKit.byEntity(StudentEntity.class);
+        List<StudentEntity> entities = new ArrayList<>();
+        for (String name : Arrays.asList("a", "b", "cccccccccc", "d", "e")) {
+            entities.add(new StudentEntity().setUserName(name));
+        }
+        /* 单行字节数: 24 * 字段数 + 3 * 字符数 */
+        long base = 24L * mapping.allFields().size();
+        ChunkKit.setInsertLimit(3, 2 * base + 6);
+        want.list(sizes(ChunkKit.insertChunks(mapping, entities))).eqReflect(Arrays.asList(2, 1, 2));
+
+        ChunkKit.setInsertLimit(2, 1024 * 1024);
+        want.list(sizes(ChunkKit.insertChunks(mapping, entities))).eqReflect(Arrays.asList(2, 2, 1));
+    }
+
+    @DisplayName("按主键批量更新时按绑定参数上限切分: 每条记录 2*非空字段数+1 个参数")
+    @Test
+    void updateChunks() {
+        AMapping mapping = RefKit.byEntity(MsUserEntity.class);
+        List<MsUserEntity> entities = new ArrayList<>();
+        for (long index = 0; index < 701; index++) {
+            entities.add(new MsUserEntity().setId(index).setUserName("user" + index));
+        }
+        int maxParameters = SqlProvider.sqlKit(mapping).maxParameters(mapping);
+        want.number(maxParameters).eq(2100);
+        /* 700 * 3 = 2100, 刚好不超过上限 */
+        ChunkKit.setChunkSize(1000);
+        want.list(sizes(ChunkKit.updateChunks(mapping, maxParameters, entities))).eqReflect(Arrays.asList(700, 1));
+        want.list(sizes(ChunkKit.updateChunks(mapping, maxParameters - 1, entities))).eqReflect(Arrays.asList(699, 2));
+        /* 绑定参数上限足够时按IN列表长度切分 */
+        ChunkKit.setChunkSize(300);
+        want.list(sizes(ChunkKit.updateChunks(mapping, 65535, entities))).eqReflect(Arrays.asList(300, 300, 101));
+    }
+
+    @DisplayName("spring管理的mapper不在事务中时并行分段查询, 事务中或共享SqlSession时串行")
+    @Test
+    void list_parallel() {
+        ExecutorService executor = Executors.newFixedThreadPool(3, r -> new Thread(r, "chunk-list"));
+        try {
+            ChunkKit.setChunkSize(2);
+            ChunkKit.setParallel(executor);
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            Function<Collection<Integer>, List<Integer>> loader = chunk -> {
+                threads.add(Thread.currentThread().getName());
+                return new ArrayList<>(chunk);
+            };
+            List<Integer> list = ChunkKit.list(mapper, Arrays.asList(1, 2, 3, 4, 5), loader);
+            want.list(list).eqReflect(Arrays.asList(1, 2, 3, 4, 5));
+            want.list(new ArrayList<>(threads)).eqReflect(Arrays.asList("chunk-list"));
+            /* spring事务中串行执行 */
+            threads.clear();
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+                .execute(status -> ChunkKit.list(mapper, Arrays.asList(1, 2, 3, 4, 5), loader));
+            want.list(new ArrayList<>(threads)).eqReflect(Arrays.asList(Thread.currentThread().getName()));
+            /* 非spring环境的mapper共享同一个SqlSession, 串行执行 */
+            threads.clear();
+            try (SqlSession session = sqlSessionFactory.openSession()) {
+                list = ChunkKit.list(session.getMapper(StudentMapper.class), Arrays.asList(1, 2, 3, 4, 5), loader);
+            }
+            want.list(list).eqReflect(Arrays.asList(1, 2, 3, 4, 5));
+            want.list(new ArrayList<>(threads)).eqReflect(Arrays.asList(Thread.currentThread().getName()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Integer> sizes(List<? extends Collection<?>> chunks) {
+        return chunks.stream().map(Collection::size).collect(Collectors.toList());
+    }
+}
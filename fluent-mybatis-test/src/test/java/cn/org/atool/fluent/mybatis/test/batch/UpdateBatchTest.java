@@ -8,13 +8,16 @@ import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
 import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.HomeAddressUpdate;
 import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentUpdate;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.ChunkKit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.test4j.hamcrest.matcher.string.StringMode;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @SuppressWarnings("rawtypes")
@@ -55,6 +58,47 @@ public class UpdateBatchTest extends BaseTest {
             .eqTable();
     }
 
+    @DisplayName("相同更新字段的实例合并成一条CASE WHEN语句")
+    @Test
+    public void updateByIds() {
+        int count = mapper.updateByIds(Arrays.asList(
+            new StudentEntity().setId(23L).setUserName("user name23"),
+            new StudentEntity().setId(24L).setUserName("user name24")));
+        want.number(count).eq(2);
+        db.sqlList().wantFirstSql().start("UPDATE fluent_mybatis.student SET")
+            .contains("`user_name` = CASE `id` WHEN ? THEN ? WHEN ? THEN ? END")
+            .end("WHERE `id` IN (?, ?)");
+        ATM.dataMap.student.table(2)
+            .id.values(23L, 24L)
+            .userName.values("user name23", "user name24")
+            .eqTable();
+    }
+
+    @DisplayName("分段更新在同一个事务中: 后面的分段失败时, 前面已执行的分段一起回滚")
+    @Test
+    public void updateByIds_laterChunkFails() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(23L, 24L, 25L)
+            .userName.values("user")
+            .cleanAndInsert();
+        ChunkKit.setChunkSize(2);
+        try {
+            /* user_name varchar(45), 第二段超长报错 */
+            want.exception(() -> mapper.updateByIds(Arrays.asList(
+                new StudentEntity().setId(23L).setUserName("user name23"),
+                new StudentEntity().setId(24L).setUserName("user name24"),
+                new StudentEntity().setId(25L).setUserName(String.join("", Collections.nCopies(50, "x"))))
+            ), DataAccessException.class);
+        } finally {
+            ChunkKit.setChunkSize(1000);
+        }
+        db.sqlList().wantSql(0).contains("WHERE `id` IN (?, ?)");
+        ATM.dataMap.student.table(3)
+            .id.values(23L, 24L, 25L)
+            .userName.values("user")
+            .eqTable();
+    }
+
     @Test
     public void updateStudentBatch() {
         List<StudentEntity> students = Arrays.asList(
@@ -299,20 +299,21 @@ public class FormServiceTest extends BaseTest {
             .id.values(2L, 4L)
             .env.values("test_env")
             .cleanAndInsert();
-        service.updateStudent(list(
+        int count = service.updateStudent(list(
             new StudentUpdater().setUserName("test1").setAge(34).setId(2L),
             new StudentUpdater().setUserName("test2").setAge(34).setId(4L)
         ));
+        want.number(count).eq(2);
+        /* 每个更新单独一条语句, 作为JDBC批处理执行, 不再用';'拼接 */
         db.sqlList().wantFirstSql().eq("" +
-            "UPDATE fluent_mybatis.student " +
-            "SET `gmt_modified` = now(), `user_name` = ?, `age` = ? " +
-            "WHERE `is_deleted` = ? AND `env` = ? AND (`id` = ?); " +
             "UPDATE fluent_mybatis.student " +
             "SET `gmt_modified` = now(), `user_name` = ?, `age` = ? " +
             "WHERE `is_deleted` = ? AND `env` = ? AND (`id` = ?)");
-        db.sqlList().wantFirstPara().eqList(
-            "test1", 34, false, "test_env", 2L,
-            "test2", 34, false, "test_env", 4L);
+        ATM.dataMap.student.table(2)
+            .id.values(2L, 4L)
+            .userName.values("test1", "test2")
+            .age.values(34)
+            .eqTable();
     }
 
     @Test
@@ -49,6 +49,8 @@ public class JoinQueryTest_Alias1 extends BaseTest {
         this.mapper.listMaps(query.build());
         String a1 = studentQuery.getTableAlias();
         String a2 = addressQuery.getTableAlias();
+        want.string(a1).eq("j_0");
+        want.string(a2).eq("j_1");
         IDatabase.db.sqlList().wantFirstSql().eq(
             format("SELECT %s.`age`, %s.`student_id` ", a1, a2) +
                 format("FROM fluent_mybatis.student %s ", a1) +
@@ -2,6 +2,7 @@ package cn.org.atool.fluent.mybatis.test.join;
 
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.crud.JoinBuilder;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
 import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
@@ -71,4 +72,36 @@ public class JoinQueryTest_Alias2 extends BaseTest {
             "SELECT t1.`id` FROM `student_1` t1 JOIN `home_address_2` t2 " +
             "ON t1.`home_address_id` = t2.`id`");
     }
+
+    @Test
+    public void test_auto_alias_with_explicit_alias() {
+        StudentQuery query1 = StudentQuery.emptyQuery()
+            .where.age().eq(34).end();
+        HomeAddressQuery query2 = HomeAddressQuery.emptyQuery()
+            .where.address().like("address").end();
+        HomeAddressQuery query3 = HomeAddressQuery.emptyQuery("t1")
+            .where.address().like("address").end();
+        JoinBuilder.from(query1)
+            .join(query2)
+            .on(l -> l.where.homeAddressId(), r -> r.where.id())
+            .endJoin()
+            .join(query3)
+            .on(l -> l.where.homeAddressId(), r -> r.where.id())
+            .endJoin()
+            .build();
+        want.string(query1.getTableAlias()).eq("j_0");
+        want.string(query2.getTableAlias()).eq("j_1");
+        want.string(query3.getTableAlias()).eq("t1");
+    }
+
+    @Test
+    public void test_duplicate_alias() {
+        StudentQuery query1 = StudentQuery.emptyQuery("t1")
+            .where.age().eq(34).end();
+        HomeAddressQuery query2 = HomeAddressQuery.emptyQuery("t1")
+            .where.address().like("address").end();
+        want.exception(() -> JoinBuilder.from(query1)
+                .join(query2), FluentMybatisException.class)
+            .contains("the table alias[t1] is already used");
+    }
 }
@@ -0,0 +1,142 @@
+package cn.org.atool.fluent.mybatis.test.method;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.generator.ATM;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.CursorKit;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CursorTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setup() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1L, 2L, 3L)
+            .userName.values("darui", "wu", "fluent")
+            .cleanAndInsert();
+    }
+
+    @DisplayName("游标逐条读取实例, 读取完毕自动关闭")
+    @Test
+    void cursorEntity() {
+        Cursor<StudentEntity> cursor = mapper.cursorEntity(StudentQuery.emptyQuery()
+            .select.id().userName().end()
+            .orderBy.id().asc().end()
+            .fetchSize(2));
+        List<String> names = new ArrayList<>();
+        for (StudentEntity student : cursor) {
+            names.add(student.getUserName());
+        }
+        want.list(names).eqReflect(Arrays.asList("darui", "wu", "fluent"));
+        want.bool(cursor.isOpen()).is(false);
+        db.sqlList().wantFirstSql().eq("" +
+            "SELECT `id`, `user_name` FROM fluent_mybatis.student ORDER BY `id` ASC");
+    }
+
+    @DisplayName("关闭Stream时关闭游标")
+    @Test
+    void streamMaps() {
+        List<Object> ids;
+        try (Stream<Map<String, Object>> stream = mapper.streamMaps(StudentQuery.emptyQuery()
+            .select.id().end()
+            .orderBy.id().asc().end())) {
+            ids = stream.map(m -> m.get("id")).collect(Collectors.toList());
+        }
+        want.list(ids).eqReflect(Arrays.asList(1L, 2L, 3L));
+    }
+
+    @DisplayName("PoJo游标只读取部分记录后关闭")
+    @Test
+    void streamPoJos() {
+        try (Stream<StudentEntity> stream = mapper.streamPoJos(StudentEntity.class, StudentQuery.emptyQuery()
+            .select.id().userName().end()
+            .orderBy.id().desc().end())) {
+            StudentEntity first = stream.findFirst().orElse(null);
+            want.number(first.getId()).eq(3L);
+            want.string(first.getUserName()).eq("fluent");
+        }
+    }
+
+    @DisplayName("只读取部分记录后关闭游标, 游标会话关闭, 连接归还")
+    @Test
+    void cursor_releaseAfterPartialRead() throws IOException {
+        Cursor<StudentEntity> cursor = mapper.cursorEntity(StudentQuery.emptyQuery()
+            .select.id().end()
+            .orderBy.id().asc().end());
+        SqlSession session = (SqlSession) SystemMetaObject.forObject(cursor).getValue("session");
+        want.object(session.getConnection()).notNull();
+        want.number(cursor.iterator().next().getId()).eq(1L);
+        cursor.close();
+        want.bool(cursor.isOpen()).is(false);
+        /* 会话关闭后执行器关闭, SpringManagedTransaction已释放连接 */
+        want.exception(() -> session.getConnection(), ExecutorException.class)
+            .contains("Executor was closed");
+    }
+
+    @DisplayName("查询条件上的fetchSize设置到Statement上")
+    @Test
+    void fetchSize_statement() throws Exception {
+        try (Cursor<StudentEntity> cursor = mapper.cursorEntity(StudentQuery.emptyQuery()
+            .select.id().end()
+            .fetchSize(2))) {
+            ResultSet rs = (ResultSet) SystemMetaObject.forObject(cursor).getValue("cursor.rsw.resultSet");
+            want.number(rs.getStatement().getFetchSize()).eq(2);
+        }
+    }
+
+    @DisplayName("fetchSize默认值的校验和查询条件上的fetchSize一致")
+    @Test
+    void setFetchSize() {
+        want.exception(() -> CursorKit.setFetchSize(-1), FluentMybatisException.class)
+            .contains("The fetchSize must be zero, greater than zero or Integer.MIN_VALUE.");
+        want.number(CursorKit.getFetchSize()).eq(0);
+    }
+
+    @DisplayName("spring事务中游标使用事务的连接: 读到事务中未提交的修改, 事务回滚")
+    @Test
+    void stream_inTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        List<String> names = transaction.execute(status -> {
+            mapper.updateById(new StudentEntity().setId(1L).setUserName("in tx"));
+            try (Stream<StudentEntity> stream = mapper.streamEntity(StudentQuery.emptyQuery()
+                .select.id().userName().end()
+                .orderBy.id().asc().end())) {
+                List<String> list = stream.map(StudentEntity::getUserName).collect(Collectors.toList());
+                status.setRollbackOnly();
+                return list;
+            }
+        });
+        want.list(names).eqReflect(Arrays.asList("in tx", "wu", "fluent"));
+        ATM.dataMap.student.table(3)
+            .id.values(1L, 2L, 3L)
+            .userName.values("darui", "wu", "fluent")
+            .eqTable();
+    }
+}
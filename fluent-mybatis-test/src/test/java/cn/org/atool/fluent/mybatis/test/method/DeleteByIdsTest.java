@@ -3,6 +3,7 @@ package cn.org.atool.fluent.mybatis.test.method;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.ChunkKit;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.test4j.hamcrest.matcher.string.StringMode;
@@ -30,6 +31,29 @@ public class DeleteByIdsTest extends BaseTest {
             .eqTable();
     }
 
+    @Test
+    public void testDeleteByIds_chunks() {
+        ATM.dataMap.student.initTable(5)
+            .id.values(23L, 24L, 25L, 26L, 27L)
+            .userName.values("user1", "user2")
+            .env.values("test_env")
+            .cleanAndInsert();
+        ChunkKit.setChunkSize(2);
+        try {
+            /* 分段删除在同一个事务中执行 */
+            mapper.deleteByIds(Arrays.asList(24, 27, 25));
+        } finally {
+            ChunkKit.setChunkSize(1000);
+        }
+        db.sqlList().wantSql(0)
+            .eq("DELETE FROM fluent_mybatis.student WHERE `id` IN (?, ?)", StringMode.SameAsSpace);
+        db.sqlList().wantSql(1)
+            .eq("DELETE FROM fluent_mybatis.student WHERE `id` IN (?)", StringMode.SameAsSpace);
+        ATM.dataMap.student.table(2)
+            .id.values(23L, 26L)
+            .eqTable();
+    }
+
     @Test
     public void testLogicDeleteByIds() {
         mapper.logicDeleteByIds(Arrays.asList(24, 27, 25));
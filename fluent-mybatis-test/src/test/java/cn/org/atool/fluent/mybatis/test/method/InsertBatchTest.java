@@ -1,22 +1,36 @@
 package cn.org.atool.fluent.mybatis.test.method;
 
+import cn.org.atool.fluent.mybatis.base.provider.BatchSqlSource;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
 import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.MyBatisSystemException;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_InsertBatch;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_List;
 
 @SuppressWarnings("unchecked")
 public class InsertBatchTest extends BaseTest {
     @Autowired
     private StudentMapper mapper;
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Test
     public void testInsertBatch_withoutPk() {
         db.table(ATM.table.student).clean();
@@ -55,6 +69,28 @@ public class InsertBatchTest extends BaseTest {
             .eqReflect(new long[]{23, 24});
     }
 
+    @DisplayName("批量插入的单元格变量按位置绑定, 值由实体的getter读取")
+    @Test
+    public void testInsertBatch_positional() {
+        MappedStatement statement = sqlSessionFactory.getConfiguration()
+            .getMappedStatement(StudentMapper.class.getName() + "." + M_InsertBatch);
+        want.bool(statement.getSqlSource() instanceof BatchSqlSource).is(true);
+
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Param_List, list(
+            new StudentEntity().setUserName("name1").setAge(23).setTenant(0L),
+            new StudentEntity().setUserName("name2").setAge(24).setTenant(0L)));
+        BoundSql bound = statement.getBoundSql(param);
+        want.string(bound.getSql()).end("VALUES (?, ?, ?, ?, now(), now(), 0), (?, ?, ?, ?, now(), now(), 0)");
+        want.list(bound.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(Collectors.toList()))
+            .eqReflect(Arrays.asList("_cell0", "_cell1", "_cell2", "_cell3", "_cell4", "_cell5", "_cell6", "_cell7"));
+        /* (`age`, `env`, `tenant`, `user_name`, ...) */
+        want.number((Integer) bound.getAdditionalParameter("_cell0")).eq(23);
+        want.string((String) bound.getAdditionalParameter("_cell3")).eq("name1");
+        want.number((Integer) bound.getAdditionalParameter("_cell4")).eq(24);
+        want.string((String) bound.getAdditionalParameter("_cell7")).eq("name2");
+    }
+
     @DisplayName("部分id有值, 插入失败")
     @Test
     public void testInsertBatch() {
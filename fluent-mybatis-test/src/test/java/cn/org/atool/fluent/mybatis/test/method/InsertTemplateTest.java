@@ -0,0 +1,62 @@
+package cn.org.atool.fluent.mybatis.test.method;
+
+import cn.org.atool.fluent.mybatis.base.intf.BatchCrud;
+import cn.org.atool.fluent.mybatis.generator.ATM;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.hamcrest.matcher.string.StringMode;
+
+public class InsertTemplateTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @BeforeEach
+    void setup() {
+        ATM.dataMap.student.table().clean();
+    }
+
+    @DisplayName("按非空字段组合复用insert模板")
+    @Test
+    void insert_nonNullColumns() {
+        mapper.insert(new StudentEntity().setUserName("user1").setAge(21));
+        mapper.insert(new StudentEntity().setUserName("user2"));
+        mapper.insert(new StudentEntity().setUserName("user3").setAge(23));
+        db.sqlList().wantSql(0).eq("" +
+            "INSERT INTO fluent_mybatis.student (`age`, `env`, `tenant`, `user_name`, `gmt_created`, `gmt_modified`, `is_deleted`) " +
+            "VALUES (?, ?, ?, ?, now(), now(), 0)");
+        db.sqlList().wantSql(1).eq("" +
+            "INSERT INTO fluent_mybatis.student (`env`, `tenant`, `user_name`, `gmt_created`, `gmt_modified`, `is_deleted`) " +
+            "VALUES (?, ?, ?, now(), now(), 0)");
+        db.sqlList().wantSql(2).eq("" +
+            "INSERT INTO fluent_mybatis.student (`age`, `env`, `tenant`, `user_name`, `gmt_created`, `gmt_modified`, `is_deleted`) " +
+            "VALUES (?, ?, ?, ?, now(), now(), 0)");
+        ATM.dataMap.student.table(3)
+            .userName.values("user1", "user2", "user3")
+            .age.values(21, null, 23)
+            .eqTable();
+    }
+
+    @DisplayName("batchCrud中每个实例的变量前缀带下标, 共用一个insert模板")
+    @Test
+    void batchCrud_indexedPrefix() {
+        mapper.batchCrud(BatchCrud.batch()
+            .addInsert(
+                new StudentEntity().setId(101L).setUserName("user 101"),
+                new StudentEntity().setId(102L).setUserName("user 102")));
+        db.sqlList().wantFirstSql().eq("" +
+                "INSERT INTO fluent_mybatis.student (`id`, `env`, `tenant`, `user_name`, `gmt_created`, `gmt_modified`, `is_deleted`) " +
+                "VALUES (?, ?, ?, ?, now(), now(), 0); " +
+                "INSERT INTO fluent_mybatis.student (`id`, `env`, `tenant`, `user_name`, `gmt_created`, `gmt_modified`, `is_deleted`) " +
+                "VALUES (?, ?, ?, ?, now(), now(), 0)"
+            , StringMode.SameAsSpace);
+        ATM.dataMap.student.table(2)
+            .id.values(101L, 102L)
+            .userName.values("user 101", "user 102")
+            .eqTable();
+    }
+}
@@ -4,10 +4,18 @@ import cn.org.atool.fluent.mybatis.customize.StudentExtDao;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.test4j.hamcrest.matcher.string.StringMode;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
 /**
  * @author darui.wu 2019/10/29 9:32 下午
  */
@@ -16,6 +24,9 @@ public class SaveOrUpdateTest extends BaseTest {
     @Autowired
     private StudentExtDao dao;
 
+    @Autowired
+    private DataSource dataSource;
+
     @Test
     public void test_saveOrUpdate() {
         ATM.dataMap.student.initTable(3)
@@ -51,4 +62,52 @@ public class SaveOrUpdateTest extends BaseTest {
                 .age.values(30)
             );
     }
+
+    @DisplayName("按主键判断是否存在: 和其它唯一键冲突时插入报错, 不会更新冲突的那条记录")
+    @Test
+    public void test_saveOrUpdate_secondaryUniqueKey() throws SQLException {
+        ATM.dataMap.student.initTable(1)
+            .id.values(1L)
+            .userName.values("user1")
+            .phone.values("13800000000")
+            .cleanAndInsert();
+        this.ddl("ALTER TABLE student ADD UNIQUE KEY uk_student_phone (phone)");
+        try {
+            want.exception(() -> dao.saveOrUpdate(new StudentEntity().setId(2L).setUserName("user2").setPhone("13800000000")),
+                DuplicateKeyException.class);
+        } finally {
+            this.ddl("ALTER TABLE student DROP INDEX uk_student_phone");
+        }
+        ATM.dataMap.student.table(1)
+            .id.values(1L)
+            .userName.values("user1")
+            .eqTable();
+    }
+
+    @DisplayName("批量saveOrUpdate逐条按主键判断插入或更新")
+    @Test
+    public void test_saveOrUpdate_list() {
+        ATM.dataMap.student.initTable(2)
+            .id.values(1L, 2L)
+            .userName.values("user")
+            .cleanAndInsert();
+        int count = dao.saveOrUpdate(Arrays.asList(
+            new StudentEntity().setId(2L).setUserName("user2"),
+            new StudentEntity().setId(3L).setUserName("user3")));
+        want.number(count).eq(2);
+        db.sqlList().wantSql(1).eq("" +
+            "UPDATE fluent_mybatis.student SET `user_name` = ?, `gmt_modified` = now() " +
+            "WHERE `id` = ?");
+        db.sqlList().wantSql(3).contains("INSERT INTO fluent_mybatis.student");
+        ATM.dataMap.student.table(3)
+            .id.values(1L, 2L, 3L)
+            .userName.values("user", "user2", "user3")
+            .eqTable();
+    }
+
+    private void ddl(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
 }
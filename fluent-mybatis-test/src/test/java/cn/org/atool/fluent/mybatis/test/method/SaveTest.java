@@ -1,10 +1,14 @@
 package cn.org.atool.fluent.mybatis.test.method;
 
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
 import cn.org.atool.fluent.mybatis.customize.StudentExtDao;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.JdbcBatchKit;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -21,6 +25,9 @@ public class SaveTest extends BaseTest {
     @Autowired
     private StudentExtDao dao;
 
+    @Autowired
+    private StudentMapper mapper;
+
     @Test
     public void test_save_noPk() throws Exception {
         ATM.dataMap.student.cleanTable();
@@ -85,4 +92,25 @@ public class SaveTest extends BaseTest {
             .age.values(43)
             .eqTable();
     }
+
+    @DisplayName("JDBC批处理插入, 主键冲突时已提交的批次一起回滚")
+    @Test
+    public void test_batchSave_jdbcBatchRollback() throws Exception {
+        ATM.dataMap.student.initTable(1)
+            .id.values(3L)
+            .cleanAndInsert();
+        JdbcBatchKit.setFlushSize(1);
+        try {
+            want.exception(() -> mapper.save(Arrays.asList(
+                new StudentEntity().setId(1L).setUserName("test name1"),
+                new StudentEntity().setId(2L).setUserName("test name2"),
+                new StudentEntity().setId(3L).setUserName("test name3")
+            ), InsertMode.JDBC_BATCH), Exception.class);
+        } finally {
+            JdbcBatchKit.setFlushSize(500);
+        }
+        ATM.dataMap.student.table(1)
+            .id.values(3L)
+            .eqTable();
+    }
 }
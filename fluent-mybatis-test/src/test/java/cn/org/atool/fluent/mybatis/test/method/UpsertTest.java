@@ -0,0 +1,170 @@
+package cn.org.atool.fluent.mybatis.test.method;
+
+import cn.org.atool.fluent.mybatis.base.entity.AMapping;
+import cn.org.atool.fluent.mybatis.base.provider.SqlProvider;
+import cn.org.atool.fluent.mybatis.db.h2.entity.H2StudentEntity;
+import cn.org.atool.fluent.mybatis.db.h2.mapper.H2StudentMapper;
+import cn.org.atool.fluent.mybatis.db.oracle11.entity.OracleEntity;
+import cn.org.atool.fluent.mybatis.db.oracle11.mapper.OracleMapper;
+import cn.org.atool.fluent.mybatis.db.pg.entity.PgIdcardEntity;
+import cn.org.atool.fluent.mybatis.db.pg.entity.PgStudentEntity;
+import cn.org.atool.fluent.mybatis.db.pg.mapper.PgIdcardMapper;
+import cn.org.atool.fluent.mybatis.db.pg.mapper.PgStudentMapper;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.generator.ATM;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared5.entity.IdcardEntity;
+import cn.org.atool.fluent.mybatis.generator.shared5.mapper.IdcardMapper;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.RefKit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.MyBatisSystemException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.hamcrest.matcher.string.StringMode;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class UpsertTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private IdcardMapper idcardMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DisplayName("MySQL: INSERT ... ON DUPLICATE KEY UPDATE, 只在部分记录非空的字段保留原值")
+    @Test
+    void upsertChunks_mysql() {
+        ATM.dataMap.student.initTable(2)
+            .id.values(1L, 2L)
+            .userName.values("user")
+            .age.values(20)
+            .cleanAndInsert();
+        mapper.upsertChunks(Arrays.asList(
+            new StudentEntity().setId(1L).setUserName("new1").setAge(30),
+            new StudentEntity().setId(3L).setUserName("new3")));
+        db.sqlList().wantFirstSql()
+            .start("INSERT INTO fluent_mybatis.student")
+            .end("ON DUPLICATE KEY UPDATE `age` = COALESCE(VALUES(`age`), `age`), " +
+                "`user_name` = VALUES(`user_name`), `gmt_modified` = now()");
+        ATM.dataMap.student.table(3)
+            .id.values(1L, 2L, 3L)
+            .userName.values("new1", "user", "new3")
+            .eqTable();
+        ATM.dataMap.student.query("id=1").eqDataMap(ATM.dataMap.student.table(1)
+            .age.values(30));
+    }
+
+    @DisplayName("MySQL按所有唯一键判断冲突: 和其它唯一键冲突时更新的是冲突的那条记录")
+    @Test
+    void upsertChunks_mysqlSecondaryUniqueKey() throws SQLException {
+        ATM.dataMap.student.initTable(1)
+            .id.values(1L)
+            .userName.values("user1")
+            .phone.values("13800000000")
+            .cleanAndInsert();
+        this.ddl("ALTER TABLE student ADD UNIQUE KEY uk_student_phone (phone)");
+        try {
+            mapper.upsertChunks(Collections.singletonList(
+                new StudentEntity().setId(2L).setUserName("user2").setPhone("13800000000")));
+        } finally {
+            this.ddl("ALTER TABLE student DROP INDEX uk_student_phone");
+        }
+        ATM.dataMap.student.table(1)
+            .id.values(1L)
+            .userName.values("user2")
+            .eqTable();
+    }
+
+    @DisplayName("MySQL有版本锁字段的表不支持upsert")
+    @Test
+    void upsert_mysqlVersion() {
+        want.exception(() -> idcardMapper.upsert(new IdcardEntity().setId(1L).setCode("code").setVersion(1L)),
+                MyBatisSystemException.class, FluentMybatisException.class)
+            .contains("The upsert of table[")
+            .contains("is not supported by");
+    }
+
+    @DisplayName("PostgreSQL: INSERT ... ON CONFLICT (pk) DO UPDATE")
+    @Test
+    void upsertBatch_pg() {
+        String sql = render(PgStudentMapper.class, Arrays.asList(
+            new PgStudentEntity().setId(1).setUserName("u1").setAge(30),
+            new PgStudentEntity().setId(2).setUserName("u2")));
+        want.string(sql).eq("" +
+            "INSERT INTO test.\"student\" (\"id\", \"age\", \"user_name\") " +
+            "VALUES (#{list[0].id}, #{list[0].age}, #{list[0].userName}), (#{list[1].id}, null, #{list[1].userName}) " +
+            "ON CONFLICT (\"id\") DO UPDATE SET \"age\" = COALESCE(EXCLUDED.\"age\", test.\"student\".\"age\"), " +
+            "\"user_name\" = EXCLUDED.\"user_name\"", StringMode.SameAsSpace);
+    }
+
+    @DisplayName("PostgreSQL有版本锁字段: 原记录版本等于插入的版本值才更新")
+    @Test
+    void upsertBatch_pgVersion() {
+        String sql = render(PgIdcardMapper.class, Arrays.asList(
+            new PgIdcardEntity().setId(1L).setCode("c1").setVersion(1L),
+            new PgIdcardEntity().setId(2L).setVersion(2L)));
+        want.string(sql).eq("" +
+            "INSERT INTO test.\"idcard\" (\"id\", \"code\", \"version\") " +
+            "VALUES (#{list[0].id}, #{list[0].code}, #{list[0].version}), (#{list[1].id}, null, #{list[1].version}) " +
+            "ON CONFLICT (\"id\") DO UPDATE SET \"code\" = COALESCE(EXCLUDED.\"code\", test.\"idcard\".\"code\"), " +
+            "\"version\" = \"version\" + 1 WHERE test.\"idcard\".\"version\" = EXCLUDED.\"version\"", StringMode.SameAsSpace);
+
+        want.exception(() -> render(PgIdcardMapper.class, Collections.singletonList(new PgIdcardEntity().setId(3L))),
+            FluentMybatisException.class).contains("lock version field(version)");
+    }
+
+    @DisplayName("H2: MERGE INTO ... USING (SELECT ... UNION ALL ...)")
+    @Test
+    void upsertBatch_h2() {
+        String sql = render(H2StudentMapper.class, Arrays.asList(
+            new H2StudentEntity().setId(1L).setUserName("u1").setAge(30),
+            new H2StudentEntity().setId(2L).setUserName("u2")));
+        want.string(sql).start("MERGE INTO ")
+            .contains("USING (SELECT #{list[0].id} AS c0, #{list[0].age} AS c1, #{list[0].userName} AS c2 " +
+                "UNION ALL SELECT #{list[1].id}, null, #{list[1].userName}) S ON (T.")
+            .contains("WHEN MATCHED THEN UPDATE SET ")
+            .contains(" = COALESCE(S.c1, T.")
+            .contains("WHEN NOT MATCHED THEN INSERT (")
+            .end("VALUES (S.c0, S.c1, S.c2)");
+    }
+
+    @DisplayName("Oracle: MERGE ... FROM DUAL, 版本条件放在UPDATE ... WHERE")
+    @Test
+    void upsertBatch_oracleVersion() {
+        String sql = render(OracleMapper.class, Arrays.asList(
+            new OracleEntity().setId(1L).setCode("c1").setVersion(1L),
+            new OracleEntity().setId(2L).setVersion(2L)));
+        want.string(sql).start("MERGE INTO ")
+            .contains(" FROM DUAL UNION ALL SELECT #{list[1].id}, ")
+            .contains(" FROM DUAL) S ON (T.")
+            .contains("WHEN MATCHED THEN UPDATE SET ")
+            .contains(" = `version` + 1 WHERE T.")
+            .contains("WHEN NOT MATCHED THEN INSERT (");
+    }
+
+    /**
+     * 按mapper的映射和SqlKit渲染upsertBatch语句(和SqlProvider.upsertBatch相同), 不在mysql测试库上执行
+     */
+    private static String render(Class mapperClass, Collection entities) {
+        AMapping mapping = RefKit.byMapper(mapperClass);
+        return SqlProvider.sqlKit(mapping).upsertBatch(mapping, entities);
+    }
+
+    private void ddl(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cn.org.atool.fluent.mybatis.test.method.listpojos;
+
+import cn.org.atool.fluent.mybatis.base.provider.PoJoRowInterceptor;
+import cn.org.atool.fluent.mybatis.generator.ATM;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class PoJoRowTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setup() {
+        ATM.dataMap.student.initTable(2)
+            .id.values(1L, 2L)
+            .userName.values("darui", "wu")
+            .age.values(30, null)
+            .cleanAndInsert();
+    }
+
+    @AfterEach
+    void reset() {
+        PoJoRowInterceptor.setEnabled(true);
+    }
+
+    @DisplayName("listPoJos(Class, IQuery)直接从结果集映射PoJo, 和先查Map再转换的结果一致")
+    @Test
+    void listPoJos() {
+        List<StudentEntity> list = mapper.listPoJos(StudentEntity.class, query());
+        db.sqlList().wantFirstSql().eq("SELECT `id`, `user_name`, `age` FROM fluent_mybatis.student ORDER BY `id` ASC");
+        want.list(list).eqDataMap(ATM.dataMap.student.entity(2)
+            .id.values(1L, 2L)
+            .userName.values("darui", "wu")
+            .age.values(30, null));
+
+        PoJoRowInterceptor.setEnabled(false);
+        want.list(mapper.listPoJos(StudentEntity.class, query())).eqReflect(list);
+    }
+
+    @DisplayName("findOne(Class, IQuery)")
+    @Test
+    void findOne() {
+        Optional<StudentEntity> found = mapper.findOne(StudentEntity.class, StudentQuery.emptyQuery()
+            .select.id().userName().end()
+            .where.id().eq(2L).end());
+        want.string(found.map(StudentEntity::getUserName).orElse(null)).eq("wu");
+        db.sqlList().wantFirstSql().eq("SELECT `id`, `user_name` FROM fluent_mybatis.student WHERE `id` = ?");
+    }
+
+    @DisplayName("结果集字段在PoJo上没有对应属性时报错")
+    @Test
+    void listPoJos_notFound() {
+        want.exception(() -> mapper.listPoJos(StudentEntity.class, StudentQuery.emptyQuery()
+                .select.id().userName("nick_name").end()), Exception.class)
+            .contains("property[nickName] of class[" + StudentEntity.class.getName() + "] not found.");
+    }
+
+    @DisplayName("同一个会话中相同条件的listMaps和listPoJos按PoJo类型区分一级缓存")
+    @Test
+    void listPoJos_localCache() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.execute(status -> {
+            List<Map<String, Object>> maps = mapper.listMaps(query());
+            List<StudentEntity> poJos = mapper.listPoJos(StudentEntity.class, query());
+            List<StudentEntity> cached = mapper.listPoJos(StudentEntity.class, query());
+            want.bool(maps.get(0) instanceof Map).is(true);
+            want.bool(poJos.get(0) instanceof StudentEntity).is(true);
+            want.bool(cached == poJos).is(true);
+            return null;
+        });
+        /* listMaps和第一次listPoJos各执行一次, 第二次listPoJos命中一级缓存 */
+        db.sqlList().wantSql(1).eq(db.sqlList().sql(0));
+        want.exception(() -> db.sqlList().sql(2), IndexOutOfBoundsException.class);
+    }
+
+    private static StudentQuery query() {
+        return StudentQuery.emptyQuery()
+            .select.id().userName().age().end()
+            .orderBy.id().asc().end();
+    }
+}
@@ -73,7 +73,7 @@ public class EnumTypeTest extends BaseTest {
             .setId(1L)
             .setEnumNum(MyEnum.test3)
             .setEnumString(MyEnum.test3));
-        aSql[0] = aSql[0].replaceAll("\\.variable_\\d+_\\d+,", ".var,");
+        aSql[0] = aSql[0].replaceAll("\\.p_\\d+,", ".var,");
         want.string(aSql[0]).eq("" +
                 "UPDATE `my_enum_type` " +
                 "SET `enum-num` = #{ew[0].data.parameters.var, javaType=cn.org.atool.fluent.mybatis.customize.model.MyEnum, typeHandler=org.apache.ibatis.type.EnumOrdinalTypeHandler},\n" +
@@ -114,7 +114,7 @@ public class EnumTypeTest extends BaseTest {
         });
         mapper.findById(1L);
 
-        aSql[0] = aSql[0].replaceAll("\\.variable_\\d+_\\d+,", ".var,");
+        aSql[0] = aSql[0].replaceAll("\\.p_\\d+,", ".var,");
         want.string(aSql[0]).end("" +
                 "WHERE `id` = #{ew.data.parameters.var, javaType=java.lang.Long, typeHandler=org.apache.ibatis.type.LongTypeHandler}",
             StringMode.SameAsSpace);
@@ -130,7 +130,7 @@ public class EnumTypeTest extends BaseTest {
         });
         mapper.deleteById(1L, 2L);
 
-        aSql[0] = aSql[0].replaceAll("\\.variable_\\d+_\\d+,", ".var,");
+        aSql[0] = aSql[0].replaceAll("\\.p_\\d+,", ".var,");
         want.string(aSql[0]).eq("" +
             "DELETE FROM `my_enum_type` " +
             "WHERE `id` IN (" +
@@ -148,7 +148,7 @@ public class EnumTypeTest extends BaseTest {
             return sql;
         });
         mapper.logicDeleteById(1L);
-        aSql[0] = aSql[0].replaceAll("\\.variable_\\d+_\\d+", ".var");
+        aSql[0] = aSql[0].replaceAll("\\.p_\\d+", ".var");
         want.string(aSql[0]).eq("" +
                 "UPDATE `my_enum_type` " +
                 "SET `is_deleted` = #{ew[0].data.parameters.var} " +
@@ -165,7 +165,7 @@ public class EnumTypeTest extends BaseTest {
             return sql;
         });
         mapper.updateById(new MyEnumTypePoJo().setEnumNum(MyEnum.test2).setId(3L));
-        aSql[0] = aSql[0].replaceAll("\\.variable_\\d+_\\d+,", ".var,");
+        aSql[0] = aSql[0].replaceAll("\\.p_\\d+,", ".var,");
         want.string(aSql[0]).eq("" +
                 "UPDATE `my_enum_type` " +
                 "SET `enum-num` = #{ew[0].data.parameters.var, javaType=cn.org.atool.fluent.mybatis.customize.model.MyEnum, typeHandler=org.apache.ibatis.type.EnumOrdinalTypeHandler} " +
@@ -182,7 +182,7 @@ public class EnumTypeTest extends BaseTest {
             return sql;
         });
         mapper.deleteByIds(list(1L));
-        aSql[0] = aSql[0].replaceAll("\\.variable_\\d+_\\d+,", ".var,");
+        aSql[0] = aSql[0].replaceAll("\\.p_\\d+,", ".var,");
         want.string(aSql[0]).eq("" +
                 "DELETE FROM `my_enum_type` " +
                 "WHERE `id` = #{ew.data.parameters.var, javaType=java.lang.Long, typeHandler=org.apache.ibatis.type.LongTypeHandler}"
@@ -0,0 +1,102 @@
+package cn.org.atool.fluent.mybatis.test.paged;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.generator.ATM;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.model.SeekPagedList;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.tools.datagen.DataMap;
+
+public class SeekPagedTest extends BaseTest {
+    @Autowired
+    StudentMapper mapper;
+
+    @DisplayName("按排序字段值翻页: 下一页条件由上一页最后一条记录的排序字段值构成")
+    @Test
+    void seekPaged() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1L, 2L, 3L)
+            .age.values(30, 30, 25)
+            .cleanAndInsert();
+        SeekPagedList<StudentEntity> first = mapper.seekPagedEntity(seekQuery(), null);
+        want.list(first.getData()).eqDataMap(DataMap.create(2)
+            .kv("id", 1L, 2L)
+            .kv("age", 30, 30));
+        want.bool(first.hasNext()).is(true);
+        db.sqlList().wantFirstSql().eq("" +
+            "SELECT `id`, `age` FROM fluent_mybatis.student ORDER BY `age` DESC, `id` ASC LIMIT ?, ?");
+        db.sqlList().wantFirstPara().eqList(0, 3);
+
+        SeekPagedList<StudentEntity> second = mapper.seekPagedEntity(seekQuery(), first.getNext());
+        want.list(second.getData()).eqDataMap(DataMap.create(1)
+            .kv("id", 3L)
+            .kv("age", 25));
+        want.bool(second.hasNext()).is(false);
+        db.sqlList().wantSql(1)
+            .start("SELECT `id`, `age` FROM fluent_mybatis.student WHERE")
+            .contains("((`age` < ?) OR (`age` = ? AND `id` > ?))")
+            .end("ORDER BY `age` DESC, `id` ASC LIMIT ?, ?");
+        db.sqlList().wantPara(1).eqList(30, 30, 2L, 0, 3);
+    }
+
+    @DisplayName("翻页后恢复查询的条件和limit, 同一个query可以继续查询下一页")
+    @Test
+    void seekPaged_reuseQuery() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1L, 2L, 3L)
+            .age.values(30, 30, 25)
+            .cleanAndInsert();
+        StudentQuery query = StudentQuery.emptyQuery()
+            .select.id().age().end()
+            .where.age().gt(20).end()
+            .orderBy.age().desc().id().asc().end()
+            .limit(2);
+        SeekPagedList<StudentEntity> first = mapper.seekPagedEntity(query, null);
+        want.number(query.data().paged().getLimit()).eq(2);
+
+        SeekPagedList<StudentEntity> second = mapper.seekPagedEntity(query, first.getNext());
+        want.list(second.getData()).eqDataMap(DataMap.create(1)
+            .kv("id", 3L)
+            .kv("age", 25));
+        want.number(query.data().paged().getLimit()).eq(2);
+        db.sqlList().wantSql(1)
+            .start("SELECT `id`, `age` FROM fluent_mybatis.student WHERE (`age` > ?) AND")
+            .end("ORDER BY `age` DESC, `id` ASC LIMIT ?, ?");
+
+        mapper.listEntity(query);
+        db.sqlList().wantSql(2).eq("" +
+            "SELECT `id`, `age` FROM fluent_mybatis.student WHERE `age` > ? ORDER BY `age` DESC, `id` ASC LIMIT ?, ?");
+        db.sqlList().wantPara(2).eqList(20, 0, 2);
+    }
+
+    @DisplayName("游标和查询的排序字段不一致时报错")
+    @Test
+    void seekPaged_cursorMismatch() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1L, 2L, 3L)
+            .age.values(30, 30, 25)
+            .cleanAndInsert();
+        String cursor = mapper.seekPagedEntity(seekQuery(), null).getNext();
+        StudentQuery byId = StudentQuery.emptyQuery()
+            .select.id().age().end()
+            .orderBy.id().asc().end()
+            .limit(2);
+        want.exception(() -> mapper.seekPagedEntity(byId, cursor), FluentMybatisException.class)
+            .contains("does not match");
+    }
+
+    /**
+     * SELECT `id`, `age` ... ORDER BY `age` DESC, `id` ASC LIMIT 2
+     */
+    private static StudentQuery seekQuery() {
+        return StudentQuery.emptyQuery()
+            .select.id().age().end()
+            .orderBy.age().desc().id().asc().end()
+            .limit(2);
+    }
+}
@@ -1,22 +1,47 @@
 package cn.org.atool.fluent.mybatis.test.paged;
 
+import cn.org.atool.fluent.mybatis.db.pg.mapper.PgStudentMapper;
+import cn.org.atool.fluent.mybatis.db.pg.wrapper.PgStudentQuery;
 import cn.org.atool.fluent.mybatis.generator.ATM;
 import cn.org.atool.fluent.mybatis.generator.shared2.Ref;
+import cn.org.atool.fluent.mybatis.generator.shared2.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.HomeAddressMapper;
 import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.HomeAddressQuery;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.HomeAddressUpdate;
 import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentUpdate;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.CountCacheKit;
+import cn.org.atool.fluent.mybatis.utility.PagedKit;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.test4j.tools.datagen.DataMap;
 
+import javax.sql.DataSource;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class StdPagedTest extends BaseTest {
     @Autowired
     StudentMapper mapper;
 
+    @Autowired
+    HomeAddressMapper addressMapper;
+
+    @Autowired
+    PgStudentMapper pgMapper;
+
+    @Autowired
+    DataSource dataSource;
+
     @Test
     void stdPaged_withGroupBy() {
         ATM.dataMap.student.initTable(6)
@@ -53,4 +78,232 @@ public class StdPagedTest extends BaseTest {
         db.sqlList().wantFirstSql().eq("" +
             "SELECT COUNT(*) FROM fluent_mybatis.student");
     }
+
+    @DisplayName("count在独立会话中和当前页查询并发执行")
+    @Test
+    void stdPaged_concurrent() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(20, 30, 30, 30, 30)
+            .cleanAndInsert();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        PagedKit.setConcurrent(executor);
+        try {
+            StdPagedList<StudentEntity> paged = StudentQuery.emptyQuery()
+                .where.age().gt(25).end()
+                .limit(0, 3)
+                .of(mapper).stdPagedEntity();
+            want.number(paged.getTotal()).eq(4);
+            want.list(paged.getData()).sizeEq(3);
+            want.bool(paged.hasNext()).is(true);
+        } finally {
+            PagedKit.setConcurrent(null);
+            executor.shutdown();
+        }
+    }
+
+    @DisplayName("COUNT(*) OVER()窗口函数随当前页数据一起返回总记录数")
+    @Test
+    void stdPaged_windowTotal() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(20, 30, 30, 30, 30)
+            .cleanAndInsert();
+        PagedKit.setWindowTotal(true);
+        try {
+            StdPagedList<StudentEntity> paged = ageQuery(0, 2).of(mapper).stdPagedEntity();
+            want.number(paged.getTotal()).eq(4);
+            want.list(paged.getData()).sizeEq(2);
+            want.bool(paged.hasNext()).is(true);
+            db.sqlList().wantFirstSql().eq("" +
+                "SELECT `id`, COUNT(*) OVER() AS FM_TOTAL FROM fluent_mybatis.student WHERE `age` > ? LIMIT ?, ?");
+            want.exception(() -> db.sqlList().sql(1), IndexOutOfBoundsException.class);
+        } finally {
+            PagedKit.setWindowTotal(false);
+        }
+    }
+
+    @DisplayName("DISTINCT查询不能用窗口函数统计总数, 仍然先count")
+    @Test
+    void stdPaged_windowTotal_distinct() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(20, 30, 30, 40, 40)
+            .cleanAndInsert();
+        PagedKit.setWindowTotal(true);
+        try {
+            StdPagedList<StudentEntity> paged = StudentQuery.emptyQuery()
+                .distinct().select.age().end()
+                .where.age().gt(25).end()
+                .limit(0, 10)
+                .of(mapper).stdPagedEntity();
+            want.number(paged.getTotal()).eq(2);
+            db.sqlList().wantFirstSql().start("SELECT COUNT(");
+            db.sqlList().wantSql(1).notContain("OVER()");
+        } finally {
+            PagedKit.setWindowTotal(false);
+        }
+    }
+
+    @DisplayName("当前页没有数据时, 窗口函数取不到总记录数, 退回count查询")
+    @Test
+    void stdPaged_windowTotal_emptyPage() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(20, 30, 30, 30, 30)
+            .cleanAndInsert();
+        PagedKit.setWindowTotal(true);
+        try {
+            StdPagedList<StudentEntity> paged = ageQuery(10, 2).of(mapper).stdPagedEntity();
+            want.number(paged.getTotal()).eq(4);
+            want.list(paged.getData()).sizeEq(0);
+            db.sqlList().wantFirstSql().contains("COUNT(*) OVER() AS FM_TOTAL");
+            db.sqlList().wantSql(1).eq("SELECT COUNT(*) FROM fluent_mybatis.student WHERE `age` > ?");
+        } finally {
+            PagedKit.setWindowTotal(false);
+        }
+    }
+
+    @DisplayName("估算总数: 最多count条数")
+    @Test
+    void stdPaged_approximateCount() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(20, 30, 30, 30, 30)
+            .cleanAndInsert();
+        StdPagedList<StudentEntity> paged = ageQuery(0, 2).approximateCount(3).of(mapper).stdPagedEntity();
+        want.number(paged.getTotal()).eq(3);
+        want.bool(paged.isApproximate()).is(true);
+        want.bool(paged.hasNext()).is(true);
+        String sql = db.sqlList().firstSql().replaceAll("TMP_\\d+", "TMP_");
+        want.string(sql).eq("SELECT COUNT(*) FROM " +
+            "(SELECT 1 AS FM_ROW FROM fluent_mybatis.student WHERE `age` > ? LIMIT 0, 3) TMP_");
+
+        StdPagedList<StudentEntity> exact = ageQuery(0, 2).approximateCount(10).of(mapper).stdPagedEntity();
+        want.number(exact.getTotal()).eq(4);
+        want.bool(exact.isApproximate()).is(false);
+    }
+
+    @DisplayName("估算总数: 没有查询条件时按表统计信息估算")
+    @Test
+    void stdPaged_approximateStatistics() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(20, 30, 30, 30, 30)
+            .cleanAndInsert();
+        StdPagedList<StudentEntity> paged = StudentQuery.emptyQuery()
+            .selectId()
+            .limit(0, 2)
+            .approximateCount(100)
+            .of(mapper).stdPagedEntity();
+        want.bool(paged.isApproximate()).is(true);
+        db.sqlList().wantFirstSql().eq("SELECT COALESCE(MAX(TABLE_ROWS), -1) FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = 'fluent_mybatis' AND TABLE_NAME = 'student'");
+    }
+
+    @DisplayName("估算总数: postgresql没有统计信息(reltuples <= 0)时返回-1, 退回精确count")
+    @Test
+    void stdPaged_approximateStatistics_pg() {
+        want.exception(() -> new PgStudentQuery()
+            .selectId()
+            .limit(0, 2)
+            .approximateCount(100)
+            .of(pgMapper).stdPagedEntity(), Exception.class);
+        db.sqlList().wantFirstSql().eq("SELECT COALESCE(MAX(CASE WHEN reltuples > 0 THEN CAST(reltuples AS BIGINT) END), -1) " +
+            "FROM pg_class WHERE oid = to_regclass('test.student')");
+    }
+
+    @DisplayName("count缓存: 相同条件翻页不重复count, 表有写操作后失效")
+    @Test
+    void stdPaged_countCache() {
+        ATM.dataMap.student.initTable(5)
+            .id.values(1L, 2L, 3L, 4L, 5L)
+            .age.values(20, 30, 30, 30, 30)
+            .cleanAndInsert();
+        CountCacheKit.setCountCache(10, TimeUnit.SECONDS, 10);
+        try {
+            want.number(ageQuery(0, 2).of(mapper).stdPagedEntity().getTotal()).eq(4);
+            want.number(ageQuery(2, 2).of(mapper).stdPagedEntity().getTotal()).eq(4);
+            db.sqlList().wantSql(0).eq("SELECT COUNT(*) FROM fluent_mybatis.student WHERE `age` > ?");
+            db.sqlList().wantSql(2).eq("SELECT `id` FROM fluent_mybatis.student WHERE `age` > ? LIMIT ?, ?");
+
+            mapper.updateBy(StudentUpdate.emptyUpdater()
+                .set.age().is(40).end()
+                .where.id().eq(1L).end());
+            want.number(ageQuery(0, 2).of(mapper).stdPagedEntity().getTotal()).eq(5);
+            db.sqlList().wantSql(4).eq("SELECT COUNT(*) FROM fluent_mybatis.student WHERE `age` > ?");
+        } finally {
+            CountCacheKit.setCountCache(0, TimeUnit.SECONDS, 0);
+        }
+    }
+
+    @DisplayName("count缓存: 子查询中的表有写操作后也失效")
+    @Test
+    void stdPaged_countCache_subQueryTable() {
+        ATM.dataMap.homeAddress.initTable(2)
+            .id.values(1, 2)
+            .address.values("address")
+            .cleanAndInsert();
+        ATM.dataMap.student.initTable(3)
+            .homeAddressId.values(1, 1, 2)
+            .cleanAndInsert();
+        CountCacheKit.setCountCache(10, TimeUnit.SECONDS, 10);
+        try {
+            Runnable paged = () -> StudentQuery.emptyQuery()
+                .selectId()
+                .where.homeAddressId().in(HomeAddressQuery.emptyQuery().selectId()
+                    .where.address().eq("address").end())
+                .end()
+                .limit(0, 2)
+                .of(mapper).stdPagedEntity();
+            paged.run();
+            paged.run();
+            db.sqlList().wantSql(0).start("SELECT COUNT(*)");
+            db.sqlList().wantSql(2).start("SELECT `id`");
+
+            addressMapper.updateBy(HomeAddressUpdate.emptyUpdater()
+                .set.address().is("address 2").end()
+                .where.id().eq(2L).end());
+            paged.run();
+            db.sqlList().wantSql(4).start("SELECT COUNT(*)");
+        } finally {
+            CountCacheKit.setCountCache(0, TimeUnit.SECONDS, 0);
+        }
+    }
+
+    @DisplayName("count缓存: 一个spring事务只登记一个事务同步, 事务结束后事务中写过的表一起失效")
+    @Test
+    void stdPaged_countCache_transaction() {
+        ATM.dataMap.student.initTable(5)
+            .id.values(1L, 2L, 3L, 4L, 5L)
+            .age.values(20, 20, 30, 30, 30)
+            .cleanAndInsert();
+        CountCacheKit.setCountCache(10, TimeUnit.SECONDS, 10);
+        try {
+            want.number(ageQuery(0, 2).of(mapper).stdPagedEntity().getTotal()).eq(3);
+            TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            long synchronizations = transaction.execute(status -> {
+                mapper.updateBy(StudentUpdate.emptyUpdater()
+                    .set.age().is(40).end()
+                    .where.id().eq(1L).end());
+                mapper.updateBy(StudentUpdate.emptyUpdater()
+                    .set.age().is(40).end()
+                    .where.id().eq(2L).end());
+                addressMapper.updateBy(HomeAddressUpdate.emptyUpdater()
+                    .set.address().is("address").end()
+                    .where.id().eq(1L).end());
+                return TransactionSynchronizationManager.getSynchronizations().stream()
+                    .filter(synchronization -> synchronization.toString().startsWith("CountCacheSynchronization"))
+                    .count();
+            });
+            want.number(synchronizations).eq(1L);
+            want.number(ageQuery(0, 2).of(mapper).stdPagedEntity().getTotal()).eq(5);
+        } finally {
+            CountCacheKit.setCountCache(0, TimeUnit.SECONDS, 0);
+        }
+    }
+
+    /**
+     * SELECT `id` ... WHERE `age` > 25 LIMIT offset, size
+     */
+    private static StudentQuery ageQuery(int offset, int size) {
+        return StudentQuery.emptyQuery()
+            .selectId()
+            .where.age().gt(25).end()
+            .limit(offset, size);
+    }
 }
@@ -89,7 +89,7 @@ public class PrintSqlTestA2 extends BaseTest {
     }
 
     private static String sql(KeyStr data) {
-        return data.key().replaceAll("variable_\\d+_\\d+", "variable");
+        return data.key().replaceAll("parameters\\.p_\\d+", "parameters.variable");
     }
 
     @Test
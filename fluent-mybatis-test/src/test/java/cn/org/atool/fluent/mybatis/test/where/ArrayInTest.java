@@ -0,0 +1,88 @@
+package cn.org.atool.fluent.mybatis.test.where;
+
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.entity.AMapping;
+import cn.org.atool.fluent.mybatis.base.model.SqlOp;
+import cn.org.atool.fluent.mybatis.base.provider.SqlProvider;
+import cn.org.atool.fluent.mybatis.db.hsql.mapper.HSqlStudentMapper;
+import cn.org.atool.fluent.mybatis.db.hsql.wrapper.HSqlStudentQuery;
+import cn.org.atool.fluent.mybatis.db.pg.mapper.PgStudentMapper;
+import cn.org.atool.fluent.mybatis.db.pg.wrapper.PgStudentQuery;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.RefKit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.hamcrest.matcher.string.StringMode;
+
+import java.util.Arrays;
+
+public class ArrayInTest extends BaseTest {
+    private static final String ARRAY_PARA = "#{ew.data.parameters.p_1, " +
+        "typeHandler=cn.org.atool.fluent.mybatis.typehandler.TypedArrayHandler}";
+
+    @Autowired
+    private StudentMapper mapper;
+
+    @AfterEach
+    void reset() {
+        SqlOp.setInBuckets();
+        SqlOp.setArrayIn(false);
+    }
+
+    @DisplayName("mysql不支持数组绑定, 数组变量按下标展开, 并按分桶补齐")
+    @Test
+    void testArrayIn_mysql() {
+        SqlOp.setArrayIn(true);
+        SqlOp.setInBuckets(4);
+        mapper.listEntity(StudentQuery.emptyQuery()
+            .selectId()
+            .where.id().notIn(new long[]{1, 2, 3}).end());
+        db.sqlList().wantFirstSql().eq("" +
+            "SELECT `id` FROM fluent_mybatis.student WHERE `id` NOT IN (?, ?, ?, ?)", StringMode.SameAsSpace);
+        db.sqlList().wantFirstPara().eqList(1L, 2L, 3L, 3L);
+    }
+
+    @DisplayName("postgresql按单个数组变量绑定IN列表, 列表长度不同语句相同")
+    @Test
+    void testArrayIn_pg() {
+        SqlOp.setArrayIn(true);
+        SqlOp.setInBuckets(4);
+        PgStudentQuery query = new PgStudentQuery()
+            .selectId()
+            .where.id().in(new long[]{1, 2, 3}).end();
+        want.string(render(PgStudentMapper.class, query)).eq("" +
+            "SELECT \"id\" FROM test.\"student\" WHERE \"id\" = ANY(" + ARRAY_PARA + ")", StringMode.SameAsSpace);
+        want.list(Arrays.asList((Object[]) query.data().getParameters().get("p_1"))).eqReflect(Arrays.asList(1L, 2L, 3L));
+
+        PgStudentQuery notIn = new PgStudentQuery()
+            .selectId()
+            .where.id().notIn(new long[]{1, 2, 3, 4, 5}).end();
+        want.string(render(PgStudentMapper.class, notIn)).eq("" +
+            "SELECT \"id\" FROM test.\"student\" WHERE \"id\" <> ALL(" + ARRAY_PARA + ")", StringMode.SameAsSpace);
+        want.list(Arrays.asList((Object[]) notIn.data().getParameters().get("p_1"))).eqReflect(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+    }
+
+    @DisplayName("hsql(h2)按UNNEST数组变量绑定IN列表")
+    @Test
+    void testArrayIn_hsql() {
+        SqlOp.setArrayIn(true);
+        HSqlStudentQuery query = new HSqlStudentQuery()
+            .selectId()
+            .where.id().in(new long[]{1, 2, 3}).end();
+        want.string(render(HSqlStudentMapper.class, query)).eq("" +
+            "SELECT ID FROM STUDENT WHERE ID IN (UNNEST(" + ARRAY_PARA + "))", StringMode.SameAsSpace);
+        want.list(Arrays.asList((Object[]) query.data().getParameters().get("p_1"))).eqReflect(Arrays.asList(1L, 2L, 3L));
+    }
+
+    /**
+     * 按mapper的映射和SqlKit渲染listEntity语句(和SqlProvider.listEntity相同), 不在mysql测试库上执行
+     */
+    private static String render(Class mapperClass, IQuery query) {
+        AMapping mapping = RefKit.byMapper(mapperClass);
+        return query.data().getParameters().positional(SqlProvider.sqlKit(mapping).queryBy(mapping, query.data()));
+    }
+}
@@ -0,0 +1,45 @@
+package cn.org.atool.fluent.mybatis.test.where;
+
+import cn.org.atool.fluent.mybatis.base.model.SqlOp;
+import cn.org.atool.fluent.mybatis.generator.shared2.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generator.shared2.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.hamcrest.matcher.string.StringMode;
+
+public class InBucketTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @AfterEach
+    void reset() {
+        SqlOp.setInBuckets();
+    }
+
+    @DisplayName("IN列表按分桶阶梯补齐占位符, 补齐部分重复最后一个值")
+    @Test
+    void testInBucket() {
+        SqlOp.setInBuckets(4);
+        mapper.listEntity(StudentQuery.emptyQuery()
+            .selectId()
+            .where.id().in(new long[]{1, 2, 3}).end());
+        db.sqlList().wantFirstSql().eq("" +
+            "SELECT `id` FROM fluent_mybatis.student WHERE `id` IN (?, ?, ?, ?)", StringMode.SameAsSpace);
+        db.sqlList().wantFirstPara().eqList(1L, 2L, 3L, 3L);
+    }
+
+    @DisplayName("2的幂次分桶: 最大阶梯不是2的幂次时以max为最后一级")
+    @Test
+    void testInBucketsOfPowerTwo() {
+        SqlOp.setInBucketsOfPowerTwo(6);
+        mapper.listEntity(StudentQuery.emptyQuery()
+            .selectId()
+            .where.id().in(new long[]{1, 2, 3, 4, 5}).end());
+        db.sqlList().wantFirstSql().eq("" +
+            "SELECT `id` FROM fluent_mybatis.student WHERE `id` IN (?, ?, ?, ?, ?, ?)", StringMode.SameAsSpace);
+        db.sqlList().wantFirstPara().eqList(1L, 2L, 3L, 4L, 5L, 5L);
+    }
+}
@@ -136,7 +136,7 @@ public interface FormServiceKit {
     }
 
     /**
-     * 更新操作
+     * 更新操作, 多个更新作为JDBC批处理执行, 返回各更新影响记录数之和
      *
      * @param meta 方法元数据
      * @param list 入参是List
@@ -146,13 +146,12 @@ public interface FormServiceKit {
         if (list.size() == 0) {
             throw new IllegalArgumentException("the update list can't be empty.");
         }
-        IUpdate[] updates = new IUpdate[list.size()];
-        int index = 0;
+        List<IUpdate> updates = new ArrayList<>(list.size());
         for (Object obj : list) {
             IUpdate update = FormHelper.newUpdate(new MethodArgs(meta, new Object[]{obj}));
-            updates[index++] = update;
+            updates.add(update);
         }
-        int count = RefKit.mapper(meta.entityClass).updateBy(updates);
+        int count = Arrays.stream(RefKit.mapper(meta.entityClass).batchUpdate(updates)).sum();
         return returnUpdateResult(meta, count);
     }
 
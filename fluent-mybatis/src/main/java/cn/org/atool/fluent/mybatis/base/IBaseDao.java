@@ -1,6 +1,7 @@
 package cn.org.atool.fluent.mybatis.base;
 
 import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -37,6 +38,18 @@ public interface IBaseDao<E extends IEntity> {
         return this.mapper().save(list);
     }
 
+    /**
+     * 按指定的执行方式批量插入
+     * 列表实例的主键必须全赋值，或者全不赋值
+     *
+     * @param list 实体对象列表
+     * @param mode 批量插入执行方式
+     * @return 插入记录数
+     */
+    default int save(Collection<E> list, InsertMode mode) {
+        return this.mapper().save(list, mode);
+    }
+
     /**
      * <p>
      * 根据主键判断记录是否已经存在
@@ -51,6 +64,16 @@ public interface IBaseDao<E extends IEntity> {
         return this.mapper().saveOrUpdate(entity);
     }
 
+    /**
+     * 按主键批量插入或更新, 在同一个事务中逐条saveOrUpdate
+     *
+     * @param entities 实体对象列表
+     * @return 影响记录数
+     */
+    default int saveOrUpdate(Collection<E> entities) {
+        return this.mapper().saveOrUpdate(entities);
+    }
+
     /**
      * 根据id查询
      *
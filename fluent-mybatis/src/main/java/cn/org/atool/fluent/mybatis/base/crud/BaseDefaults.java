@@ -2,6 +2,7 @@ package cn.org.atool.fluent.mybatis.base.crud;
 
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.functions.StringSupplier;
+import cn.org.atool.fluent.mybatis.segment.model.JoinAlias;
 import cn.org.atool.fluent.mybatis.segment.model.Parameters;
 
 /**
@@ -54,12 +55,12 @@ public abstract class BaseDefaults<E extends IEntity, Q extends IQuery<E>, U ext
 
     /**
      * 自动分配表别名查询构造器(join查询的时候需要定义表别名)
+     * 别名在join时按查询在join树中的位置分配: j_0, j_1, ...
      * 如果要自定义别名, 使用方法 {@link #query(String)}
      */
     @Override
     public Q alias() {
-        String alias = Parameters.alias();
-        return this.query(true, null, () -> alias, null);
+        return this.query(true, null, new JoinAlias(), null);
     }
 
     /* ========updater method======= */
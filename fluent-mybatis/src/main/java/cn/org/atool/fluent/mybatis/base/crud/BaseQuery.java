@@ -18,6 +18,7 @@ import lombok.Getter;
 import java.util.HashSet;
 import java.util.Set;
 
+import static cn.org.atool.fluent.mybatis.If.isBlank;
 import static cn.org.atool.fluent.mybatis.base.model.FieldMapping.alias;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.UNION;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.UNION_ALL;
@@ -58,7 +59,11 @@ public abstract class BaseQuery<
      */
     @Override
     public Q selectAll() {
-        this.allFields().stream().map(c -> alias(this.getTableAlias(), c)).forEach(this::select);
+        /* 表别名可能在join时才分配, 渲染时再取别名 */
+        for (String field : this.allFields()) {
+            IFragment column = Column.set(this, field);
+            this.data.select(m -> isBlank(this.getTableAlias()) ? column.get(m) : alias(this.getTableAlias(), field));
+        }
         return (Q) this;
     }
 
@@ -6,9 +6,11 @@ import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.base.entity.PkGeneratorKits;
 import cn.org.atool.fluent.mybatis.base.intf.BatchCrud;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.base.model.BatchCrudResult;
 import cn.org.atool.fluent.mybatis.base.provider.SqlKit;
 import cn.org.atool.fluent.mybatis.segment.BaseWrapper;
 import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import cn.org.atool.fluent.mybatis.utility.JdbcBatchKit;
 import cn.org.atool.fluent.mybatis.utility.RefKit;
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -16,6 +18,8 @@ import lombok.experimental.Accessors;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.assertNotNull;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.SEMICOLON_NEWLINE;
@@ -34,6 +38,10 @@ public class BatchCrudImpl implements BatchCrud {
     protected final WrapperData data;
 
     private final List<BiFunction<IMapping, SqlKit, String>> list = new ArrayList<>();
+    /**
+     * JDBC批处理执行时的操作列表, 和list一一对应
+     */
+    private final List<Operation> operations = new ArrayList<>();
 
     public BatchCrudImpl() {
         this.data = new WrapperData(EmptyWrapper.INSTANCE);
@@ -51,6 +59,7 @@ public class BatchCrudImpl implements BatchCrud {
             }
             updater.data().sharedParameter(data);
             list.add((m, kit) -> kit.updateBy(m, updater.data()));
+            operations.add(new Operation(() -> (IMapping) updater.mapping().orElse(null), mapper -> mapper.updateBy(updater)));
             this.setMapperBy(updater);
         }
         return this;
@@ -64,6 +73,7 @@ public class BatchCrudImpl implements BatchCrud {
             }
             query.data().sharedParameter(data);
             list.add((m, kit) -> kit.deleteBy(m, query.data()));
+            operations.add(new Operation(() -> (IMapping) query.mapping().orElse(null), mapper -> mapper.delete(query)));
             this.setMapperBy(query);
         }
         return this;
@@ -97,6 +107,13 @@ public class BatchCrudImpl implements BatchCrud {
             PkGeneratorKits.setPkByGenerator(entity);
             AMapping mapping = this.findMapping(entity.entityClass());
             list.add((m, kit) -> kit.insertEntity(mapping, prefix, entity, entity.findPk() != null));
+            operations.add(new Operation(() -> mapping, mapper -> {
+                if (entity.findPk() == null) {
+                    mapper.insert(entity);
+                } else {
+                    mapper.insertWithPk(entity);
+                }
+            }));
         }
         return this;
     }
@@ -106,6 +123,7 @@ public class BatchCrudImpl implements BatchCrud {
         assertNotNull("query", query);
         query.data().sharedParameter(data);
         list.add((m, kit) -> kit.insertSelect(m, insertTable, fields, query));
+        operations.add(new Operation(() -> RefKit.byTable(insertTable), mapper -> mapper.insertSelect(fields, query)));
         this.setMapperBy(query);
         return this;
     }
@@ -124,6 +142,54 @@ public class BatchCrudImpl implements BatchCrud {
         }
     }
 
+    /**
+     * 各语句单独执行, 连续相同sql的语句作为一组PreparedStatement.addBatch提交, 所有语句在同一个事务中
+     * <p>
+     * insert select语句按目标表对应的mapper执行, 目标表必须是FluentMybatis实体表
+     */
+    @Override
+    public BatchCrudResult executeBatch() {
+        if (isEmpty()) {
+            return new BatchCrudResult(new int[0], 0);
+        }
+        long start = System.nanoTime();
+        IMapping mapping = operations.get(0).mapping.get();
+        IEntityMapper first = mapping == null ? this.mapper : RefKit.mapperByEntity(mapping.entityClass());
+        if (first == null) {
+            throw new RuntimeException("execute mapper can't be null.");
+        }
+        int[] counts = JdbcBatchKit.counts(first, operations, this::mapperClass, (mapper, op) -> op.executor.accept(mapper));
+        return new BatchCrudResult(counts, System.nanoTime() - start);
+    }
+
+    private Class mapperClass(Operation op) {
+        IMapping mapping = op.mapping.get();
+        if (mapping != null) {
+            return mapping.mapperClass();
+        } else if (mapper != null) {
+            return mapper.mapping().mapperClass();
+        } else {
+            throw new RuntimeException("execute mapper can't be null.");
+        }
+    }
+
+    /**
+     * JDBC批处理执行的单个操作
+     */
+    private static class Operation {
+        /**
+         * 操作对应的IMapping, 为null时使用BatchCrud的mapper
+         */
+        final Supplier<IMapping> mapping;
+
+        final Consumer<IEntityMapper> executor;
+
+        Operation(Supplier<IMapping> mapping, Consumer<IEntityMapper> executor) {
+            this.mapping = mapping;
+            this.executor = executor;
+        }
+    }
+
     private void setMapperBy(IEntity entity) {
         if (mapper == null) {
             mapper = RefKit.mapperByEntity(entity.entityClass());
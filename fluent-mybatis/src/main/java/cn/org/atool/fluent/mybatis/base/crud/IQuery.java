@@ -7,10 +7,12 @@ import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
 import cn.org.atool.fluent.mybatis.base.mapper.QueryExecutor;
 import cn.org.atool.fluent.mybatis.functions.SqlFunction;
 import cn.org.atool.fluent.mybatis.functions.SqlFunction.IQueryFunction;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.segment.BaseWrapper;
 import cn.org.atool.fluent.mybatis.segment.OrderByBase;
 import cn.org.atool.fluent.mybatis.segment.WhereBase;
 import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import cn.org.atool.fluent.mybatis.utility.CursorKit;
 import cn.org.atool.fluent.mybatis.utility.RefKit;
 
 import java.util.function.Function;
@@ -100,6 +102,38 @@ public interface IQuery<E extends IEntity> extends IOptMapping {
         return this.limit((currPage - 1) * pageSize, pageSize);
     }
 
+    /**
+     * 标准分页查询(stdPaged)时估算总记录数, 返回结果标记为近似值 {@link StdPagedList#isApproximate()}
+     * <pre>
+     * 没有查询条件时: 读取表统计信息(MySQL, PostgreSQL, Oracle, SQL Server, H2)
+     * 有查询条件时: 最多数到 maxCount 条, SELECT COUNT(*) FROM (SELECT 1 FROM table WHERE ... LIMIT maxCount)
+     * </pre>
+     *
+     * @param maxCount 最多count记录数, count结果小于这个数时为精确值
+     * @return self
+     */
+    default <Q extends IQuery<E>> Q approximateCount(int maxCount) {
+        assertTrue("The maxCount must be greater than zero.", maxCount > 0);
+        this.data().setApproximateCount(maxCount);
+        return (Q) this;
+    }
+
+    /**
+     * 设置查询语句的 Statement.fetchSize, 每次从数据库读取的记录数
+     * <p>
+     * 游标查询(cursorEntity/streamEntity等)大数据量导出时使用; MySQL需要设置为 Integer.MIN_VALUE 才会逐行流式读取,
+     * PostgreSQL需要在事务(非autoCommit)中才会按fetchSize分批读取;
+     * MySQL流式读取时游标关闭前连接上不能执行其它语句, spring事务中须先读完或关闭游标(见{@link CursorKit})
+     *
+     * @param fetchSize 大于0, 或者 Integer.MIN_VALUE
+     * @return self
+     */
+    default <Q extends IQuery<E>> Q fetchSize(int fetchSize) {
+        assertTrue("The fetchSize must be greater than zero or Integer.MIN_VALUE.", fetchSize > 0 || fetchSize == Integer.MIN_VALUE);
+        this.data().setFetchSize(fetchSize);
+        return (Q) this;
+    }
+
     /**
      * 追加在sql语句的末尾
      * !!!慎用!!!
@@ -6,8 +6,10 @@ import cn.org.atool.fluent.mybatis.base.crud.IDefaultGetter;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.mapper.IMapper;
+import cn.org.atool.fluent.mybatis.utility.JdbcBatchKit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -80,6 +82,9 @@ public abstract class BaseDao<E extends IEntity, Q extends IQuery<E>, U extends
 
     @Override
     public boolean updateEntityByIds(E... entities) {
+        if (entities.length > JdbcBatchKit.getUpdateRows()) {
+            return this.mapper().updateByIds(Arrays.asList(entities)) > 0;
+        }
         List<IUpdate> updates = new ArrayList<>(entities.length);
         for (IEntity entity : entities) {
             IUpdate update = DaoHelper.buildUpdateEntityById(this::emptyUpdater, entity);
@@ -8,6 +8,7 @@ import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.base.provider.SqlProvider;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
+import cn.org.atool.fluent.mybatis.model.SeekPagedList;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.model.TagPagedList;
 
@@ -97,6 +98,17 @@ public interface IProtectedDao<E extends IEntity> {
         return this.mapper().updateBy(updates.toArray(new IUpdate[0]));
     }
 
+    /**
+     * 按JDBC批处理执行更新
+     *
+     * @param updates 更新条件
+     * @return 每个更新的成功记录数
+     * @see IRichMapper#batchUpdate(Collection)
+     */
+    default int[] batchUpdate(Collection<IUpdate> updates) {
+        return this.mapper().batchUpdate(updates);
+    }
+
     /**
      * 根据query查询对应实例列表
      *
@@ -231,6 +243,41 @@ public interface IProtectedDao<E extends IEntity> {
         return this.mapper().tagPagedPoJo(clazz, query);
     }
 
+    /**
+     * 按排序字段值(keyset)分页查询
+     *
+     * @param query  查询条件
+     * @param cursor 上一页返回的游标, 首页传null
+     * @return 分页查询结果
+     */
+    default SeekPagedList<E> seekPagedEntity(IQuery<E> query, String cursor) {
+        return this.mapper().seekPagedEntity(query, cursor);
+    }
+
+    /**
+     * 按排序字段值(keyset)分页查询（结果集为Map对象）
+     *
+     * @param query  查询条件
+     * @param cursor 上一页返回的游标, 首页传null
+     * @return 分页查询结果
+     */
+    default SeekPagedList<Map<String, Object>> seekPagedMap(IQuery<E> query, String cursor) {
+        return this.mapper().seekPagedMap(query, cursor);
+    }
+
+    /**
+     * 按排序字段值(keyset)分页查询（结果集为Object对象）
+     *
+     * @param clazz  Object类型
+     * @param query  查询条件
+     * @param cursor 上一页返回的游标, 首页传null
+     * @param <POJO> Object类型
+     * @return 分页查询结果
+     */
+    default <POJO> SeekPagedList<POJO> seekPagedPoJo(Class<POJO> clazz, IQuery<E> query, String cursor) {
+        return this.mapper().seekPagedPoJo(clazz, query, cursor);
+    }
+
     /**
      * 根据query查询满足条件的第一条记录
      * 当有多条记录符合条件时，只取第一条记录
@@ -9,6 +9,7 @@ import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
 import cn.org.atool.fluent.mybatis.base.intf.IDataByColumn;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
 import cn.org.atool.fluent.mybatis.base.model.UniqueType;
 import cn.org.atool.fluent.mybatis.functions.IGetter;
 import cn.org.atool.fluent.mybatis.functions.RefKey;
@@ -23,6 +24,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static cn.org.atool.fluent.mybatis.If.notBlank;
@@ -55,6 +57,11 @@ public abstract class AMapping<E extends IEntity, Q extends IQuery<E>, U extends
      */
     @Getter(AccessLevel.NONE)
     private DbType dbType;
+    /**
+     * 批量插入执行方式, null: 未指定, 由数据库方言按批量大小选择
+     */
+    @Getter(AccessLevel.NONE)
+    private InsertMode insertMode;
     /**
      * 数据库字段对应的FieldMapping
      */
@@ -79,12 +86,19 @@ public abstract class AMapping<E extends IEntity, Q extends IQuery<E>, U extends
 
     protected Map<UniqueType, FieldMapping> uniqueFields = new HashMap<>(4);
 
+    /**
+     * 按数据库类型预先计算的字段名称: 数据库字段 -> 包装后的字段(如 `column`)
+     * 数据库类型的转义方式被修改后({@link DbType#setEscapeExpress(String)}), 重新计算
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<DbType, WrappedColumns> wrappedColumns = new ConcurrentHashMap<>(4);
+
     protected AMapping(DbType dbType) {
         this.dbType = dbType;
         this.columnMap = this.allFields().stream().collect(Collectors.toMap(f -> f.column, f -> f));
         this.fieldsMap = this.allFields().stream().collect(Collectors.toMap(f -> f.name, f -> f));
         this.allColumns = Collections.unmodifiableList(this.allFields().stream().map(f -> f.column).collect(toList()));
-        this.selectAll = CachedFrag.set(m -> this.allColumns.stream().map(m.db()::wrap).collect(joining(", ")));
+        this.selectAll = CachedFrag.set(m -> this.allColumns.stream().map(m::wrap).collect(joining(", ")));
         this.allFields = Collections.unmodifiableList(this.allFields().stream().map(f -> f.name).collect(toList()));
     }
 
@@ -95,6 +109,39 @@ public abstract class AMapping<E extends IEntity, Q extends IQuery<E>, U extends
      */
     public abstract List<FieldMapping> allFields();
 
+    /**
+     * 映射字段直接取预先计算的值, 非映射字段(如join表的字段)按数据库类型实时包装
+     */
+    @Override
+    public String wrap(String column) {
+        DbType db = this.db();
+        String escape = db.getEscapeExpress();
+        WrappedColumns wrapped = this.wrappedColumns.get(db);
+        if (wrapped == null || !Objects.equals(wrapped.escape, escape)) {
+            wrapped = new WrappedColumns(db, escape, this.allColumns);
+            this.wrappedColumns.put(db, wrapped);
+        }
+        String value = wrapped.columns.get(column);
+        return value == null ? db.wrap(column) : value;
+    }
+
+    /**
+     * 按数据库类型和转义方式包装后的字段名称
+     */
+    private static class WrappedColumns {
+        private final String escape;
+
+        private final Map<String, String> columns;
+
+        WrappedColumns(DbType db, String escape, List<String> allColumns) {
+            this.escape = escape;
+            this.columns = new HashMap<>(allColumns.size() * 4 / 3 + 1);
+            for (String column : allColumns) {
+                this.columns.put(column, db.wrap(column));
+            }
+        }
+    }
+
     @Override
     public String columnOfField(String field) {
         if (this.fieldsMap.containsKey(field)) {
@@ -236,6 +283,15 @@ public abstract class AMapping<E extends IEntity, Q extends IQuery<E>, U extends
         this.dbType = dbType;
     }
 
+    @Override
+    public InsertMode insertMode() {
+        return this.insertMode;
+    }
+
+    public void insertMode(InsertMode insertMode) {
+        this.insertMode = insertMode;
+    }
+
     /**
      * 获取IQuery或IUpdate对应的表名称
      *
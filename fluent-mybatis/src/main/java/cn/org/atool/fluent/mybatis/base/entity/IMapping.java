@@ -6,6 +6,7 @@ import cn.org.atool.fluent.mybatis.base.crud.IDefaultGetter;
 import cn.org.atool.fluent.mybatis.base.intf.IDataByColumn;
 import cn.org.atool.fluent.mybatis.base.intf.IHasDbType;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
 import cn.org.atool.fluent.mybatis.base.model.UniqueType;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.functions.RefKey;
@@ -36,6 +37,15 @@ public interface IMapping extends IDefaultGetter, IHasDbType {
      */
     Class mapperClass();
 
+    /**
+     * 批量插入执行方式
+     *
+     * @return InsertMode, null: 未指定, 由数据库方言按批量大小选择
+     */
+    default InsertMode insertMode() {
+        return null;
+    }
+
     /**
      * 返回不加反义符的表名
      */
@@ -90,6 +100,16 @@ public interface IMapping extends IDefaultGetter, IHasDbType {
      */
     List<FieldMapping> allFields();
 
+    /**
+     * 按数据库类型包装字段名称, 如: `column`
+     *
+     * @param column 字段名称
+     * @return 包装后的字段名称
+     */
+    default String wrap(String column) {
+        return this.db().wrap(column);
+    }
+
     /**
      * 返回主键字段名称
      * 如果没有主键字段, 则返回null
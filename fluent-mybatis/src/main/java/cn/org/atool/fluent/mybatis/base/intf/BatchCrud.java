@@ -5,6 +5,7 @@ import cn.org.atool.fluent.mybatis.base.crud.BatchCrudImpl;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.base.model.BatchCrudResult;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 
 import java.util.Collection;
@@ -35,6 +36,14 @@ public interface BatchCrud  {
 
     void execute();
 
+    /**
+     * 按JDBC批处理执行: 各语句单独执行, 连续相同sql的语句作为一组addBatch提交, 所有语句在同一个事务中
+     * 不需要数据库驱动支持';'拼接的多语句
+     *
+     * @return 每个操作的影响记录数和执行耗时
+     */
+    BatchCrudResult executeBatch();
+
     /**
      * 按顺序添加Insert语句
      *
@@ -3,6 +3,7 @@ package cn.org.atool.fluent.mybatis.base.mapper;
 import cn.org.atool.fluent.common.kits.KeyMap;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.BaseQuery;
+import cn.org.atool.fluent.mybatis.base.crud.IDefaultSetter;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.intf.BatchCrud;
@@ -102,6 +103,35 @@ public interface IEntityMapper<E extends IEntity> extends IMapper<E>, IHasMappin
     @InsertProvider(type = SqlProvider.class, method = M_InsertBatchWithPk)
     int insertBatchWithPk(@Param(Param_List) Collection<E> entities);
 
+    /**
+     * 按主键插入或更新一条记录(单条语句), 主键字段不为空
+     * <pre>
+     * MySQL: INSERT ... ON DUPLICATE KEY UPDATE
+     * PostgreSQL, SQLite: INSERT ... ON CONFLICT (pk) DO UPDATE
+     * Oracle, SQL Server, H2: MERGE INTO ... USING ...
+     * ClickHouse: INSERT
+     * </pre>
+     * 更新部分不带{@link IDefaultSetter#setUpdateDefault(IUpdate)}设置的默认条件;
+     * MySQL按所有唯一键判断冲突, 和非主键的唯一键冲突时更新的是冲突的那条记录.
+     * 需要默认条件或版本锁校验时使用{@link IRichMapper#saveOrUpdate(IEntity)}
+     *
+     * @param entity 实例
+     * @return 影响记录数
+     * @see SqlProvider#upsert(Map, ProviderContext)
+     */
+    @InsertProvider(type = SqlProvider.class, method = M_Upsert)
+    int upsert(@Param(Param_EW) E entity);
+
+    /**
+     * 按主键批量插入或更新记录(单条语句)，实例主键必须全部已赋值
+     *
+     * @param entities 实例列表
+     * @return 影响记录数
+     * @see SqlProvider#upsertBatch(Map, ProviderContext)
+     */
+    @InsertProvider(type = SqlProvider.class, method = M_UpsertBatch)
+    int upsertBatch(@Param(Param_List) Collection<E> entities);
+
     /**
      * insert into a_table(fields) select fields from b_table;
      *
@@ -7,19 +7,31 @@ import cn.org.atool.fluent.mybatis.base.entity.PkGeneratorKits;
 import cn.org.atool.fluent.mybatis.base.free.FreeQuery;
 import cn.org.atool.fluent.mybatis.base.free.FreeUpdate;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
+import cn.org.atool.fluent.mybatis.base.provider.SqlKit;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
+import cn.org.atool.fluent.mybatis.model.SeekPagedList;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.model.TagPagedList;
+import cn.org.atool.fluent.mybatis.typehandler.WindowTotalHandler;
+import cn.org.atool.fluent.mybatis.utility.ChunkKit;
+import cn.org.atool.fluent.mybatis.utility.CursorKit;
+import cn.org.atool.fluent.mybatis.utility.JdbcBatchKit;
+import cn.org.atool.fluent.mybatis.utility.PagedKit;
 import cn.org.atool.fluent.mybatis.utility.PoJoHelper;
 import lombok.NonNull;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 import static cn.org.atool.fluent.mybatis.If.isEmpty;
 import static cn.org.atool.fluent.mybatis.base.model.SqlOp.EQ;
 import static cn.org.atool.fluent.mybatis.base.provider.SqlKitFactory.factory;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_ListMaps;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_internalListEntity;
 import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.assertNotEmpty;
 import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.assertNotNull;
 import static java.util.stream.Collectors.toList;
@@ -33,10 +45,10 @@ import static java.util.stream.Collectors.toList;
 public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
 
     default int insert(Inserter inserts) {
-        if (inserts.notPk()) {
-            return this.insertBatch(inserts.entities());
+        if (this.jdbcBatch(this.mapping().insertMode(), inserts.entities().size())) {
+            return JdbcBatchKit.insert(this, inserts.entities(), !inserts.notPk());
         } else {
-            return this.insertBatchWithPk(inserts.entities());
+            return this.insertChunks(inserts.entities(), !inserts.notPk());
         }
     }
 
@@ -51,6 +63,53 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         return this.updateBy(update);
     }
 
+    /**
+     * 根据entity主键批量更新非空字段
+     * <pre>
+     * 按{@link ChunkKit#setChunkSize(int)}和数据库绑定参数上限({@link SqlKit#maxParameters})分段, 每段:
+     * o 非空字段组合相同, 且没有版本锁字段: 单条 UPDATE ... SET c = CASE id WHEN ? THEN ? ... END WHERE id IN (...)
+     * o 否则: 每个实例一条updateById语句, 按JDBC批处理执行
+     * </pre>
+     * 各分段在同一个事务中执行(有调用方事务时加入, 见{@link JdbcBatchKit#transaction})
+     *
+     * @param entities 实体对象列表
+     * @return 更新记录数
+     */
+    default int updateByIds(Collection<E> entities) {
+        if (entities.size() <= 1) {
+            return entities.isEmpty() ? 0 : this.updateById(entities.iterator().next());
+        }
+        SqlKit kit = factory(this);
+        List<Collection<E>> chunks = ChunkKit.updateChunks(this.mapping(), kit.maxParameters(this.mapping()), entities);
+        if (chunks.size() == 1) {
+            return this.updateChunk(kit, chunks.get(0));
+        }
+        return JdbcBatchKit.transaction(this, mapper -> {
+            int count = 0;
+            for (Collection<E> chunk : chunks) {
+                count += ((IRichMapper<E>) mapper).updateChunk(kit, chunk);
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 按主键更新一段实例: 能合并时执行单条CASE WHEN语句, 否则逐条updateById按JDBC批处理执行
+     *
+     * @param kit   SqlKit
+     * @param chunk 一段实体对象, 见{@link ChunkKit#updateChunks}
+     * @return 更新记录数
+     */
+    default int updateChunk(SqlKit kit, Collection<E> chunk) {
+        IUpdate update = kit.updateByIds(this.mapping(), chunk);
+        if (update != null) {
+            return this.updateBy(update);
+        } else {
+            List<IUpdate> updates = chunk.stream().map(e -> kit.updateById(this.mapping(), e)).collect(toList());
+            return Arrays.stream(this.batchUpdate(updates)).sum();
+        }
+    }
+
     /**
      * 根据update对象更新记录
      *
@@ -65,6 +124,23 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         }
     }
 
+    /**
+     * 按JDBC批处理执行更新, 连续相同sql的更新复用同一个PreparedStatement批量提交
+     * <p>
+     * 和{@link #updateBy(IUpdate...)}相比, 不需要数据库支持';'拼接的多语句(如MySQL allowMultiQueries),
+     * 并返回每个更新的影响记录数
+     *
+     * @param updates 更新列表
+     * @return 按updates顺序的每个更新影响记录数
+     */
+    default <U extends IUpdate> int[] batchUpdate(Collection<U> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        } else {
+            return JdbcBatchKit.counts(this, updates, (mapper, update) -> mapper.updateBy(update));
+        }
+    }
+
     /**
      * 根据 ID 查询
      *
@@ -100,19 +176,19 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return ignore
      */
     default List<E> listByIds(Object... ids) {
-        IQuery query = factory(this).queryByIds(this.mapping(), ids);
-        return this.listEntity(query);
+        assertNotEmpty("ids", ids);
+        return this.listByIds(Arrays.asList(ids));
     }
 
     /**
      * 查询（根据ID 批量查询）
+     * ID列表超过{@link ChunkKit#getChunkSize()}时分段查询
      *
      * @param ids 主键ID列表(不能为 null 以及 empty)
      * @return ignore
      */
     default List<E> listByIds(Collection ids) {
-        IQuery query = factory(this).queryByIds(this.mapping(), ids);
-        return this.listEntity(query);
+        return ChunkKit.list(this, (Collection<Object>) ids, chunk -> this.listEntity(factory(this).queryByIds(this.mapping(), chunk)));
     }
 
     /**
@@ -137,20 +213,24 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      */
     default int deleteById(Object... ids) {
         assertNotEmpty("ids", ids);
-        IQuery query = factory(this).queryByIds(this.mapping(), ids);
-        return this.delete(query);
+        return this.deleteByIds(Arrays.asList(ids));
     }
 
     /**
      * 根据id列表批量删除
+     * ID列表超过{@link ChunkKit#getChunkSize()}时分段删除,
+     * 各分段在同一个事务中执行(有调用方事务时加入, 见{@link JdbcBatchKit#transaction})
      *
      * @param ids id列表（值不能为null或者empty）
      * @return ignore
      */
     default int deleteByIds(Collection ids) {
         assertNotEmpty("ids", ids);
-        IQuery query = factory(this).queryByIds(this.mapping(), ids);
-        return this.delete(query);
+        if (ids.size() <= ChunkKit.getChunkSize()) {
+            return this.delete(factory(this).queryByIds(this.mapping(), ids));
+        }
+        return JdbcBatchKit.transaction(this, mapper -> ChunkKit.sum((Collection<Object>) ids,
+            chunk -> mapper.delete(factory(this).queryByIds(this.mapping(), chunk))));
     }
 
     /**
@@ -174,20 +254,24 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      */
     default int logicDeleteById(Object... ids) {
         assertNotEmpty("ids", ids);
-        IUpdate update = factory(this).logicDeleteByIds(this.mapping(), ids);
-        return this.updateBy(update);
+        return this.logicDeleteByIds(Arrays.asList(ids));
     }
 
     /**
      * 根据id列表批量逻辑删除
+     * ID列表超过{@link ChunkKit#getChunkSize()}时分段执行,
+     * 各分段在同一个事务中执行(有调用方事务时加入, 见{@link JdbcBatchKit#transaction})
      *
      * @param ids id列表（值不能为null或者empty）
      * @return ignore
      */
     default int logicDeleteByIds(Collection ids) {
         assertNotEmpty("ids", ids);
-        IUpdate update = factory(this).logicDeleteByIds(this.mapping(), ids);
-        return this.updateBy(update);
+        if (ids.size() <= ChunkKit.getChunkSize()) {
+            return this.updateBy(factory(this).logicDeleteByIds(this.mapping(), ids));
+        }
+        return JdbcBatchKit.transaction(this, mapper -> ChunkKit.sum((Collection<Object>) ids,
+            chunk -> mapper.updateBy(factory(this).logicDeleteByIds(this.mapping(), chunk))));
     }
 
     /**
@@ -244,6 +328,8 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * o 是：更新记录
      * o 否：插入记录
      * </p>
+     * 更新时和{@link #updateById(IEntity)}一样带上默认条件和版本锁条件;
+     * 单条语句按主键插入或更新见{@link #upsert(IEntity)}
      *
      * @param entity 实体对象
      * @return 更新或者插入成功
@@ -263,6 +349,58 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         }
     }
 
+    /**
+     * 按主键批量插入或更新, 逐条{@link #saveOrUpdate(IEntity)},
+     * 在同一个事务中执行(有调用方事务时加入, 见{@link JdbcBatchKit#transaction})
+     *
+     * @param entities 实体对象列表
+     * @return 影响记录数
+     */
+    default int saveOrUpdate(Collection<E> entities) {
+        if (isEmpty(entities)) {
+            return 0;
+        }
+        return JdbcBatchKit.transaction(this, mapper -> {
+            int count = 0;
+            for (E entity : entities) {
+                count += ((IRichMapper<E>) mapper).saveOrUpdate(entity) ? 1 : 0;
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 按主键批量插入或更新(upsert语句), 实例主键必须全部已赋值
+     * <p>
+     * 按{@link ChunkKit#insertChunks}切分, 每段一条{@link #upsertBatch(Collection)}语句,
+     * 在同一个事务中执行(有调用方事务时加入, 见{@link JdbcBatchKit#transaction})
+     * <pre>
+     * 和{@link #saveOrUpdate(Collection)}的区别
+     * o 更新时不带{@link IDefaultSetter#setUpdateDefault(IUpdate)}设置的默认条件
+     * o MySQL按所有唯一键(不只是主键)判断冲突, 和其它唯一键冲突时更新的是冲突的那条记录
+     * o 数据库不支持时({@link SqlKit#upsertable})抛出异常
+     * </pre>
+     *
+     * @param entities 实体对象列表
+     * @return 影响记录数
+     */
+    default int upsertChunks(Collection<E> entities) {
+        if (isEmpty(entities)) {
+            return 0;
+        }
+        List<Collection<E>> chunks = ChunkKit.insertChunks(this.mapping(), entities);
+        if (chunks.size() == 1) {
+            return this.upsertBatch(entities);
+        }
+        return JdbcBatchKit.transaction(this, mapper -> {
+            int count = 0;
+            for (Collection<E> chunk : chunks) {
+                count += mapper.upsertBatch(chunk);
+            }
+            return count;
+        });
+    }
+
     /**
      * 将entity补充设置默认值后保存到数据库
      * 默认值设置{@link FluentMybatis#defaults()}, 具体定义继承 {@link IDefaultSetter#setInsertDefault(IEntity)}
@@ -290,6 +428,22 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return 插入记录数
      */
     default int save(Collection<E> list) {
+        return this.save(list, this.mapping().insertMode());
+    }
+
+    /**
+     * 按指定的执行方式批量插入, 列表实例的主键必须全赋值，或者全不赋值
+     * <pre>
+     * o InsertMode.MULTI_VALUES: 单条 INSERT ... VALUES (...), (...) 语句
+     * o InsertMode.JDBC_BATCH: 单条insert语句模板按JDBC批处理提交, 驱动支持时回填自增主键
+     * o null: 未指定, 由数据库方言按批量大小选择(如oracle大批量插入时使用JDBC批处理)
+     * </pre>
+     *
+     * @param list 实体对象列表
+     * @param mode 批量插入执行方式
+     * @return 插入记录数
+     */
+    default int save(Collection<E> list, InsertMode mode) {
         assertNotEmpty("list", list);
         /* 如果有主键生成器, 先设置主键 **/
         Boolean hasPk = null;
@@ -301,11 +455,48 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
                 throw new IllegalStateException("The instance primary keys in the list either have values or have no values");
             }
         }
-        if (hasPk == null || hasPk) {
-            return this.insertBatchWithPk(list);
+        if (this.jdbcBatch(mode, list.size())) {
+            return JdbcBatchKit.insert(this, list, hasPk);
         } else {
-            return this.insertBatch(list);
+            return this.insertChunks(list, hasPk);
+        }
+    }
+
+    /**
+     * 是否使用JDBC批处理插入: 显式指定JDBC_BATCH; 未指定插入方式时, 数据库方言在该批量大小下倾向JDBC批处理(如oracle大批量插入)
+     *
+     * @param mode 批量插入执行方式, null: 未指定
+     * @param size 插入记录数
+     * @return true: JDBC批处理
+     */
+    default boolean jdbcBatch(InsertMode mode, int size) {
+        if (mode == null) {
+            return factory(this).jdbcBatch(this.mapping(), size);
+        } else {
+            return mode == InsertMode.JDBC_BATCH;
+        }
+    }
+
+    /**
+     * 多值insert批量插入, 超过{@link ChunkKit#setInsertLimit(int, long)}上限时切分成多条语句,
+     * 在同一个事务中执行(有调用方事务时加入, 见{@link JdbcBatchKit#transaction}), 返回累计插入记录数
+     *
+     * @param list   实体对象列表
+     * @param withPk 是否带主键插入
+     * @return 插入记录数
+     */
+    default int insertChunks(Collection list, boolean withPk) {
+        List<Collection<IEntity>> chunks = ChunkKit.insertChunks(this.mapping(), list);
+        if (chunks.size() == 1) {
+            return withPk ? this.insertBatchWithPk(list) : this.insertBatch(list);
         }
+        return JdbcBatchKit.transaction(this, mapper -> {
+            int count = 0;
+            for (Collection chunk : chunks) {
+                count += withPk ? mapper.insertBatchWithPk(chunk) : mapper.insertBatch(chunk);
+            }
+            return count;
+        });
     }
 
     /**
@@ -330,8 +521,11 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return PoJo实例
      */
     default <POJO> Optional<POJO> findOne(Class<POJO> clazz, IQuery query) {
-        Optional<Map<String, Object>> optional = this.findOneMap(query);
-        return optional.map(m -> PoJoHelper.toPoJo(clazz, m));
+        List<POJO> list = PoJoHelper.listPoJos(clazz, query, this::listMaps);
+        if (list != null && list.size() > 1) {
+            throw new RuntimeException("The expected result is one, but the returned result is multiple.");
+        }
+        return Optional.ofNullable(list == null || list.size() == 0 ? null : list.get(0));
     }
 
     /**
@@ -374,8 +568,73 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return PoJo列表
      */
     default <POJO> List<POJO> listPoJos(Class<POJO> clazz, IQuery query) {
-        List<Map<String, Object>> list = this.listMaps(query);
-        return PoJoHelper.toPoJoList(clazz, list);
+        return PoJoHelper.listPoJos(clazz, query, this::listMaps);
+    }
+
+    /**
+     * 根据query以游标方式逐条读取实例, 不把全部结果加载到内存, 适合大数据量导出
+     * 游标在独立会话中执行(spring事务中使用事务连接), 使用完毕或读取完毕时关闭会话; 不加载 withRelations 关联数据
+     * 每次读取的记录数见 {@link IQuery#fetchSize(int)}, {@link CursorKit#setFetchSize(int)}
+     *
+     * @param query 查询条件
+     * @return 实例游标, 使用完毕须关闭
+     */
+    default Cursor<E> cursorEntity(IQuery query) {
+        return CursorKit.cursor(this, M_internalListEntity, query, e -> (E) e);
+    }
+
+    /**
+     * 根据query以游标方式逐条读取Map记录, 规则同 {@link #cursorEntity(IQuery)}
+     *
+     * @param query 查询条件
+     * @return Map游标, 使用完毕须关闭
+     */
+    default Cursor<Map<String, Object>> cursorMaps(IQuery query) {
+        return CursorKit.cursor(this, M_ListMaps, query, m -> (Map<String, Object>) m);
+    }
+
+    /**
+     * 根据query以游标方式逐条读取记录, 并按下划线转驼峰规则转换为PoJo对象, 规则同 {@link #cursorEntity(IQuery)}
+     *
+     * @param clazz  PoJo对象类型
+     * @param query  查询条件
+     * @param <POJO> PoJo对象类型
+     * @return PoJo游标, 使用完毕须关闭
+     */
+    default <POJO> Cursor<POJO> cursorPoJos(Class<POJO> clazz, IQuery query) {
+        return CursorKit.cursor(this, M_ListMaps, query, m -> m == null ? null : PoJoHelper.toPoJo(clazz, (Map<String, Object>) m));
+    }
+
+    /**
+     * {@link #cursorEntity(IQuery)} 的Stream形式, 请在 try-with-resources 中使用, 关闭Stream时关闭游标和会话
+     *
+     * @param query 查询条件
+     * @return 实例Stream
+     */
+    default Stream<E> streamEntity(IQuery query) {
+        return CursorKit.stream(this.cursorEntity(query));
+    }
+
+    /**
+     * {@link #cursorMaps(IQuery)} 的Stream形式, 请在 try-with-resources 中使用
+     *
+     * @param query 查询条件
+     * @return Map Stream
+     */
+    default Stream<Map<String, Object>> streamMaps(IQuery query) {
+        return CursorKit.stream(this.cursorMaps(query));
+    }
+
+    /**
+     * {@link #cursorPoJos(Class, IQuery)} 的Stream形式, 请在 try-with-resources 中使用
+     *
+     * @param clazz  PoJo对象类型
+     * @param query  查询条件
+     * @param <POJO> PoJo对象类型
+     * @return PoJo Stream
+     */
+    default <POJO> Stream<POJO> streamPoJos(Class<POJO> clazz, IQuery query) {
+        return CursorKit.stream(this.cursorPoJos(clazz, query));
     }
 
     /**
@@ -396,14 +655,10 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return 标准分页查询结果
      */
     default StdPagedList<E> stdPagedEntity(IQuery query) {
-        int total = this.countNoLimit(query);
-        List list;
-        if (total == 0) {
-            list = Collections.emptyList();
-        } else {
-            list = this.listEntity(query);
-        }
-        return new StdPagedList<>(total, list, query.data().hasNext(total));
+        return PagedKit.stdPaged(this, query, q -> {
+            WindowTotalHandler.total();
+            return this.listEntity(q);
+        }, list -> WindowTotalHandler.total());
     }
 
     /**
@@ -413,14 +668,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return 按标准分页查询结果
      */
     default StdPagedList<Map<String, Object>> stdPagedMap(IQuery query) {
-        int total = this.countNoLimit(query);
-        List<Map<String, Object>> list;
-        if (total == 0) {
-            list = Collections.emptyList();
-        } else {
-            list = this.listMaps(query);
-        }
-        return new StdPagedList<>(total, list, query.data().hasNext(total));
+        return PagedKit.stdPaged(this, query, this::listMaps, PagedKit::mapTotal);
     }
 
     /**
@@ -437,7 +685,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
             return (StdPagedList<POJO>) paged;
         } else {
             List<POJO> list = PoJoHelper.toPoJoList(paged.getData(), mapFunction);
-            return new StdPagedList<>(paged.getTotal(), list, paged.hasNext());
+            return new StdPagedList<>(paged.getTotal(), list, paged.hasNext()).setApproximate(paged.isApproximate());
         }
     }
 
@@ -452,7 +700,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
     default <POJO> StdPagedList<POJO> stdPagedPoJo(Class<POJO> clazz, IQuery query) {
         StdPagedList<Map<String, Object>> paged = this.stdPagedMap(query);
         List<POJO> list = PoJoHelper.toPoJoList(clazz, paged.getData());
-        return new StdPagedList<>(paged.getTotal(), list, paged.hasNext());
+        return new StdPagedList<>(paged.getTotal(), list, paged.hasNext()).setApproximate(paged.isApproximate());
     }
 
     /**
@@ -519,6 +767,43 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         return new TagPagedList<>(list, next);
     }
 
+    /**
+     * 按排序字段值(keyset)分页查询, 不使用OFFSET, 深度翻页和首页代价相同
+     *
+     * @param query  查询条件, 必须设置排序字段(组合唯一)和 limit(size)
+     * @param cursor 上一页返回的游标{@link SeekPagedList#getNext()}, 首页传null
+     * @return 分页查询结果
+     */
+    default SeekPagedList<E> seekPagedEntity(IQuery query, String cursor) {
+        return PagedKit.seekPaged(factory(this), this.mapping(), query, cursor, this::listEntity, IEntity::valueByColumn);
+    }
+
+    /**
+     * 按排序字段值(keyset)分页查询（结果集为Map对象）
+     *
+     * @param query  查询条件, 必须设置排序字段(组合唯一)和 limit(size), 排序字段需要在查询字段中
+     * @param cursor 上一页返回的游标{@link SeekPagedList#getNext()}, 首页传null
+     * @return 分页查询结果
+     */
+    default SeekPagedList<Map<String, Object>> seekPagedMap(IQuery query, String cursor) {
+        return PagedKit.seekPaged(factory(this), this.mapping(), query, cursor, this::listMaps, PagedKit::mapValue);
+    }
+
+    /**
+     * 按排序字段值(keyset)分页查询（结果集为PoJo对象）
+     *
+     * @param clazz  PoJo类型
+     * @param query  查询条件, 必须设置排序字段(组合唯一)和 limit(size), 排序字段需要在查询字段中
+     * @param cursor 上一页返回的游标{@link SeekPagedList#getNext()}, 首页传null
+     * @param <POJO> PoJo类型
+     * @return 分页查询结果
+     */
+    default <POJO> SeekPagedList<POJO> seekPagedPoJo(Class<POJO> clazz, IQuery query, String cursor) {
+        SeekPagedList<Map<String, Object>> paged = this.seekPagedMap(query, cursor);
+        List<POJO> list = PoJoHelper.toPoJoList(clazz, paged.getData());
+        return new SeekPagedList<>(list, paged.getNext());
+    }
+
     /**
      * 根据where key值 + 和默认条件删除数据
      *
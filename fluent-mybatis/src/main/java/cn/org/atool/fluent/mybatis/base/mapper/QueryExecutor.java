@@ -3,13 +3,16 @@ package cn.org.atool.fluent.mybatis.base.mapper;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
+import cn.org.atool.fluent.mybatis.model.SeekPagedList;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.model.TagPagedList;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 查询条件执行器
@@ -70,6 +73,30 @@ public class QueryExecutor<E extends IEntity> {
         return this.mapper.listPoJos(clazz, this.query);
     }
 
+    public Cursor<E> cursorEntity() {
+        return this.mapper.cursorEntity(this.query);
+    }
+
+    public Cursor<Map<String, Object>> cursorMaps() {
+        return this.mapper.cursorMaps(this.query);
+    }
+
+    public <POJO> Cursor<POJO> cursorPoJo(Class<POJO> clazz) {
+        return this.mapper.cursorPoJos(clazz, this.query);
+    }
+
+    public Stream<E> streamEntity() {
+        return this.mapper.streamEntity(this.query);
+    }
+
+    public Stream<Map<String, Object>> streamMaps() {
+        return this.mapper.streamMaps(this.query);
+    }
+
+    public <POJO> Stream<POJO> streamPoJo(Class<POJO> clazz) {
+        return this.mapper.streamPoJos(clazz, this.query);
+    }
+
     public StdPagedList<E> stdPagedEntity() {
         return this.mapper.stdPagedEntity(this.query);
     }
@@ -102,6 +129,18 @@ public class QueryExecutor<E extends IEntity> {
         return this.mapper.tagPagedPoJo(clazz, this.query);
     }
 
+    public SeekPagedList<E> seekPagedEntity(String cursor) {
+        return this.mapper.seekPagedEntity(this.query, cursor);
+    }
+
+    public SeekPagedList<Map<String, Object>> seekPagedMap(String cursor) {
+        return this.mapper.seekPagedMap(this.query, cursor);
+    }
+
+    public <POJO> SeekPagedList<POJO> seekPagedPoJo(Class<POJO> clazz, String cursor) {
+        return this.mapper.seekPagedPoJo(clazz, this.query, cursor);
+    }
+
     public int count() {
         return this.mapper.count(this.query);
     }
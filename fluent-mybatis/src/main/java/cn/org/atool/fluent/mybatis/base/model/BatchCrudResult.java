@@ -0,0 +1,36 @@
+package cn.org.atool.fluent.mybatis.base.model;
+
+import lombok.Getter;
+
+import java.util.stream.IntStream;
+
+/**
+ * 批量增删改按JDBC批处理执行的结果
+ *
+ * @author darui.wu
+ */
+@Getter
+public class BatchCrudResult {
+    /**
+     * 按添加顺序的每个操作影响记录数
+     */
+    private final int[] counts;
+    /**
+     * 执行耗时(纳秒)
+     */
+    private final long elapsed;
+
+    public BatchCrudResult(int[] counts, long elapsed) {
+        this.counts = counts;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * 影响记录总数
+     *
+     * @return 总数
+     */
+    public int total() {
+        return IntStream.of(counts).sum();
+    }
+}
@@ -46,6 +46,8 @@ public interface ISqlOp {
      * sql 操作符
      * 如果自定义函数expression不为空, 则按自定义函数形式处理
      * 如果无自定义函数, 且是不定项参数方式(placeHolder中有%s), 则先处理不定项参数项为占位符'?'
+     * (IN/NOT IN开启分桶时, 先按{@link SqlOp#setInBuckets(int...)}补齐参数列表;
+     * 开启{@link SqlOp#setArrayIn(boolean)}时, 参数列表作为单个数组变量)
      * <p/>
      * 最后根据占位符'?'和参数值, 给每个'?'分配具体的表达式项
      *
@@ -64,6 +66,11 @@ public interface ISqlOp {
         if (notBlank(expression)) {
             sql = String.format(this.getExpression(), expression);
         } else if (placeHolder.contains(STR_FORMAT)) {
+            IFragment array = SqlOp.arrayIn(this, column, parameters, paras);
+            if (array != null) {
+                return array;
+            }
+            paras = SqlOp.padding(this, paras);
             sql = SqlOp.placeHolder(placeHolder, paras);
         }
         return CachedFrag.set(isEmpty(paras) ? sql : parameters.paramSql(column, sql, paras));
@@ -0,0 +1,17 @@
+package cn.org.atool.fluent.mybatis.base.model;
+
+/**
+ * 批量插入执行方式
+ *
+ * @author darui.wu
+ */
+public enum InsertMode {
+    /**
+     * 单条 INSERT ... VALUES (...), (...) 语句插入(未指定插入方式时的默认方式)
+     */
+    MULTI_VALUES,
+    /**
+     * 单条insert语句模板, 按JDBC批处理(ExecutorType.BATCH)分批提交
+     */
+    JDBC_BATCH
+}
@@ -1,7 +1,13 @@
 package cn.org.atool.fluent.mybatis.base.model;
 
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.segment.fragment.ArrayInFrag;
+import cn.org.atool.fluent.mybatis.segment.fragment.Column;
+import cn.org.atool.fluent.mybatis.segment.fragment.IFragment;
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
 import lombok.Getter;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.stream.Stream;
 
@@ -129,4 +135,119 @@ public enum SqlOp implements ISqlOp {
         }
         return String.format(placeHolder, replacedStr);
     }
+
+    /**
+     * IN/NOT IN 集合是否作为单个数组参数绑定, 默认关闭
+     */
+    private static boolean ARRAY_IN = false;
+
+    /**
+     * 开启(或关闭) IN/NOT IN 集合作为单个数组参数绑定
+     * <p>
+     * PostgreSQL渲染为 column = ANY(?), H2/HSQL渲染为 column IN (UNNEST(?)),
+     * 不管集合大小都只有一种语句形态; 其它数据库仍按下标展开为多个占位符
+     *
+     * @param arrayIn true: 开启
+     * @see cn.org.atool.fluent.mybatis.base.provider.SqlKit#inArray(IMapping, ISqlOp, String)
+     */
+    public static void setArrayIn(boolean arrayIn) {
+        ARRAY_IN = arrayIn;
+    }
+
+    /**
+     * 开启数组参数绑定时, 将IN/NOT IN的参数列表设置为单个数组变量
+     *
+     * @param op         操作符
+     * @param column     字段
+     * @param parameters 变量列表
+     * @param values     参数列表
+     * @return 条件片段, 不满足数组绑定条件时返回null
+     */
+    static IFragment arrayIn(ISqlOp op, IFragment column, Parameters parameters, Object[] values) {
+        if (!ARRAY_IN || (op != IN && op != NOT_IN) || values == null || values.length < 2) {
+            return null;
+        }
+        /* 字段有自定义TypeHandler时, 数组元素无法按TypeHandler转换 */
+        if (Column.isFieldAndAssignableFrom(column, values[0])) {
+            return null;
+        }
+        String variable = parameters.putVariable(values);
+        return new ArrayInFrag(op, column, variable, values);
+    }
+
+    /**
+     * IN列表占位符个数阶梯, 空数组表示不分桶(默认)
+     */
+    private static int[] IN_BUCKETS = new int[0];
+
+    /**
+     * 开启IN列表占位符分桶
+     * <p>
+     * IN (?, ?, ...) 的占位符个数补齐到阶梯中第一个不小于列表长度的值(超出最大阶梯时补齐到最大阶梯的整数倍),
+     * 补齐部分重复最后一个值, 这样每个字段的IN语句只有有限几种形态, 便于驱动和数据库复用预编译语句和执行计划
+     *
+     * @param ladder 占位符个数阶梯, 如: 4, 8, 16, 32; 不传表示关闭分桶
+     */
+    public static void setInBuckets(int... ladder) {
+        int[] buckets = ladder == null ? new int[0] : Arrays.stream(ladder).filter(n -> n > 0).distinct().sorted().toArray();
+        IN_BUCKETS = buckets;
+    }
+
+    /**
+     * 开启IN列表占位符分桶, 阶梯为不超过max的2的幂次, 加上max本身: 1, 2, 4, ..., max
+     * <p>
+     * max不是2的幂次时(如100), 最后一级阶梯为max: 1, 2, 4, ..., 64, 100
+     *
+     * @param max 最大阶梯
+     */
+    public static void setInBucketsOfPowerTwo(int max) {
+        max = Math.max(max, 1);
+        int size = 32 - Integer.numberOfLeadingZeros(max);
+        int[] ladder = new int[size + 1];
+        for (int index = 0; index < size; index++) {
+            ladder[index] = 1 << index;
+        }
+        ladder[size] = max;
+        setInBuckets(ladder);
+    }
+
+    /**
+     * 按分桶阶梯计算IN列表补齐后的长度
+     *
+     * @param size 列表实际长度
+     * @return 补齐后的长度
+     */
+    public static int bucket(int size) {
+        int[] buckets = IN_BUCKETS;
+        if (buckets.length == 0 || size <= 1) {
+            return size;
+        }
+        for (int bucket : buckets) {
+            if (bucket >= size) {
+                return bucket;
+            }
+        }
+        int max = buckets[buckets.length - 1];
+        return (size + max - 1) / max * max;
+    }
+
+    /**
+     * 开启分桶时, IN/NOT IN 的参数列表重复最后一个值补齐到分桶长度
+     *
+     * @param op     操作符
+     * @param values 参数列表
+     * @return 补齐后的参数列表
+     */
+    static Object[] padding(ISqlOp op, Object[] values) {
+        if ((op != IN && op != NOT_IN) || values == null || values.length < 2) {
+            return values;
+        }
+        int size = bucket(values.length);
+        if (size == values.length) {
+            return values;
+        }
+        Object[] padded = Arrays.copyOf(values, size);
+        Arrays.fill(padded, values.length, size, values[values.length - 1]);
+        return padded;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_List;
+
+/**
+ * 批量插入语句(insertBatch, insertBatchWithPk, upsertBatch)的SqlSource实现
+ * <p>
+ * SqlProvider渲染的批量语句中每个单元格是一个 #{list[i].field} 变量, mybatis绑定参数时按属性路径逐个单元格反射取值;
+ * 这里把单元格变量换成按位置命名的附加参数, 值由实体的getter({@link FieldMapping#getter})直接读取
+ * <pre>
+ * o sql文本和变量的typeHandler, javaType, jdbcType不变
+ * o 变量不是 list[i].field 形式, 或语句有其它附加参数(动态sql)时, 退回mybatis原生的绑定方式
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings("rawtypes")
+public class BatchSqlSource implements SqlSource {
+    private static final String LIST_PREFIX = Param_List + "[";
+    /**
+     * 单元格附加参数名前缀, 不含 '.' 和 '[', 按名称直接从附加参数表中取值
+     */
+    private static final String CELL = "_cell";
+
+    private final Configuration configuration;
+    /**
+     * mybatis原生的ProviderSqlSource
+     */
+    private final SqlSource origin;
+    /**
+     * key: 实体属性名
+     */
+    private final Map<String, FieldMapping> fields = new HashMap<>();
+
+    public BatchSqlSource(Configuration configuration, IMapping mapping, SqlSource origin) {
+        this.configuration = configuration;
+        this.origin = origin;
+        for (FieldMapping f : mapping.allFields()) {
+            this.fields.put(f.name, f);
+        }
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        BoundSql bound = this.origin.getBoundSql(parameterObject);
+        /* mybatis的ParamMap取不存在的key时报错, 先判断 */
+        Map map = parameterObject instanceof Map ? (Map) parameterObject : null;
+        Object list = map != null && map.containsKey(Param_List) ? map.get(Param_List) : null;
+        if (!(list instanceof Collection) || bound.hasAdditionalParameter("_parameter")) {
+            return bound;
+        }
+        Object[] entities = ((Collection) list).toArray();
+        List<ParameterMapping> mappings = bound.getParameterMappings();
+        List<ParameterMapping> cells = new ArrayList<>(mappings.size());
+        Object[] values = new Object[mappings.size()];
+        for (int index = 0; index < mappings.size(); index++) {
+            ParameterMapping mapping = mappings.get(index);
+            String property = mapping.getProperty();
+            int close = property.startsWith(LIST_PREFIX) ? property.indexOf("].", LIST_PREFIX.length()) : -1;
+            FieldMapping f = close < 0 ? null : this.fields.get(property.substring(close + 2));
+            int row = f == null ? -1 : row(property.substring(LIST_PREFIX.length(), close));
+            if (row < 0 || row >= entities.length || !(entities[row] instanceof IEntity)) {
+                return bound;
+            }
+            values[index] = f.getter.get((IEntity) entities[row]);
+            cells.add(new ParameterMapping.Builder(this.configuration, CELL + index, mapping.getTypeHandler())
+                .javaType(mapping.getJavaType())
+                .jdbcType(mapping.getJdbcType())
+                .jdbcTypeName(mapping.getJdbcTypeName())
+                .numericScale(mapping.getNumericScale())
+                .mode(mapping.getMode())
+                .build());
+        }
+        BoundSql positional = new BoundSql(this.configuration, bound.getSql(), cells, parameterObject);
+        for (int index = 0; index < values.length; index++) {
+            positional.setAdditionalParameter(CELL + index, values[index]);
+        }
+        return positional;
+    }
+
+    /**
+     * list[i] 中的下标, 不是数字时返回-1
+     */
+    private static int row(String index) {
+        if (index.isEmpty() || index.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < index.length(); i++) {
+            if (!Character.isDigit(index.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(index);
+    }
+}
@@ -0,0 +1,81 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 有容量上限的并发缓存
+ * <p>
+ * 基于ConcurrentHashMap, 读写不需要全局锁; 超出上限时按CLOCK(second chance)方式淘汰:
+ * <pre>
+ * o 读取命中时标记记录为最近使用过
+ * o 淘汰时指针沿用上次的位置往后扫描, 有标记的清除标记后跳过, 移除第一条没有标记的记录
+ * </pre>
+ * 近似LRU, 只有超出上限的写入线程进入淘汰的同步块
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author darui.wu
+ */
+class ClockCache<K, V> {
+    private final int max;
+
+    private final Map<K, Entry<V>> map;
+    /**
+     * 淘汰扫描指针, 只在淘汰的同步块中使用
+     */
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+    ClockCache(int max) {
+        this.max = max;
+        this.map = new ConcurrentHashMap<>(Math.min(max, 64));
+    }
+
+    V get(K key) {
+        Entry<V> entry = this.map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.used = true;
+        return entry.value;
+    }
+
+    void put(K key, V value) {
+        if (this.map.put(key, new Entry<>(value)) == null && this.map.size() > this.max) {
+            this.evict();
+        }
+    }
+
+    int size() {
+        return this.map.size();
+    }
+
+    private synchronized void evict() {
+        while (this.map.size() > this.max) {
+            if (this.hand == null || !this.hand.hasNext()) {
+                this.hand = this.map.entrySet().iterator();
+                if (!this.hand.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<K, Entry<V>> next = this.hand.next();
+            Entry<V> entry = next.getValue();
+            if (entry.used) {
+                entry.used = false;
+            } else {
+                this.map.remove(next.getKey(), entry);
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+
+        volatile boolean used;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -11,11 +11,14 @@ import cn.org.atool.fluent.mybatis.base.entity.IRichEntity;
 import cn.org.atool.fluent.mybatis.base.entity.PkGeneratorKits;
 import cn.org.atool.fluent.mybatis.base.entity.TableId;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.ISqlOp;
 import cn.org.atool.fluent.mybatis.base.model.InsertList;
 import cn.org.atool.fluent.mybatis.base.model.SqlOp;
+import cn.org.atool.fluent.mybatis.base.model.UniqueType;
 import cn.org.atool.fluent.mybatis.base.model.UpdateDefault;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.mapper.MapperSql;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
 import cn.org.atool.fluent.mybatis.segment.fragment.Column;
 import cn.org.atool.fluent.mybatis.segment.fragment.IFragment;
 import cn.org.atool.fluent.mybatis.segment.fragment.JoiningFrag;
@@ -27,13 +30,15 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static cn.org.atool.fluent.mybatis.If.isBlank;
 import static cn.org.atool.fluent.mybatis.If.notBlank;
-import static cn.org.atool.fluent.mybatis.base.model.InsertList.el;
 import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
 import static cn.org.atool.fluent.mybatis.mapper.MapperSql.brackets;
 import static cn.org.atool.fluent.mybatis.mapper.MapperSql.tmpTable;
@@ -83,14 +88,56 @@ public class CommonSqlKit implements SqlKit {
         return tableId.auto && isBlank(tableId.seqName);
     }
 
+    /**
+     * 每个IMapping缓存的insert语句模板数量上限, 超过时按{@link ClockCache}淘汰近期未使用的模板
+     */
+    private static final int MAX_INSERT_TEMPLATES = 256;
+    /**
+     * 模板中变量前缀的占位符, 渲染时替换为实际的变量前缀
+     */
+    private static final String PREFIX_HOLDER = "\u0001" + DOT_STR;
+    /**
+     * 单条insert语句模板缓存
+     * key: IMapping; value: (数据库类型, 转义方式, 表名, 非空字段, 是否插入主键) -> insert语句
+     */
+    final Map<IMapping, ClockCache<InsertKey, String>> insertTemplates = new ConcurrentHashMap<>(32);
+
     @Override
     public <E extends IEntity> String insertEntity(IMapping mapping, String prefix, E entity, boolean withPk) {
         assertNotNull(Param_Entity, entity);
 
         withPk = validateInsertEntity(mapping, entity, withPk, mapping.defaultSetter()::setInsertDefault, mapping.tableId());
+        InsertKey key = new InsertKey(mapping.db(), dynamic(entity, mapping), this.nonNulls(mapping, entity, withPk), withPk);
+        return this.insertEntity(mapping, prefix, key);
+    }
+
+    /**
+     * 按缓存的insert语句模板渲染, 模板中的占位前缀替换为变量前缀
+     */
+    String insertEntity(IMapping mapping, String prefix, InsertKey key) {
+        ClockCache<InsertKey, String> templates = this.insertTemplates.computeIfAbsent(mapping, m -> new ClockCache<>(MAX_INSERT_TEMPLATES));
+        String sql = templates.get(key);
+        if (sql == null) {
+            sql = this.insertEntity(mapping, key);
+            templates.put(key, sql);
+        }
+        return sql.replace(PREFIX_HOLDER, isBlank(prefix) ? EMPTY : (prefix.endsWith(DOT_STR) ? prefix : prefix + DOT_STR));
+    }
+
+    /**
+     * 按非空字段组合构造insert语句
+     */
+    private String insertEntity(IMapping mapping, InsertKey key) {
         MapperSql sql = new MapperSql();
-        sql.INSERT_INTO(dynamic(entity, mapping));
-        InsertList inserts = this.insertColumns(mapping, prefix, entity, withPk);
+        sql.INSERT_INTO(key.table);
+        InsertList inserts = new InsertList();
+        List<FieldMapping> fields = mapping.allFields();
+        for (int index = 0; index < fields.size(); index++) {
+            FieldMapping f = fields.get(index);
+            if (!f.isPrimary() || key.withPk) {
+                inserts.add(PREFIX_HOLDER, f, key.nonNulls.get(index) ? Boolean.TRUE : null, f.insert);
+            }
+        }
         sql.INSERT_COLUMNS(mapping, inserts.columns);
         sql.VALUES();
         sql.APPEND(brackets(COMMA_SPACE, inserts.values));
@@ -98,21 +145,23 @@ public class CommonSqlKit implements SqlKit {
     }
 
     /**
-     * 单个插入时, insert字段和值
+     * 直接通过字段getter标记非空字段, 不构造entity Map
      *
-     * @param entity 实体实例
-     * @param withPk true:with id; false: without id
+     * @param mapping IMapping
+     * @param entity  实体实例
+     * @param withPk  是否插入主键
+     * @return 按IMapping.allFields()下标标记的非空字段
      */
-    private InsertList insertColumns(IMapping mapping, String prefix, IEntity entity, boolean withPk) {
-        InsertList inserts = new InsertList();
+    protected BitSet nonNulls(IMapping mapping, IEntity entity, boolean withPk) {
         List<FieldMapping> fields = mapping.allFields();
-        Map map = entity.toEntityMap();
-        for (FieldMapping f : fields) {
-            if (!f.isPrimary() || withPk) {
-                inserts.add(prefix, f, map.get(f.name), f.insert);
+        BitSet nonNulls = new BitSet(fields.size());
+        for (int index = 0; index < fields.size(); index++) {
+            FieldMapping f = fields.get(index);
+            if ((!f.isPrimary() || withPk) && f.getter.get(entity) != null) {
+                nonNulls.set(index);
             }
         }
-        return inserts;
+        return nonNulls;
     }
 
     @Override
@@ -142,16 +191,16 @@ public class CommonSqlKit implements SqlKit {
     @Override
     public <E extends IEntity> String insertBatch(IMapping mapping, Collection<E> entities, boolean withPk, TableId tableId) {
         MapperSql sql = new MapperSql();
-        List<Map> maps = this.toMaps(mapping, entities, withPk);
+        List<BitSet> rows = this.nonNulls(mapping, entities, withPk);
         /* 所有非空字段 */
-        List<FieldMapping> nonFields = this.nonFields(mapping, maps, withPk);
+        List<FieldMapping> nonFields = this.nonFields(mapping, rows, withPk);
         String tableName = dynamic(entities, mapping);
         sql.INSERT_INTO(tableName);
 
         if (this.isSelectInsert(mapping, withPk, tableId)) {
-            this.insertSelect(mapping, tableId, withPk, sql, maps, nonFields);
+            this.insertSelect(mapping, tableId, withPk, sql, rows, nonFields);
         } else {
-            this.insertValues(mapping, sql, maps, nonFields);
+            this.insertValues(mapping, sql, rows, nonFields);
         }
         return sql.toString();
     }
@@ -170,7 +219,7 @@ public class CommonSqlKit implements SqlKit {
      * <p>
      * https://blog.csdn.net/weixin_41175479/article/details/80608512
      */
-    protected void insertSelect(IMapping mapping, TableId tableId, boolean withPk, MapperSql sql, List<Map> maps, List<FieldMapping> nonFields) {
+    protected void insertSelect(IMapping mapping, TableId tableId, boolean withPk, MapperSql sql, List<BitSet> rows, List<FieldMapping> nonFields) {
         List<String> columns = new ArrayList<>();
         if (!withPk && tableId != null) {
             columns.add(tableId.column);
@@ -184,49 +233,413 @@ public class CommonSqlKit implements SqlKit {
             sql.APPEND(getSeq(seq) + ",");
         }
         sql.APPEND("TMP.* FROM (");
-        for (int index = 0; index < maps.size(); index++) {
+        int[] indexes = this.fieldIndexes(mapping, nonFields);
+        for (int index = 0; index < rows.size(); index++) {
             if (index > 0) {
                 sql.APPEND(" UNION ALL ");
             }
-            sql.APPEND("(SELECT");
+            String prefix = "list[" + index + "].";
+            BitSet row = rows.get(index);
+            StringBuilder buff = new StringBuilder("(SELECT ");
             boolean first = true;
-            for (FieldMapping f : nonFields) {
+            for (int col = 0; col < indexes.length; col++) {
+                FieldMapping f = nonFields.get(col);
                 if (f.isPrimary() && !withPk) {
                     continue;
                 }
                 if (!first) {
-                    sql.APPEND(COMMA_SPACE);
+                    buff.append(" , ");
                 } else {
                     first = false;
                 }
-                Object value = maps.get(index).get(f.column);
-                if (value == null && notBlank(f.insert)) {
-                    sql.APPEND(f.insert);
+                if (row.get(indexes[col])) {
+                    buff.append(f.var(prefix, f.name));
                 } else {
-                    String el = el("list[" + index + "].", f, value, EMPTY);
-                    sql.APPEND(isBlank(el) ? f.column : el);
+                    buff.append(notBlank(f.insert) ? f.insert : f.column);
                 }
             }
-            sql.APPEND(" FROM DUAL)");
+            sql.APPEND(buff.append(" FROM DUAL)").toString());
         }
         sql.APPEND(") TMP");
     }
 
-    protected void insertValues(IMapping mapping, MapperSql sql, List<Map> maps, List<FieldMapping> nonFields) {
+    protected void insertValues(IMapping mapping, MapperSql sql, List<BitSet> rows, List<FieldMapping> nonFields) {
         List<String> columns = new ArrayList<>();
         nonFields.stream().map(f -> f.column).forEach(columns::add);
         sql.INSERT_COLUMNS(mapping, columns);
 
         sql.VALUES();
-        List<String> values = new ArrayList<>();
-        for (int index = 0; index < maps.size(); index++) {
-            List<String> lines = new ArrayList<>();
-            for (FieldMapping f : nonFields) {
-                lines.add(el("list[" + index + "].", f, maps.get(index).get(f.column), f.insert));
+        int[] indexes = this.fieldIndexes(mapping, nonFields);
+        StringBuilder buff = new StringBuilder(rows.size() * nonFields.size() * 24);
+        for (int index = 0; index < rows.size(); index++) {
+            if (index > 0) {
+                buff.append(COMMA_SPACE);
+            }
+            this.appendValues(buff, "list[" + index + "].", rows.get(index), nonFields, indexes);
+        }
+        sql.APPEND(buff.toString());
+    }
+
+    /**
+     * 追加单行插入值: (v1, v2, ...), 空值字段取insert默认值
+     *
+     * @param buff      sql buffer
+     * @param prefix    变量前缀
+     * @param row       行非空字段标记
+     * @param nonFields 插入字段列表
+     * @param indexes   插入字段在IMapping.allFields()中的下标
+     */
+    protected void appendValues(StringBuilder buff, String prefix, BitSet row, List<FieldMapping> nonFields, int[] indexes) {
+        buff.append("(");
+        for (int col = 0; col < indexes.length; col++) {
+            FieldMapping f = nonFields.get(col);
+            if (col > 0) {
+                buff.append(COMMA_SPACE);
+            }
+            buff.append(this.insertValue(prefix, row, f, indexes[col]));
+        }
+        buff.append(")");
+    }
+
+    /**
+     * 单个字段的插入值: 非空取变量, 空值取insert默认值或null
+     *
+     * @param prefix 变量前缀
+     * @param row    行非空字段标记
+     * @param f      插入字段
+     * @param index  字段在IMapping.allFields()中的下标
+     * @return 插入值表达式
+     */
+    protected String insertValue(String prefix, BitSet row, FieldMapping f, int index) {
+        if (row.get(index)) {
+            return f.var(prefix, f.name);
+        } else {
+            return isBlank(f.insert) ? "null" : f.insert;
+        }
+    }
+
+    /**
+     * 字段在IMapping.allFields()中的下标
+     */
+    protected int[] fieldIndexes(IMapping mapping, List<FieldMapping> fields) {
+        List<FieldMapping> all = mapping.allFields();
+        int[] indexes = new int[fields.size()];
+        for (int index = 0; index < indexes.length; index++) {
+            indexes[index] = all.indexOf(fields.get(index));
+        }
+        return indexes;
+    }
+
+    /**
+     * SQL Server 每条语句最多2100个参数; SQLite 3.32 以前默认最多999个; MySQL, PostgreSQL 等为65535个
+     */
+    @Override
+    public int maxParameters(IMapping mapping) {
+        switch (mapping.db()) {
+            case SQL_SERVER2005:
+            case SQL_SERVER2012:
+                return 2100;
+            case SQLITE:
+                return 999;
+            default:
+                return 65535;
+        }
+    }
+
+    /**
+     * MySQL 8.0, MariaDB 10.2, SQLite 3.25 及以上版本才支持窗口函数; HSQL不支持 COUNT(*) OVER()
+     */
+    @Override
+    public boolean windowTotal(IMapping mapping) {
+        switch (mapping.db()) {
+            case MYSQL:
+            case MARIADB:
+            case POSTGRE_SQL:
+            case ORACLE:
+            case ORACLE12:
+            case SQL_SERVER2005:
+            case SQL_SERVER2012:
+            case H2:
+            case DB2:
+            case SQLITE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Oracle, SQL Server 不支持 (c1, c2) > (?, ?) 形式的行值比较
+     */
+    @Override
+    public boolean rowValue(IMapping mapping) {
+        switch (mapping.db()) {
+            case MYSQL:
+            case MARIADB:
+            case POSTGRE_SQL:
+            case H2:
+            case HSQL:
+            case DB2:
+            case SQLITE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean upsertable(IMapping mapping) {
+        if (mapping.primaryMapping() == null) {
+            return false;
+        }
+        switch (mapping.db()) {
+            case MYSQL:
+            case MARIADB:
+                /* 驱动默认返回匹配记录数, 版本冲突时无法从影响记录数判断, 有版本锁字段时不支持upsert, 使用saveOrUpdate */
+                return !mapping.findField(UniqueType.LOCK_VERSION).isPresent();
+            case POSTGRE_SQL:
+            case SQLITE:
+            case H2:
+            case SQL_SERVER2005:
+            case SQL_SERVER2012:
+            case CLICK_HOUSE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * ClickHouse没有主键唯一约束, 直接插入, 由ReplacingMergeTree等表引擎合并相同主键的记录
+     */
+    @Override
+    public <E extends IEntity> String upsert(IMapping mapping, String prefix, E entity) {
+        assertNotNull(Param_Entity, entity);
+        if (mapping.db() == DbType.CLICK_HOUSE) {
+            return this.insertEntity(mapping, prefix, entity, true);
+        } else {
+            return this.upsert(mapping, Collections.singletonList(entity), index -> prefix);
+        }
+    }
+
+    @Override
+    public <E extends IEntity> String upsertBatch(IMapping mapping, Collection<E> entities) {
+        if (mapping.db() == DbType.CLICK_HOUSE) {
+            return this.insertBatch(mapping, entities, true, mapping.tableId());
+        } else {
+            return this.upsert(mapping, entities, index -> "list[" + index + "].");
+        }
+    }
+
+    /**
+     * 按主键插入或更新
+     * <pre>
+     * o 插入部分和insertBatchWithPk相同: 非空字段, 空值字段取insert默认值
+     * o 更新部分和updateById相同: 设置insert默认值前的非空字段, 其它字段取update默认值
+     * o 批量时只有部分记录非空的字段, 空值记录保留原值(有update默认值时取默认值)
+     * o 有版本锁字段时, 版本值必须赋值, 原记录版本等于插入的版本值才更新, 版本字段按update默认值(如 version + 1)更新
+     * </pre>
+     * MySQL按所有唯一键判断冲突; PostgreSQL, SQLite和MERGE语句按主键判断, 同一批次中主键不能重复
+     */
+    private <E extends IEntity> String upsert(IMapping mapping, Collection<E> entities, IntFunction<String> prefix) {
+        if (!this.upsertable(mapping)) {
+            throw new FluentMybatisException("The upsert of table[" + mapping.getTableName() + "] is not supported by " + mapping.db() + ".");
+        }
+        FieldMapping version = mapping.findField(UniqueType.LOCK_VERSION).orElse(null);
+        List<BitSet> updates = new ArrayList<>(entities.size());
+        for (IEntity entity : entities) {
+            if (version != null) {
+                assertNotNull("lock version field(" + version.name + ")", version.getter.get(entity));
+            }
+            updates.add(this.nonNulls(mapping, entity, false));
+        }
+        List<BitSet> rows = this.nonNulls(mapping, entities, true);
+        List<FieldMapping> nonFields = this.nonFields(mapping, rows, true);
+        UpsertRows upsert = new UpsertRows(mapping, dynamic(entities, mapping), nonFields,
+            this.fieldIndexes(mapping, nonFields), rows, updates, prefix);
+        switch (mapping.db()) {
+            case MYSQL:
+            case MARIADB:
+                return this.onDuplicateKey(upsert);
+            case POSTGRE_SQL:
+            case SQLITE:
+                return this.onConflict(upsert);
+            default:
+                return this.merge(upsert);
+        }
+    }
+
+    /**
+     * INSERT INTO t (...) VALUES (...) ON DUPLICATE KEY UPDATE c = VALUES(c), ...
+     * <p>
+     * 有版本锁字段的表不走upsert({@link #upsertable(IMapping)}), 这里不处理版本条件
+     */
+    protected String onDuplicateKey(UpsertRows upsert) {
+        IMapping mapping = upsert.mapping;
+        Map<FieldMapping, String> sets = this.upsertSets(upsert, f -> "VALUES(" + mapping.wrap(f.column) + ")", f -> mapping.wrap(f.column));
+        StringBuilder buff = new StringBuilder(this.upsertValues(upsert)).append(" ON DUPLICATE KEY UPDATE ");
+        if (sets.isEmpty()) {
+            String pk = mapping.wrap(upsert.primary.column);
+            return buff.append(pk).append(" = ").append(pk).toString();
+        }
+        return buff.append(this.joinSets(mapping, sets)).toString();
+    }
+
+    /**
+     * INSERT INTO t (...) VALUES (...) ON CONFLICT (pk) DO UPDATE SET c = EXCLUDED.c, ... WHERE t.version = EXCLUDED.version
+     */
+    protected String onConflict(UpsertRows upsert) {
+        IMapping mapping = upsert.mapping;
+        Function<FieldMapping, String> inserted = f -> "EXCLUDED." + mapping.wrap(f.column);
+        Function<FieldMapping, String> current = f -> upsert.table + "." + mapping.wrap(f.column);
+        Map<FieldMapping, String> sets = this.upsertSets(upsert, inserted, current);
+        StringBuilder buff = new StringBuilder(this.upsertValues(upsert))
+            .append(" ON CONFLICT (").append(mapping.wrap(upsert.primary.column)).append(") DO ");
+        if (sets.isEmpty()) {
+            return buff.append("NOTHING").toString();
+        }
+        buff.append("UPDATE SET ").append(this.joinSets(mapping, sets));
+        String condition = this.versionCondition(upsert, inserted, current);
+        if (condition != null) {
+            buff.append(" WHERE ").append(condition);
+        }
+        return buff.toString();
+    }
+
+    /**
+     * <pre>
+     * MERGE INTO t T USING (SELECT ? AS c0, ... UNION ALL SELECT ?, ...) S ON (T.pk = S.c0)
+     * WHEN MATCHED AND T.version = S.cN THEN UPDATE SET c = S.ci, ...
+     * WHEN NOT MATCHED THEN INSERT (...) VALUES (S.c0, ...)
+     * </pre>
+     * 数据源字段使用位置别名, 避免update默认值表达式中的字段名和数据源字段产生歧义
+     */
+    protected String merge(UpsertRows upsert) {
+        IMapping mapping = upsert.mapping;
+        Function<FieldMapping, String> inserted = f -> "S.c" + upsert.column(f);
+        Function<FieldMapping, String> current = f -> "T." + mapping.wrap(f.column);
+        StringBuilder buff = new StringBuilder("MERGE INTO ").append(upsert.table).append(" T USING (");
+        for (int index = 0; index < upsert.rows.size(); index++) {
+            buff.append(index == 0 ? "SELECT " : " UNION ALL SELECT ");
+            String prefix = upsert.prefix.apply(index);
+            BitSet row = upsert.rows.get(index);
+            for (int col = 0; col < upsert.indexes.length; col++) {
+                buff.append(col == 0 ? "" : COMMA_SPACE).append(this.insertValue(prefix, row, upsert.nonFields.get(col), upsert.indexes[col]));
+                if (index == 0) {
+                    buff.append(" AS c").append(col);
+                }
+            }
+            buff.append(this.mergeDual());
+        }
+        buff.append(") S ON (").append(current.apply(upsert.primary)).append(" = ").append(inserted.apply(upsert.primary)).append(")");
+        Map<FieldMapping, String> sets = this.upsertSets(upsert, inserted, current);
+        if (!sets.isEmpty()) {
+            buff.append(" ").append(this.mergeMatched(this.joinSets(mapping, sets), this.versionCondition(upsert, inserted, current)));
+        }
+        buff.append(" WHEN NOT MATCHED THEN INSERT (")
+            .append(upsert.nonFields.stream().map(f -> mapping.wrap(f.column)).collect(joining(COMMA_SPACE)))
+            .append(") VALUES (");
+        for (int col = 0; col < upsert.indexes.length; col++) {
+            buff.append(col == 0 ? "" : COMMA_SPACE).append("S.c").append(col);
+        }
+        buff.append(")");
+        DbType db = mapping.db();
+        if (db == DbType.SQL_SERVER2005 || db == DbType.SQL_SERVER2012) {
+            /* SQL Server的MERGE语句必须以分号结束 */
+            buff.append(SEMICOLON);
+        }
+        return buff.toString();
+    }
+
+    /**
+     * MERGE数据源单行查询的FROM部分
+     */
+    protected String mergeDual() {
+        return EMPTY;
+    }
+
+    /**
+     * MERGE语句的更新部分
+     *
+     * @param sets      更新字段
+     * @param condition 版本锁条件, 可为null
+     * @return WHEN MATCHED ... THEN UPDATE SET ...
+     */
+    protected String mergeMatched(String sets, String condition) {
+        return "WHEN MATCHED" + (condition == null ? EMPTY : " AND " + condition) + " THEN UPDATE SET " + sets;
+    }
+
+    /**
+     * INSERT INTO t (...) VALUES (...), (...)
+     */
+    private String upsertValues(UpsertRows upsert) {
+        MapperSql sql = new MapperSql();
+        sql.INSERT_INTO(upsert.table);
+        sql.INSERT_COLUMNS(upsert.mapping, upsert.nonFields.stream().map(f -> f.column).collect(toList()));
+        sql.VALUES();
+        StringBuilder buff = new StringBuilder(upsert.rows.size() * upsert.nonFields.size() * 24);
+        for (int index = 0; index < upsert.rows.size(); index++) {
+            if (index > 0) {
+                buff.append(COMMA_SPACE);
             }
-            values.add(brackets(COMMA_SPACE, lines));
+            this.appendValues(buff, upsert.prefix.apply(index), upsert.rows.get(index), upsert.nonFields, upsert.indexes);
         }
-        sql.APPEND(String.join(COMMA_SPACE, values));
+        sql.APPEND(buff.toString());
+        return sql.toString();
+    }
+
+    /**
+     * 冲突时的更新字段和表达式, 版本锁字段在最后
+     *
+     * @param upsert   upsert数据
+     * @param inserted 插入值引用, 如 VALUES(c), EXCLUDED.c
+     * @param current  原记录字段引用
+     * @return 字段 -> 更新表达式
+     */
+    protected Map<FieldMapping, String> upsertSets(UpsertRows upsert, Function<FieldMapping, String> inserted, Function<FieldMapping, String> current) {
+        BitSet all = (BitSet) upsert.updates.get(0).clone();
+        BitSet some = new BitSet();
+        for (BitSet row : upsert.updates) {
+            all.and(row);
+            some.or(row);
+        }
+        List<FieldMapping> fields = upsert.mapping.allFields();
+        Map<FieldMapping, String> sets = new LinkedHashMap<>(fields.size() * 4 / 3 + 1);
+        for (int index = 0; index < fields.size(); index++) {
+            FieldMapping f = fields.get(index);
+            if (f.isPrimary() || f.isVersion()) {
+                continue;
+            }
+            if (all.get(index)) {
+                sets.put(f, inserted.apply(f));
+            } else if (some.get(index)) {
+                sets.put(f, "COALESCE(" + inserted.apply(f) + COMMA_SPACE + (notBlank(f.update) ? f.update : current.apply(f)) + ")");
+            } else if (notBlank(f.update)) {
+                sets.put(f, f.update);
+            }
+        }
+        if (upsert.version != null && notBlank(upsert.version.update)) {
+            sets.put(upsert.version, upsert.version.update);
+        }
+        return sets;
+    }
+
+    /**
+     * 版本锁条件: 原记录版本 = 插入的版本值(upsert时已校验非空)
+     *
+     * @return 没有版本锁字段时返回null
+     */
+    protected String versionCondition(UpsertRows upsert, Function<FieldMapping, String> inserted, Function<FieldMapping, String> current) {
+        if (upsert.version == null) {
+            return null;
+        }
+        return current.apply(upsert.version) + " = " + inserted.apply(upsert.version);
+    }
+
+    private String joinSets(IMapping mapping, Map<FieldMapping, String> sets) {
+        return sets.entrySet().stream()
+            .map(e -> mapping.wrap(e.getKey().column) + " = " + e.getValue())
+            .collect(joining(COMMA_SPACE));
     }
 
     @Override
@@ -345,6 +758,7 @@ public class CommonSqlKit implements SqlKit {
         int index = 0;
         for (IUpdate updater : updaters) {
             String sql = updateBy(mapping, updater.data());
+            sql = updater.data().getParameters().positional(sql);
             sql = SqlProviderKit.addEwParaIndex(sql, format("[%d]", index));
             index++;
             list.add(sql.trim());
@@ -417,15 +831,138 @@ public class CommonSqlKit implements SqlKit {
         return update;
     }
 
+    /**
+     * 按主键批量更新时, 非空字段组合相同的实例用一条语句更新:
+     * <pre>
+     * UPDATE t SET c1 = CASE id WHEN ? THEN ? ... END, ... WHERE id IN (?, ...)
+     * </pre>
+     * 有版本锁字段, 主键重复或非空字段组合不同时, 返回null
+     */
+    @Override
+    public IUpdate updateByIds(IMapping mapping, Collection<? extends IEntity> entities) {
+        List<FieldMapping> fields = mapping.allFields();
+        FieldMapping primary = null;
+        for (FieldMapping f : fields) {
+            if (f.isVersion()) {
+                return null;
+            } else if (f.isPrimary()) {
+                primary = f;
+            }
+        }
+        if (primary == null) {
+            return null;
+        }
+        BitSet shape = null;
+        Set<Object> ids = new LinkedHashSet<>(entities.size() * 4 / 3 + 1);
+        for (IEntity entity : entities) {
+            BitSet nonNulls = this.nonNulls(mapping, entity, false);
+            if (shape == null) {
+                shape = nonNulls;
+            } else if (!shape.equals(nonNulls)) {
+                return null;
+            }
+            Object id = primary.getter.get(entity);
+            assertNotNull("primary of entity", id);
+            if (!ids.add(id)) {
+                return null;
+            }
+        }
+        IUpdate update = mapping.updater();
+        /* 清空byId场景下默认条件设置 */
+        update.data().segments().where.clear();
+        WrapperData data = update.data();
+        String pk = mapping.wrap(primary.column);
+        Column pkColumn = Column.set((IWrapper) update, primary);
+        for (int index = 0; index < fields.size(); index++) {
+            FieldMapping f = fields.get(index);
+            Column column = Column.set((IWrapper) update, f);
+            if (shape != null && shape.get(index)) {
+                StringBuilder buff = new StringBuilder("CASE ").append(pk);
+                for (IEntity entity : entities) {
+                    buff.append(" WHEN ").append(data.getParameters().putParameter(pkColumn, primary.getter.get(entity)))
+                        .append(" THEN ").append(data.getParameters().putParameter(column, f.getter.get(entity)));
+                }
+                data.updateSql(column, buff.append(" END").toString());
+            } else if (!f.isPrimary() && notBlank(f.update)) {
+                data.updateSql(column, f.update);
+            }
+        }
+        assertNotEmpty("updates", data.getUpdates());
+        update.where().apply(primary.column, SqlOp.IN, ids.toArray());
+        return update;
+    }
+
     @Override
     public String countNoLimit(IMapping mapping, WrapperData ew) {
         if (ew.getCustomizedSql().notEmpty()) {
             return ew.getCustomizedSql().get(mapping);
+        } else if (ew.isEstimating()) {
+            return this.countApproximate(mapping, ew);
         } else {
             return this.count(mapping, ew, false);
         }
     }
 
+    /**
+     * 估算总记录数: 没有查询条件时读取表统计信息, 否则最多数到 approximateCount 条
+     * <pre>
+     * SELECT COUNT(*) FROM (SELECT 1 AS FM_ROW FROM table WHERE ... LIMIT approximateCount) TMP
+     * </pre>
+     */
+    private String countApproximate(IMapping mapping, WrapperData ew) {
+        String rows = this.tableRows(mapping, ew);
+        if (rows != null) {
+            return rows;
+        }
+        String max = String.valueOf(ew.getApproximateCount());
+        /* SQL Server 分页语法要求有 ORDER BY, 使用 TOP n 限制条数 */
+        boolean top = mapping.db() == DbType.SQL_SERVER2005 || mapping.db() == DbType.SQL_SERVER2012;
+        MapperSql text = new MapperSql();
+        text.SELECT(ew.table().get(mapping), (top ? "TOP " + max + " " : EMPTY) + "1 AS FM_ROW");
+        text.WHERE_GROUP_BY(mapping, ew);
+        String sql = top ? text.toString() : mapping.db().paged(text.toString(), "0", max, max);
+        return joinWithSpace(SELECT.key(), COUNT_ASTERISK, FROM.key(), brackets(sql), tmpTable());
+    }
+
+    /**
+     * 聚合查询保证返回一行, 表不存在或没有统计信息时返回-1
+     * <p>
+     * HSQL等其它数据库没有可靠的统计行数, 按最多count条数估算
+     */
+    @Override
+    public String tableRows(IMapping mapping, WrapperData ew) {
+        if (!ew.segments().where.isEmpty() || ew.hasGroupBy()) {
+            return null;
+        }
+        String table = ew.getWrapper().table(true).get(mapping).replaceAll("[`\"\\[\\]]", EMPTY).replace("'", "''");
+        int dot = table.lastIndexOf('.');
+        String schema = dot < 0 ? null : "'" + table.substring(0, dot) + "'";
+        String name = "'" + table.substring(dot + 1) + "'";
+        switch (mapping.db()) {
+            case MYSQL:
+            case MARIADB:
+                return "SELECT COALESCE(MAX(TABLE_ROWS), -1) FROM information_schema.TABLES" +
+                    " WHERE TABLE_SCHEMA = " + (schema == null ? "DATABASE()" : schema) + " AND TABLE_NAME = " + name;
+            case POSTGRE_SQL:
+                /* reltuples 在没有ANALYZE过的表上为 -1(PostgreSQL 14+) 或 0, 都按没有统计信息处理, 退回精确count */
+                return "SELECT COALESCE(MAX(CASE WHEN reltuples > 0 THEN CAST(reltuples AS BIGINT) END), -1) FROM pg_class WHERE oid = to_regclass('" + table + "')";
+            case ORACLE:
+            case ORACLE12:
+                return schema == null ?
+                    "SELECT COALESCE(MAX(NUM_ROWS), -1) FROM USER_TABLES WHERE TABLE_NAME = UPPER(" + name + ")" :
+                    "SELECT COALESCE(MAX(NUM_ROWS), -1) FROM ALL_TABLES WHERE OWNER = UPPER(" + schema + ") AND TABLE_NAME = UPPER(" + name + ")";
+            case SQL_SERVER2005:
+            case SQL_SERVER2012:
+                return "SELECT COALESCE(SUM(rows), -1) FROM sys.partitions WHERE object_id = OBJECT_ID('" + table + "') AND index_id IN (0, 1)";
+            case H2:
+                return "SELECT COALESCE(MAX(ROW_COUNT_ESTIMATE), -1) FROM INFORMATION_SCHEMA.TABLES" +
+                    " WHERE " + (schema == null ? "TABLE_SCHEMA = SCHEMA()" : "UPPER(TABLE_SCHEMA) = UPPER(" + schema + ")") +
+                    " AND UPPER(TABLE_NAME) = UPPER(" + name + ")";
+            default:
+                return null;
+        }
+    }
+
     @Override
     public String count(IMapping mapping, WrapperData ew) {
         if (ew.getCustomizedSql().notEmpty()) {
@@ -456,38 +993,42 @@ public class CommonSqlKit implements SqlKit {
     }
 
     /**
-     * 批量转换为Map
+     * 批量标记每条记录的非空字段, 不构造entity Map
      *
      * @param mapping  IMapping
      * @param entities entity list
      * @param withPk   with pk column
-     * @return entity map list
+     * @return 每条记录按IMapping.allFields()下标标记的非空字段
      */
-    protected <E extends IEntity> List<Map> toMaps(IMapping mapping, Collection<E> entities, boolean withPk) {
-        List<Map> maps = new ArrayList<>(entities.size());
+    protected <E extends IEntity> List<BitSet> nonNulls(IMapping mapping, Collection<E> entities, boolean withPk) {
+        List<BitSet> rows = new ArrayList<>(entities.size());
         for (IEntity entity : entities) {
             validateInsertEntity(mapping, entity, withPk, mapping.defaultSetter()::setInsertDefault, mapping.tableId());
-            maps.add(entity.toColumnMap());
+            rows.add(this.nonNulls(mapping, entity, true));
         }
-        return maps;
+        return rows;
     }
 
     /**
      * 所有非空字段
      *
      * @param mapping IMapping
-     * @param maps    entity列表
+     * @param rows    每条记录的非空字段标记
      * @param withPk  是否包含主键
      * @return 非空字段列表
      */
-    protected List<FieldMapping> nonFields(IMapping mapping, List<Map> maps, boolean withPk) {
-        Set<String> set = new HashSet<>();
-        maps.forEach(m -> set.addAll(m.keySet()));
+    protected List<FieldMapping> nonFields(IMapping mapping, List<BitSet> rows, boolean withPk) {
+        BitSet union = new BitSet();
+        rows.forEach(union::or);
         List<FieldMapping> fields = mapping.allFields();
-        return fields.stream()
-            .filter(f -> set.contains(f.column) || notBlank(f.insert))
-            .filter(f -> !f.isPrimary() || withPk)
-            .collect(toList());
+        List<FieldMapping> nonFields = new ArrayList<>(fields.size());
+        for (int index = 0; index < fields.size(); index++) {
+            FieldMapping f = fields.get(index);
+            if ((union.get(index) || notBlank(f.insert)) && (!f.isPrimary() || withPk)) {
+                nonFields.add(f);
+            }
+        }
+        return nonFields;
     }
 
     /**
@@ -563,6 +1104,27 @@ public class CommonSqlKit implements SqlKit {
         return defaults.getUpdateDefaults();
     }
 
+    /**
+     * PostgreSQL: column = ANY(?) / column <> ALL(?)
+     * H2, HSQL: column IN (UNNEST(?)) / column NOT IN (UNNEST(?))
+     */
+    @Override
+    public String inArray(IMapping mapping, ISqlOp op, String array) {
+        boolean in = op == SqlOp.IN;
+        if (!in && op != SqlOp.NOT_IN) {
+            return null;
+        }
+        switch (mapping.db()) {
+            case POSTGRE_SQL:
+                return (in ? "= ANY(" : "<> ALL(") + array + ")";
+            case H2:
+            case HSQL:
+                return (in ? "IN (UNNEST(" : "NOT IN (UNNEST(") + array + "))";
+            default:
+                return null;
+        }
+    }
+
     static final Map<String, String> SEQs = new HashMap<>();
 
     /**
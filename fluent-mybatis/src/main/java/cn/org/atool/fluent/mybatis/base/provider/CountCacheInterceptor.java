@@ -0,0 +1,236 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.utility.CountCacheKit;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_BatchCrud;
+
+/**
+ * 写语句执行后使 {@link CountCacheKit} 中相关表的count缓存失效的插件
+ * <p>
+ * 写语句执行完成后递增表的版本号; 事务中的写语句在事务结束后再递增一次:
+ * spring事务通过 TransactionSynchronization.afterCompletion, mybatis会话在 commit/rollback/close 之后,
+ * 事务提交前其它线程按旧数据count并缓存的结果在提交后不会再被命中
+ * <pre>
+ * o 只在开启count缓存时安装到Configuration上, 没有开启时写语句不经过这个插件
+ * o 每个spring事务只登记一个TransactionSynchronization, 收集事务中写过的表, 事务结束时一起失效
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+    @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+    @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class CountCacheInterceptor implements Interceptor {
+    private static final String TX_MANAGER = "org.springframework.transaction.support.TransactionSynchronizationManager";
+    /**
+     * spring TransactionSynchronizationManager.isSynchronizationActive(), 没有spring-tx时为null
+     */
+    private static final Method SYNC_ACTIVE = txMethod("isSynchronizationActive");
+    /**
+     * spring TransactionSynchronizationManager.getSynchronizations()
+     */
+    private static final Method SYNC_LIST = txMethod("getSynchronizations");
+    /**
+     * spring TransactionSynchronizationManager.registerSynchronization(TransactionSynchronization)
+     */
+    private static final Method SYNC_REGISTER = txMethod("registerSynchronization");
+    /**
+     * 已登记的插件, 开启count缓存时安装到对应的Configuration上
+     * <p>
+     * key: Configuration(应用生命周期内不释放)
+     */
+    private static final Map<Configuration, CountCacheInterceptor> REGISTERED = new ConcurrentHashMap<>();
+
+    private final Configuration configuration;
+
+    private volatile boolean installed = false;
+    /**
+     * key: mapper类名; value: mapper对应的表名
+     */
+    private final Map<String, String> tables = new ConcurrentHashMap<>();
+    /**
+     * 非spring事务中(mybatis会话未提交)执行过写语句的表
+     */
+    private final Map<Executor, Set<String>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private CountCacheInterceptor(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 返回Configuration对应的插件, 没有时登记一个; count缓存已开启时安装到Configuration上
+     *
+     * @param configuration Configuration
+     * @return CountCacheInterceptor
+     */
+    public static CountCacheInterceptor of(Configuration configuration) {
+        CountCacheInterceptor interceptor = REGISTERED.computeIfAbsent(configuration, CountCacheInterceptor::new);
+        if (CountCacheKit.isEnabled()) {
+            interceptor.install();
+        }
+        return interceptor;
+    }
+
+    /**
+     * 开启count缓存时调用, 将插件安装到所有已登记的Configuration上
+     * <p>
+     * 插件在创建Executor(打开会话)时织入, 已打开的会话不经过插件, 应在应用启动时开启count缓存
+     */
+    public static void installAll() {
+        REGISTERED.values().forEach(CountCacheInterceptor::install);
+    }
+
+    private void install() {
+        if (this.installed) {
+            return;
+        }
+        synchronized (this.configuration) {
+            if (!this.installed) {
+                if (!this.configuration.getInterceptors().contains(this)) {
+                    this.configuration.addInterceptor(this);
+                }
+                this.installed = true;
+            }
+        }
+    }
+
+    /**
+     * 登记mapper对应的表, 未登记mapper的写语句使所有count缓存失效
+     *
+     * @param mapperClass mapper类名
+     * @param table       表名
+     */
+    public void register(String mapperClass, String table) {
+        this.tables.put(mapperClass, table);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        /* count缓存未开启, 且没有待失效的表时, 不做任何处理 */
+        if (!CountCacheKit.isEnabled() && this.pending.isEmpty()) {
+            return invocation.proceed();
+        }
+        Executor executor = (Executor) invocation.getTarget();
+        if (!"update".equals(invocation.getMethod().getName())) {
+            try {
+                return invocation.proceed();
+            } finally {
+                Set<String> written = this.pending.remove(executor);
+                if (written != null) {
+                    written.forEach(CountCacheKit::invalidate);
+                }
+            }
+        }
+        Object result = invocation.proceed();
+        if (CountCacheKit.isEnabled()) {
+            String table = this.table((MappedStatement) invocation.getArgs()[0]);
+            CountCacheKit.invalidate(table);
+            if (!afterCompletion(table) && !executor.getTransaction().getConnection().getAutoCommit()) {
+                this.pending.computeIfAbsent(executor, e -> new HashSet<>()).add(table);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回写语句涉及的表, 无法确定时返回空字符串
+     */
+    private String table(MappedStatement statement) {
+        String id = statement.getId();
+        int dot = id.lastIndexOf('.');
+        if (dot < 0 || M_BatchCrud.equals(id.substring(dot + 1))) {
+            return "";
+        }
+        return this.tables.getOrDefault(id.substring(0, dot), "");
+    }
+
+    /**
+     * 有spring事务同步时, 登记事务结束后使表上的count缓存失效
+     * <p>
+     * 同一事务中的写语句共用一个TransactionSynchronization, 只把表加入已登记的同步中;
+     * REQUIRES_NEW等挂起外层事务时, 外层的同步不在当前同步列表中, 内层事务另行登记
+     *
+     * @return false: 没有spring事务同步
+     */
+    private static boolean afterCompletion(String table) {
+        if (SYNC_ACTIVE == null || SYNC_LIST == null) {
+            return false;
+        }
+        try {
+            if (!(Boolean) SYNC_ACTIVE.invoke(null)) {
+                return false;
+            }
+            for (Object registered : (List) SYNC_LIST.invoke(null)) {
+                if (Proxy.isProxyClass(registered.getClass()) && Proxy.getInvocationHandler(registered) instanceof DirtyTables) {
+                    ((DirtyTables) Proxy.getInvocationHandler(registered)).tables.add(table);
+                    return true;
+                }
+            }
+            DirtyTables dirty = new DirtyTables();
+            dirty.tables.add(table);
+            Class type = SYNC_REGISTER.getParameterTypes()[0];
+            SYNC_REGISTER.invoke(null, Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, dirty));
+            return true;
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * spring TransactionSynchronization的实现: 收集事务中写过的表, 事务结束后使表上的count缓存失效
+     * <p>
+     * 事务同步绑定在线程上, 只有事务所在的线程访问
+     */
+    private static class DirtyTables implements InvocationHandler {
+        private final Set<String> tables = new HashSet<>();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "afterCompletion":
+                    this.tables.forEach(CountCacheKit::invalidate);
+                    return null;
+                case "getOrder":
+                    return Integer.MAX_VALUE;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CountCacheSynchronization" + this.tables;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static Method txMethod(String name) {
+        try {
+            for (Method method : Class.forName(TX_MANAGER).getMethods()) {
+                if (method.getName().equals(name)) {
+                    return method;
+                }
+            }
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * 实体列表查询(internalListEntity)的结果集处理插件
+ * <p>
+ * 只接管注册过 {@link EntityRowMapper} 的语句, 且没有自定义ResultHandler和RowBounds时,
+ * 由 EntityRowMapper 直接读取结果集; 其它情况仍交给mybatis DefaultResultSetHandler
+ *
+ * @author darui.wu
+ */
+@Intercepts(@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = Statement.class))
+@SuppressWarnings("rawtypes")
+public class EntityRowInterceptor implements Interceptor {
+    /**
+     * 是否使用EntityRowMapper读取实体结果集, 默认开启
+     */
+    private static boolean ENABLED = true;
+    /**
+     * key: statement id
+     */
+    private final Map<String, EntityRowMapper> mappers = new ConcurrentHashMap<>();
+
+    private EntityRowInterceptor() {
+    }
+
+    /**
+     * 设置实体列表查询是否使用EntityRowMapper读取结果集
+     *
+     * @param enabled false: 使用mybatis默认的ResultMap映射
+     */
+    public static void setEnabled(boolean enabled) {
+        ENABLED = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 返回Configuration上已注册的插件, 没有时注册一个
+     *
+     * @param configuration Configuration
+     * @return EntityRowInterceptor
+     */
+    public static EntityRowInterceptor of(Configuration configuration) {
+        synchronized (configuration) {
+            for (Interceptor interceptor : configuration.getInterceptors()) {
+                if (interceptor instanceof EntityRowInterceptor) {
+                    return (EntityRowInterceptor) interceptor;
+                }
+            }
+            EntityRowInterceptor interceptor = new EntityRowInterceptor();
+            configuration.addInterceptor(interceptor);
+            return interceptor;
+        }
+    }
+
+    public void register(String statementId, EntityRowMapper mapper) {
+        this.mappers.put(statementId, mapper);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!ENABLED || this.mappers.isEmpty()) {
+            return invocation.proceed();
+        }
+        MetaObject handler = SystemMetaObject.forObject(unwrap(invocation.getTarget()));
+        if (!handler.hasGetter("mappedStatement")) {
+            return invocation.proceed();
+        }
+        MappedStatement statement = (MappedStatement) handler.getValue("mappedStatement");
+        EntityRowMapper mapper = this.mappers.get(statement.getId());
+        RowBounds bounds = (RowBounds) handler.getValue("rowBounds");
+        if (mapper == null || handler.getValue("resultHandler") != null || statement.getResultSets() != null
+            || bounds.getOffset() != RowBounds.NO_ROW_OFFSET || bounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+            return invocation.proceed();
+        }
+        ResultSet rs = firstResultSet((Statement) invocation.getArgs()[0]);
+        if (rs == null) {
+            return new ArrayList<>();
+        }
+        try (ResultSet closed = rs) {
+            return mapper.rows(closed);
+        }
+    }
+
+    /**
+     * 被多个插件代理时, 取出最里层的ResultSetHandler
+     */
+    static Object unwrap(Object target) {
+        while (Proxy.isProxyClass(target.getClass())) {
+            target = SystemMetaObject.forObject(target).getValue("h.target");
+        }
+        return target;
+    }
+
+    /**
+     * 返回mapper方法参数中的查询条件, 没有时返回null
+     */
+    static WrapperData wrapperData(Object parameter) {
+        if (!(parameter instanceof Map) || !((Map) parameter).containsKey(Param_EW)) {
+            return null;
+        }
+        Object wrapper = ((Map) parameter).get(Param_EW);
+        return wrapper instanceof IWrapper ? ((IWrapper) wrapper).data() : null;
+    }
+
+    /**
+     * @see org.apache.ibatis.executor.resultset.DefaultResultSetHandler#handleResultSets(Statement)
+     */
+    static ResultSet firstResultSet(Statement stmt) throws SQLException {
+        ResultSet rs = stmt.getResultSet();
+        while (rs == null) {
+            if (stmt.getMoreResults()) {
+                rs = stmt.getResultSet();
+            } else if (stmt.getUpdateCount() == -1) {
+                break;
+            }
+        }
+        return rs;
+    }
+}
@@ -0,0 +1,180 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.functions.ISetter;
+import cn.org.atool.fluent.mybatis.typehandler.WindowTotalHandler;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static cn.org.atool.fluent.mybatis.utility.StrConstant.WINDOW_TOTAL;
+
+/**
+ * 实体结果集映射
+ * <p>
+ * mybatis默认的结果集映射每行都要经过MetaObject反射赋值、自动映射查找和按字段名解析TypeHandler;
+ * 这里每个结果集按字段名称解析一次映射计划(结果集下标 → TypeHandler, 实体setter), 逐行按下标读取,
+ * 通过生成的 {@link FieldMapping#setter} 直接调用实体的set方法
+ * <p>
+ * 结果集中不在ResultMap声明里的字段, 同mybatis自动映射(autoMappingBehavior非NONE)一样,
+ * 按属性名称(忽略大小写, mapUnderscoreToCamelCase时忽略下划线)匹配实体属性, 如 user_name AS userName
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class EntityRowMapper {
+    private final Supplier<IEntity> creator;
+    /**
+     * key: 大写的数据库字段名称; value: 属性下标
+     */
+    private final Map<String, Integer> indexes = new HashMap<>();
+    /**
+     * 自动映射: key: 大写的属性名称; value: 属性下标; 关闭自动映射时为空
+     */
+    private final Map<String, Integer> properties = new HashMap<>();
+
+    private final ISetter[] setters;
+
+    private final TypeHandler[] handlers;
+
+    private final boolean[] primitives;
+
+    private final boolean useColumnLabel;
+
+    private final boolean callSettersOnNulls;
+
+    private final boolean returnInstanceForEmptyRow;
+
+    private final boolean mapUnderscoreToCamelCase;
+
+    /**
+     * @param configuration Configuration
+     * @param creator       实体构造
+     * @param fields        实体字段映射
+     * @param mappings      实体ResultMap中已解析TypeHandler的映射项
+     */
+    public EntityRowMapper(Configuration configuration, Supplier<IEntity> creator, List<FieldMapping> fields, List<ResultMapping> mappings) {
+        this.creator = creator;
+        this.useColumnLabel = configuration.isUseColumnLabel();
+        this.callSettersOnNulls = configuration.isCallSettersOnNulls();
+        this.returnInstanceForEmptyRow = configuration.isReturnInstanceForEmptyRow();
+        this.mapUnderscoreToCamelCase = configuration.isMapUnderscoreToCamelCase();
+        boolean autoMapping = configuration.getAutoMappingBehavior() != AutoMappingBehavior.NONE;
+        Map<String, FieldMapping> byName = new HashMap<>();
+        for (FieldMapping f : fields) {
+            byName.put(f.name, f);
+        }
+        List<ISetter> setters = new ArrayList<>();
+        List<TypeHandler> handlers = new ArrayList<>();
+        List<Boolean> primitives = new ArrayList<>();
+        for (ResultMapping mapping : mappings) {
+            FieldMapping f = mapping.getProperty() == null ? null : byName.get(mapping.getProperty());
+            if (f == null || f.setter == null || mapping.getColumn() == null) {
+                continue;
+            }
+            this.indexes.put(mapping.getColumn().toUpperCase(Locale.ENGLISH), setters.size());
+            if (autoMapping) {
+                this.properties.putIfAbsent(f.name.toUpperCase(Locale.ENGLISH), setters.size());
+            }
+            setters.add(f.setter);
+            handlers.add(mapping.getTypeHandler());
+            primitives.add(f.javaType != null && f.javaType.isPrimitive());
+        }
+        this.setters = setters.toArray(new ISetter[0]);
+        this.handlers = handlers.toArray(new TypeHandler[0]);
+        this.primitives = new boolean[primitives.size()];
+        for (int index = 0; index < this.primitives.length; index++) {
+            this.primitives[index] = primitives.get(index);
+        }
+    }
+
+    /**
+     * 读取结果集所有记录
+     *
+     * @param rs 结果集
+     * @return 实体列表, 所有字段都为null的记录同mybatis一样返回null
+     * @throws SQLException 读取结果集异常
+     */
+    public List<Object> rows(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = meta.getColumnCount();
+        int[] columns = new int[count];
+        int[] targets = new int[count];
+        boolean[] mapped = new boolean[this.setters.length];
+        String[] unmapped = new String[count + 1];
+        int size = 0;
+        int windowTotal = 0;
+        for (int column = 1; column <= count; column++) {
+            String name = this.useColumnLabel ? meta.getColumnLabel(column) : meta.getColumnName(column);
+            name = name.toUpperCase(Locale.ENGLISH);
+            Integer target = this.indexes.get(name);
+            if (target != null) {
+                columns[size] = column;
+                targets[size++] = target;
+                mapped[target] = true;
+            } else if (WINDOW_TOTAL.equals(name)) {
+                windowTotal = column;
+            } else {
+                unmapped[column] = name;
+            }
+        }
+        /* ResultMap已映射的属性优先, 同 DefaultResultSetHandler#createAutomaticMappings */
+        for (int column = 1; column <= count && !this.properties.isEmpty(); column++) {
+            Integer target = this.property(unmapped[column]);
+            if (target != null && !mapped[target]) {
+                columns[size] = column;
+                targets[size++] = target;
+                mapped[target] = true;
+            }
+        }
+        List<Object> list = new ArrayList<>();
+        while (rs.next()) {
+            list.add(this.row(rs, columns, targets, size));
+            if (windowTotal > 0) {
+                WindowTotalHandler.INSTANCE.getResult(rs, windowTotal);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 按属性名称匹配未声明的字段
+     *
+     * @param name 大写的字段名称
+     * @return 属性下标, 没有匹配时返回null
+     */
+    private Integer property(String name) {
+        if (name == null) {
+            return null;
+        }
+        Integer target = this.properties.get(name);
+        if (target == null && this.mapUnderscoreToCamelCase) {
+            target = this.properties.get(name.replace("_", ""));
+        }
+        return target;
+    }
+
+    private IEntity row(ResultSet rs, int[] columns, int[] targets, int size) throws SQLException {
+        IEntity entity = this.creator.get();
+        boolean found = false;
+        for (int index = 0; index < size; index++) {
+            int target = targets[index];
+            Object value = this.handlers[target].getResult(rs, columns[index]);
+            if (value != null) {
+                found = true;
+                this.setters[target].set(entity, value);
+            } else if (this.callSettersOnNulls && !this.primitives[target]) {
+                this.setters[target].set(entity, null);
+            }
+        }
+        return found || this.returnInstanceForEmptyRow ? entity : null;
+    }
+}
@@ -0,0 +1,56 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * 按查询条件设置 Statement.fetchSize 的插件
+ * <p>
+ * MappedStatement 上的 fetchSize 是固定的, 这里在语句创建后按 {@link WrapperData#getFetchSize()} 覆盖,
+ * 没有设置时保持原值
+ *
+ * @author darui.wu
+ */
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class FetchSizeInterceptor implements Interceptor {
+    private FetchSizeInterceptor() {
+    }
+
+    /**
+     * 返回Configuration上已注册的插件, 没有时注册一个
+     *
+     * @param configuration Configuration
+     * @return FetchSizeInterceptor
+     */
+    public static FetchSizeInterceptor of(Configuration configuration) {
+        synchronized (configuration) {
+            for (Interceptor interceptor : configuration.getInterceptors()) {
+                if (interceptor instanceof FetchSizeInterceptor) {
+                    return (FetchSizeInterceptor) interceptor;
+                }
+            }
+            FetchSizeInterceptor interceptor = new FetchSizeInterceptor();
+            configuration.addInterceptor(interceptor);
+            return interceptor;
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Statement statement = (Statement) invocation.proceed();
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        WrapperData data = EntityRowInterceptor.wrapperData(handler.getBoundSql().getParameterObject());
+        if (data != null && data.getFetchSize() != 0) {
+            statement.setFetchSize(data.getFetchSize());
+        }
+        return statement;
+    }
+}
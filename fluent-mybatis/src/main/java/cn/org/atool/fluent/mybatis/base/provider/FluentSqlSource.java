@@ -0,0 +1,72 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.functions.SqlSupplier;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.Map;
+
+import static cn.org.atool.fluent.mybatis.utility.StrConstant.DOLLAR_LEFT_CURLY;
+
+/**
+ * SqlProvider语句的SqlSource实现
+ * <p>
+ * mybatis原生的ProviderSqlSource每次执行都会把SqlProvider返回的sql交给LanguageDriver重新解析#{...}占位符,
+ * 并重新构造ParameterMapping; 这里按sql文本缓存解析结果, 相同结构的语句(变量名已位置化)只解析一次
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings("rawtypes")
+public class FluentSqlSource implements SqlSource {
+    /**
+     * 每个语句缓存的sql文本数量上限, 超出时按{@link ClockCache}淘汰近期未使用的
+     */
+    private static final int MAX_CACHED = 256;
+
+    private final Configuration configuration;
+    /**
+     * mybatis原生的ProviderSqlSource, 非Map入参时使用
+     */
+    private final SqlSource origin;
+
+    private final LanguageDriver lang;
+
+    private final SqlSupplier supplier;
+
+    /**
+     * 命中时不加锁, 并发执行同一语句不会串行在缓存上
+     */
+    private final ClockCache<String, SqlSource> cached = new ClockCache<>(MAX_CACHED);
+
+    public FluentSqlSource(Configuration configuration, IMapping mapping, String method, SqlSource origin, LanguageDriver lang) {
+        this.configuration = configuration;
+        this.origin = origin;
+        this.lang = lang;
+        this.supplier = SqlSupplier.get(mapping, method);
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        if (!(parameterObject instanceof Map)) {
+            return this.origin.getBoundSql(parameterObject);
+        }
+        String sql = this.supplier.apply((Map) parameterObject);
+        return this.sqlSource(sql, parameterObject.getClass()).getBoundSql(parameterObject);
+    }
+
+    private SqlSource sqlSource(String sql, Class parameterType) {
+        SqlSource sqlSource = this.cached.get(sql);
+        if (sqlSource != null) {
+            return sqlSource;
+        }
+        sqlSource = this.lang.createSqlSource(this.configuration, sql, parameterType);
+        /* ${...}文本替换依赖参数值, 不能缓存 */
+        if (!sql.contains(DOLLAR_LEFT_CURLY)) {
+            this.cached.put(sql, sqlSource);
+        }
+        return sqlSource;
+    }
+}
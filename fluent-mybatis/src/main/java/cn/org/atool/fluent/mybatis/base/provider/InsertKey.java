@@ -0,0 +1,44 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import lombok.EqualsAndHashCode;
+
+import java.util.BitSet;
+
+/**
+ * insert语句模板缓存键值: 相同的数据库类型(含转义方式), 表名和插入字段组合生成的insert语句相同;
+ * 变量前缀(如batchCrud中每个实例的下标)不在键值中, 模板使用占位前缀, 渲染时替换
+ *
+ * @author darui.wu
+ */
+@EqualsAndHashCode
+class InsertKey {
+    /**
+     * 数据库类型
+     */
+    final DbType dbType;
+    /**
+     * 数据库类型的字段转义方式, 修改转义方式后生成新的模板
+     */
+    final String escape;
+    /**
+     * 插入的表名称(含动态表名)
+     */
+    final String table;
+    /**
+     * 按IMapping.allFields()下标标记的非空字段(不含不插入的主键)
+     */
+    final BitSet nonNulls;
+    /**
+     * 是否插入主键
+     */
+    final boolean withPk;
+
+    InsertKey(DbType dbType, String table, BitSet nonNulls, boolean withPk) {
+        this.dbType = dbType;
+        this.escape = dbType == null ? null : dbType.getEscapeExpress();
+        this.table = table;
+        this.nonNulls = nonNulls;
+        this.withPk = withPk;
+    }
+}
@@ -1,24 +1,113 @@
 package cn.org.atool.fluent.mybatis.base.provider;
 
+import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.BatchCrudImpl;
 import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.base.entity.TableId;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.mapper.MapperSql;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
 /**
  * oracle批量插入语法
+ * <pre>
+ * 按批量大小选择插入方式:
+ * o 带主键插入, 记录数不超过INSERT_ALL_ROWS, 且所有INTO子句的字段总数不超过INSERT_ALL_COLUMNS:
+ *   INSERT ALL INTO ... VALUES (...) ... SELECT 1 FROM DUAL
+ * o 未显式指定插入方式, 且记录数超过JDBC_BATCH_ROWS: 单条insert语句按JDBC批处理提交(oracle驱动按数组绑定执行)
+ * o 其它: INSERT ... SELECT seq.nextval, TMP.* FROM ((SELECT ... FROM DUAL) UNION ALL ...) TMP
+ * </pre>
+ * INSERT ALL中的sequence.nextval对所有行只取值一次, 所以需要sequence生成主键时不使用INSERT ALL
  *
  * @author wudarui
  */
 @SuppressWarnings({"rawtypes"})
 public class OracleSqlKit extends CommonSqlKit {
+    /**
+     * 使用INSERT ALL语法的最大记录数
+     */
+    private static int INSERT_ALL_ROWS = 100;
+    /**
+     * INSERT ALL所有INTO子句的字段总数上限, 超过时oracle报错 ORA-24335
+     */
+    private static final int INSERT_ALL_COLUMNS = 999;
+    /**
+     * 超过该记录数时使用JDBC批处理
+     */
+    private static int JDBC_BATCH_ROWS = 500;
+
     public OracleSqlKit() {
         super();
     }
 
+    /**
+     * 设置oracle批量插入方式的切换阈值
+     *
+     * @param insertAllRows 带主键插入时使用INSERT ALL语法的最大记录数, 0表示不使用INSERT ALL
+     * @param jdbcBatchRows 超过该记录数时使用JDBC批处理
+     */
+    public static void setBatchLimit(int insertAllRows, int jdbcBatchRows) {
+        INSERT_ALL_ROWS = Math.max(insertAllRows, 0);
+        JDBC_BATCH_ROWS = Math.max(jdbcBatchRows, 1);
+    }
+
+    @Override
+    public boolean jdbcBatch(IMapping mapping, int size) {
+        return size > JDBC_BATCH_ROWS;
+    }
+
+    @Override
+    public <E extends IEntity> String insertBatch(IMapping mapping, Collection<E> entities, boolean withPk, TableId tableId) {
+        if (!withPk || entities.size() > INSERT_ALL_ROWS) {
+            return super.insertBatch(mapping, entities, withPk, tableId);
+        }
+        List<BitSet> rows = this.nonNulls(mapping, entities, true);
+        List<FieldMapping> nonFields = this.nonFields(mapping, rows, true);
+        if ((long) rows.size() * nonFields.size() > INSERT_ALL_COLUMNS) {
+            return super.insertBatch(mapping, entities, withPk, tableId);
+        }
+        int[] indexes = this.fieldIndexes(mapping, nonFields);
+
+        MapperSql into = new MapperSql();
+        into.APPEND("INTO").APPEND(dynamic(entities, mapping));
+        into.INSERT_COLUMNS(mapping, nonFields.stream().map(f -> f.column).collect(toList()));
+        into.VALUES();
+        String intoSql = into.toString();
+
+        StringBuilder buff = new StringBuilder("INSERT ALL");
+        for (int index = 0; index < rows.size(); index++) {
+            buff.append(' ').append(intoSql).append(' ');
+            this.appendValues(buff, "list[" + index + "].", rows.get(index), nonFields, indexes);
+        }
+        return buff.append(" SELECT 1 FROM DUAL").toString();
+    }
+
+    @Override
+    public boolean upsertable(IMapping mapping) {
+        return mapping.primaryMapping() != null;
+    }
+
+    @Override
+    protected String mergeDual() {
+        return " FROM DUAL";
+    }
+
+    /**
+     * oracle不支持 WHEN MATCHED AND 条件, 使用 UPDATE SET ... WHERE 条件
+     */
+    @Override
+    protected String mergeMatched(String sets, String condition) {
+        return "WHEN MATCHED THEN UPDATE SET " + sets + (condition == null ? "" : " WHERE " + condition);
+    }
+
     @Override
     public KeyGenerator insert(StatementBuilder builder, FieldMapping primary, TableId tableId) {
         if (this.isAutoKeyGenerator(tableId)) {
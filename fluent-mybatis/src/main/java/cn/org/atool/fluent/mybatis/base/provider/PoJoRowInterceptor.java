@@ -0,0 +1,151 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_ListMaps;
+
+/**
+ * listPoJos(Class, IQuery) 的结果集处理插件
+ * <p>
+ * 查询条件设置了 {@link cn.org.atool.fluent.mybatis.segment.model.WrapperData#poJoClass} 的 listMaps 语句,
+ * 由 {@link PoJoRowMapper} 直接把结果集映射为PoJo
+ * <p>
+ * 查询时把 listMaps 语句替换为id后缀PoJo类型的副本(statement id!PoJo类名)后继续执行插件链,
+ * 一级/二级缓存key随statement id区分, 避免同一个会话中相同条件的 listMaps 查询命中PoJo列表, 或反过来;
+ * 内层插件和执行器看到的仍是4个参数的query调用
+ *
+ * @author darui.wu
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = Statement.class)
+})
+@SuppressWarnings("rawtypes")
+public class PoJoRowInterceptor implements Interceptor {
+    /**
+     * 是否使用PoJoRowMapper读取PoJo结果集, 默认开启
+     */
+    private static boolean ENABLED = true;
+
+    private final Configuration configuration;
+    /**
+     * statement id和PoJo类名的分隔符
+     */
+    private static final char POJO_MARK = '!';
+    /**
+     * key: PoJo类型
+     */
+    private final Map<Class, PoJoRowMapper> mappers = new ConcurrentHashMap<>();
+    /**
+     * key: statement id!PoJo类名; value: 替换id后的 listMaps 语句
+     */
+    private final Map<String, MappedStatement> statements = new ConcurrentHashMap<>();
+
+    private PoJoRowInterceptor(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 设置 listPoJos(Class, IQuery) 是否直接从结果集映射PoJo
+     *
+     * @param enabled false: 先查询Map列表, 再转换为PoJo
+     */
+    public static void setEnabled(boolean enabled) {
+        ENABLED = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 返回Configuration上已注册的插件, 没有时注册一个
+     *
+     * @param configuration Configuration
+     * @return PoJoRowInterceptor
+     */
+    public static PoJoRowInterceptor of(Configuration configuration) {
+        synchronized (configuration) {
+            for (Interceptor interceptor : configuration.getInterceptors()) {
+                if (interceptor instanceof PoJoRowInterceptor) {
+                    return (PoJoRowInterceptor) interceptor;
+                }
+            }
+            PoJoRowInterceptor interceptor = new PoJoRowInterceptor(configuration);
+            configuration.addInterceptor(interceptor);
+            return interceptor;
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!ENABLED) {
+            return invocation.proceed();
+        }
+        if (invocation.getTarget() instanceof Executor) {
+            return this.query(invocation);
+        }
+        MetaObject handler = SystemMetaObject.forObject(EntityRowInterceptor.unwrap(invocation.getTarget()));
+        if (!handler.hasGetter("mappedStatement") || !handler.hasGetter("boundSql")) {
+            return invocation.proceed();
+        }
+        MappedStatement statement = (MappedStatement) handler.getValue("mappedStatement");
+        Class klass = poJoClass(statement, ((BoundSql) handler.getValue("boundSql")).getParameterObject());
+        RowBounds bounds = (RowBounds) handler.getValue("rowBounds");
+        if (klass == null || handler.getValue("resultHandler") != null || statement.getResultSets() != null
+            || bounds.getOffset() != RowBounds.NO_ROW_OFFSET || bounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+            return invocation.proceed();
+        }
+        ResultSet rs = EntityRowInterceptor.firstResultSet((Statement) invocation.getArgs()[0]);
+        if (rs == null) {
+            return new ArrayList<>();
+        }
+        PoJoRowMapper mapper = this.mappers.computeIfAbsent(klass, c -> new PoJoRowMapper(this.configuration, c));
+        try (ResultSet closed = rs) {
+            return mapper.rows(closed);
+        }
+    }
+
+    /**
+     * 替换为id带PoJo类型的语句后继续执行, 缓存key中加入PoJo类型
+     */
+    private Object query(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement statement = (MappedStatement) args[0];
+        Class klass = statement.getId().indexOf(POJO_MARK) < 0 ? poJoClass(statement, args[1]) : null;
+        if (klass != null) {
+            String id = statement.getId() + POJO_MARK + klass.getName();
+            args[0] = this.statements.computeIfAbsent(id, key -> StatementBuilder.renamedStatement(statement, key));
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 返回 listMaps 语句查询条件上设置的PoJo类型
+     */
+    private static Class poJoClass(MappedStatement statement, Object parameter) {
+        String id = statement.getId();
+        int mark = id.indexOf(POJO_MARK);
+        WrapperData data = (mark < 0 ? id : id.substring(0, mark)).endsWith("." + M_ListMaps) ? EntityRowInterceptor.wrapperData(parameter) : null;
+        return data == null ? null : data.getPoJoClass();
+    }
+}
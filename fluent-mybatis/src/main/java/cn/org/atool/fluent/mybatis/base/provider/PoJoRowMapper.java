@@ -0,0 +1,175 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.functions.ISetter;
+import cn.org.atool.fluent.mybatis.metadata.SetterMeta;
+import cn.org.atool.fluent.mybatis.typehandler.ConvertorKit;
+import cn.org.atool.fluent.mybatis.utility.LambdaUtil;
+import cn.org.atool.fluent.mybatis.utility.MybatisUtil;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static cn.org.atool.fluent.mybatis.typehandler.ConvertorKit.convertValueToType;
+
+/**
+ * PoJo结果集映射
+ * <p>
+ * listPoJos(Class, IQuery) 原来先由mybatis把每行读成HashMap, 再对每个key做下划线转驼峰、查找SetterMeta和反射调用setter;
+ * 这里按(PoJo类型, 结果集字段)缓存映射计划(结果集下标 → TypeHandler, 类型转换, setter), 逐行按下标读取直接赋值,
+ * 不再构造中间Map, 字段取值和类型转换规则同 {@link cn.org.atool.fluent.mybatis.utility.PoJoHelper#toPoJo(Class, Map)}
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class PoJoRowMapper {
+    private final Configuration configuration;
+
+    private final Class klass;
+    /**
+     * key: 结果集字段名称 + 类型
+     */
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+
+    private volatile Supplier creator;
+
+    public PoJoRowMapper(Configuration configuration, Class klass) {
+        this.configuration = configuration;
+        this.klass = klass;
+    }
+
+    /**
+     * 读取结果集所有记录
+     *
+     * @param rs 结果集
+     * @return PoJo列表, 所有字段都为null的记录同mybatis一样返回null
+     * @throws SQLException 读取结果集异常
+     */
+    public List<Object> rows(ResultSet rs) throws SQLException {
+        List<Object> list = new ArrayList<>();
+        if (!rs.next()) {
+            return list;
+        }
+        Plan plan = this.plan(rs);
+        do {
+            list.add(plan.row(rs));
+        } while (rs.next());
+        return list;
+    }
+
+    /**
+     * 同一个PoJo类型的同一组查询字段只解析一次
+     */
+    private Plan plan(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        StringBuilder key = new StringBuilder();
+        for (int column = 1; column <= meta.getColumnCount(); column++) {
+            String name = this.configuration.isUseColumnLabel() ? meta.getColumnLabel(column) : meta.getColumnName(column);
+            key.append(name).append(':').append(meta.getColumnType(column)).append(':').append(meta.getColumnClassName(column)).append(',');
+        }
+        Plan plan = this.plans.get(key.toString());
+        if (plan == null) {
+            plan = new Plan(new ResultSetWrapper(rs, this.configuration));
+            this.plans.put(key.toString(), plan);
+        }
+        return plan;
+    }
+
+    private Object newInstance() {
+        if (this.creator == null) {
+            this.creator = LambdaUtil.creator(this.klass);
+        }
+        return this.creator.get();
+    }
+
+    /**
+     * 结果集字段对应的PoJo属性值转换, 在解析映射计划时按属性类型选定
+     */
+    private static Function<Object, Object> convertor(Type type) {
+        if (!(type instanceof Class) || ConvertorKit.hasConvertor(type)) {
+            return value -> convertValueToType(value, type);
+        }
+        Class klass = MethodType.methodType((Class) type).wrap().returnType();
+        return value -> klass.isInstance(value) ? value : ConvertorKit.convertValueToClass(value, klass);
+    }
+
+    private class Plan {
+        private final String[] names;
+
+        private final TypeHandler[] handlers;
+
+        private final Type[] types;
+
+        private final Function<Object, Object>[] convertors;
+        /**
+         * 没有对应属性的字段为null
+         */
+        private final ISetter[] setters;
+
+        Plan(ResultSetWrapper rsw) {
+            List<String> columns = rsw.getColumnNames();
+            int count = columns.size();
+            this.names = new String[count];
+            this.handlers = new TypeHandler[count];
+            this.types = new Type[count];
+            this.convertors = new Function[count];
+            this.setters = new ISetter[count];
+            boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+            for (int index = 0; index < count; index++) {
+                String column = columns.get(index);
+                /* 同Map结果的key一样, 不受mapUnderscoreToCamelCase影响, 统一按下划线转驼峰查找属性 */
+                this.names[index] = MybatisUtil.underlineToCamel(column, false);
+                this.handlers[index] = rsw.getTypeHandler(Object.class, column);
+                SetterMeta meta = SetterMeta.get(klass, this.names[index]);
+                if (meta == null) {
+                    if (callSettersOnNulls) {
+                        throw notFound(this.names[index]);
+                    }
+                    continue;
+                }
+                this.types[index] = meta.fType;
+                this.convertors[index] = convertor(meta.fType);
+                this.setters[index] = meta.setter();
+            }
+        }
+
+        Object row(ResultSet rs) throws SQLException {
+            Object target = null;
+            for (int index = 0; index < this.handlers.length; index++) {
+                Object value = this.handlers[index].getResult(rs, index + 1);
+                if (value == null) {
+                    continue;
+                }
+                if (this.setters[index] == null) {
+                    throw notFound(this.names[index]);
+                }
+                if (target == null) {
+                    target = newInstance();
+                }
+                try {
+                    this.setters[index].set(target, this.convertors[index].apply(value));
+                } catch (Exception e) {
+                    String err = String.format("convert map to object[class=%s, property=%s, type=%s] error: %s",
+                        klass.getName(), this.names[index], this.types[index].toString(), e.getMessage());
+                    throw new RuntimeException(err, e);
+                }
+            }
+            return target == null && configuration.isReturnInstanceForEmptyRow() ? newInstance() : target;
+        }
+
+        private RuntimeException notFound(String name) {
+            return new RuntimeException("property[" + name + "] of class[" + klass.getName() + "] not found.");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * 在调用线程预先渲染好的sql语句和位置变量值
+ * <p>
+ * 作为mapper语句的入参在其它线程执行(如并发count)时, SqlProvider直接返回渲染好的sql,
+ * 变量值按 ew.data.parameters.p_n 路径从这里取得, 不再读写查询条件上共享的变量表
+ *
+ * @author darui.wu
+ */
+@Getter
+public class RenderedSql extends HashMap<String, Object> {
+    private final String sql;
+
+    /**
+     * @param sql    位置化后的sql, 见 {@link Parameters#positional(String, List)}
+     * @param values 按位置收集的变量值
+     */
+    public RenderedSql(String sql, List<Object> values) {
+        super(4);
+        this.sql = sql;
+        Map<String, Object> parameters = new HashMap<>(values.size() * 4 / 3 + 1);
+        for (int index = 0; index < values.size(); index++) {
+            parameters.put(Parameters.positionalName(index + 1), values.get(index));
+        }
+        super.put(Param_EW, Collections.singletonMap("data", Collections.singletonMap("parameters", parameters)));
+    }
+}
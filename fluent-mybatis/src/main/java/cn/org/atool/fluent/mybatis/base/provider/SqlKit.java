@@ -9,6 +9,8 @@ import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.base.entity.TableId;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.ISqlOp;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 
@@ -120,6 +122,17 @@ public interface SqlKit {
      */
     IUpdate updateById(IMapping mapping, IEntity entity);
 
+    /**
+     * 根据Entity列表构造按主键批量更新的单个IUpdate
+     *
+     * @param mapping  entity对应的数据库映射定义
+     * @param entities entity列表
+     * @return IUpdate, 不能合并成一条语句时(如有版本锁, 更新字段不同)返回null, 逐条按主键更新
+     */
+    default IUpdate updateByIds(IMapping mapping, Collection<? extends IEntity> entities) {
+        return null;
+    }
+
     /* =======SqlProvider====== */
 
     /**
@@ -153,6 +166,58 @@ public interface SqlKit {
      */
     String insertSelect(IMapping mapping, String tableName, String[] fields, IQuery query);
 
+    /**
+     * 批量插入时是否改用JDBC批处理(单条insert语句模板)代替多值insert语句
+     *
+     * @param mapping IMapping
+     * @param size    插入记录数
+     * @return true: JDBC批处理
+     */
+    default boolean jdbcBatch(IMapping mapping, int size) {
+        return false;
+    }
+
+    /**
+     * 数据库是否支持 COUNT(*) OVER() 窗口函数, 标准分页时随当前页数据一起返回总记录数
+     *
+     * @param mapping IMapping
+     * @return false: 先count, 再查询当前页数据
+     */
+    default boolean windowTotal(IMapping mapping) {
+        return false;
+    }
+
+    /**
+     * 单条语句允许的最大绑定参数个数, 按主键批量更新(CASE WHEN)时按此切分
+     *
+     * @param mapping IMapping
+     * @return 绑定参数上限
+     */
+    default int maxParameters(IMapping mapping) {
+        return 65535;
+    }
+
+    /**
+     * 数据库是否支持行值比较, 如: (c1, c2) > (?, ?)
+     *
+     * @param mapping IMapping
+     * @return false: 展开成 c1 > ? OR (c1 = ? AND c2 > ?) 形式
+     */
+    default boolean rowValue(IMapping mapping) {
+        return false;
+    }
+
+    /**
+     * 从表统计信息中读取估算行数的sql, 用于没有查询条件时估算总记录数
+     *
+     * @param mapping IMapping
+     * @param ew      查询条件
+     * @return 返回单行单列, 没有统计信息时值为-1; 有查询条件或数据库不支持时返回null
+     */
+    default String tableRows(IMapping mapping, WrapperData ew) {
+        return null;
+    }
+
     /**
      * 批量插入
      *
@@ -164,6 +229,41 @@ public interface SqlKit {
      */
     <E extends IEntity> String insertBatch(IMapping mapping, Collection<E> entities, boolean withPk, TableId tableId);
 
+    /**
+     * 数据库是否支持按主键插入或更新的单条语句(upsert)
+     * <p>
+     * 实现了{@link #upsert(IMapping, String, IEntity)}和{@link #upsertBatch(IMapping, Collection)}的SqlKit需要同时覆写本方法
+     *
+     * @param mapping IMapping
+     * @return false: 不支持upsert语句
+     */
+    default boolean upsertable(IMapping mapping) {
+        return false;
+    }
+
+    /**
+     * 按主键插入或更新单个实例
+     *
+     * @param mapping IMapping
+     * @param prefix  变量前缀
+     * @param entity  实体实例, 主键必须赋值
+     * @return sql
+     */
+    default <E extends IEntity> String upsert(IMapping mapping, String prefix, E entity) {
+        throw new FluentMybatisException("The upsert of table[" + mapping.getTableName() + "] is not supported by " + this.getClass().getName() + ".");
+    }
+
+    /**
+     * 按主键批量插入或更新
+     *
+     * @param mapping  IMapping
+     * @param entities Entity list, 主键必须赋值
+     * @return sql
+     */
+    default <E extends IEntity> String upsertBatch(IMapping mapping, Collection<E> entities) {
+        throw new FluentMybatisException("The upsert of table[" + mapping.getTableName() + "] is not supported by " + this.getClass().getName() + ".");
+    }
+
     /**
      * 根据WrapperData设置构建物理删除语句
      *
@@ -218,4 +318,16 @@ public interface SqlKit {
      * @return sql
      */
     String queryBy(IMapping mapping, WrapperData ew);
-}
\ No newline at end of file
+
+    /**
+     * IN/NOT IN 整个集合作为单个数组参数绑定时的条件片段
+     *
+     * @param mapping IMapping
+     * @param op      {@link cn.org.atool.fluent.mybatis.base.model.SqlOp#IN} 或 NOT_IN
+     * @param array   数组参数占位符, 如: #{ew.data.parameters.p_1, typeHandler=...}
+     * @return 条件片段, 数据库不支持数组参数时返回null, 按数组下标展开成 IN (?, ?, ...)
+     */
+    default String inArray(IMapping mapping, ISqlOp op, String array) {
+        return null;
+    }
+}
@@ -85,7 +85,7 @@ public class SqlProvider {
         WrapperData ew = getWrapperData(map, Param_EW);
         assertNotNull(Param_EW, ew);
         AMapping mapping = mapping(context);
-        return sqlKit(mapping).queryBy(mapping, ew);
+        return positional(ew, sqlKit(mapping).queryBy(mapping, ew));
     }
 
     /**
@@ -116,7 +116,7 @@ public class SqlProvider {
         BaseQuery query = (BaseQuery) map.get(Param_EW);
         AMapping mapping = mapping(context);
         String table = mapping.dynamic(query).get(mapping);
-        return sqlKit(mapping).insertSelect(mapping, table, fields, query);
+        return positional(query.data(), sqlKit(mapping).insertSelect(mapping, table, fields, query));
     }
 
     /**
@@ -133,6 +133,33 @@ public class SqlProvider {
         return sqlKit(mapping).insertEntity(mapping, Param_EW, entity, true);
     }
 
+    /**
+     * 按主键插入或更新entity
+     * {@link IEntityMapper#upsert(IEntity)}
+     *
+     * @param map 实体实例
+     * @return sql
+     */
+    public static String upsert(Map map, ProviderContext context) {
+        IEntity entity = getParas(map, Param_EW);
+        assertNotNull(Param_Entity, entity);
+        AMapping mapping = mapping(context);
+        return sqlKit(mapping).upsert(mapping, Param_EW, entity);
+    }
+
+    /**
+     * 按主键批量插入或更新实例
+     * {@link IEntityMapper#upsertBatch(Collection)}
+     *
+     * @return sql
+     */
+    public static String upsertBatch(Map map, ProviderContext context) {
+        Collection entities = getParas(map, Param_List);
+        assertNotEmpty(Param_List, entities);
+        AMapping mapping = mapping(context);
+        return sqlKit(mapping).upsertBatch(mapping, entities);
+    }
+
     /**
      * 去掉limit部分 count(IQuery) SQL构造
      * {@link IEntityMapper#countNoLimit(IQuery)}
@@ -141,10 +168,13 @@ public class SqlProvider {
      * @return ignore
      */
     public static String countNoLimit(Map map, ProviderContext context) {
+        if (map instanceof RenderedSql) {
+            return ((RenderedSql) map).getSql();
+        }
         WrapperData ew = getWrapperData(map, Param_EW);
         assertNotNull(Param_EW, ew);
         AMapping mapping = mapping(context);
-        return sqlKit(mapping).countNoLimit(mapping, ew);
+        return positional(ew, sqlKit(mapping).countNoLimit(mapping, ew));
     }
 
     /**
@@ -158,7 +188,7 @@ public class SqlProvider {
         WrapperData ew = getWrapperData(map, Param_EW);
         assertNotNull(Param_EW, ew);
         AMapping mapping = mapping(context);
-        return sqlKit(mapping).count(mapping, ew);
+        return positional(ew, sqlKit(mapping).count(mapping, ew));
     }
 
     /**
@@ -172,7 +202,7 @@ public class SqlProvider {
         WrapperData ew = getWrapperData(map, Param_EW);
         assertNotNull(Param_EW, ew);
         AMapping mapping = mapping(context);
-        return sqlKit(mapping).queryBy(mapping, ew);
+        return positional(ew, sqlKit(mapping).queryBy(mapping, ew));
     }
 
     /**
@@ -186,7 +216,7 @@ public class SqlProvider {
         WrapperData ew = getWrapperData(map, Param_EW);
         assertNotNull(Param_EW, ew);
         AMapping mapping = mapping(context);
-        return sqlKit(mapping).queryBy(mapping, ew);
+        return positional(ew, sqlKit(mapping).queryBy(mapping, ew));
     }
 
     /**
@@ -200,7 +230,7 @@ public class SqlProvider {
         WrapperData ew = getWrapperData(map, Param_EW);
         assertNotNull(Param_EW, ew);
         AMapping mapping = mapping(context);
-        return sqlKit(mapping).deleteBy(mapping, ew);
+        return positional(ew, sqlKit(mapping).deleteBy(mapping, ew));
     }
 
     /**
@@ -221,6 +251,17 @@ public class SqlProvider {
         return sqlKit(mapping).updateBy(mapping, (IUpdate[]) wrapper);
     }
 
+    /**
+     * 将sql中的变量名改写为位置变量名, 相同结构的语句生成相同的sql文本
+     *
+     * @param ew  sql语句的变量根节点
+     * @param sql sql
+     * @return 改写后的sql
+     */
+    private static String positional(WrapperData ew, String sql) {
+        return ew.getParameters().positional(sql);
+    }
+
     public static SqlKit sqlKit(AMapping mapping) {
         return factory(mapping);
     }
@@ -1,13 +1,17 @@
 package cn.org.atool.fluent.mybatis.base.provider;
 
+import cn.org.atool.fluent.mybatis.base.entity.IEntityKit;
 import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.base.entity.TableId;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.typehandler.WindowTotalHandler;
 import org.apache.ibatis.builder.annotation.ProviderContext;
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -22,6 +26,7 @@ import static cn.org.atool.fluent.mybatis.base.provider.SqlKitFactory.factory;
 import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.COMMA;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.DOT;
+import static cn.org.atool.fluent.mybatis.utility.StrConstant.WINDOW_TOTAL;
 
 /**
  * MappedStatement重建构造
@@ -37,9 +42,17 @@ public class StatementBuilder extends MappedStatement.Builder {
     private final TypeHandlerRegistry typeHandlerRegistry;
 
     public StatementBuilder(IMapping mapping, MappedStatement statement) {
-        super(statement.getConfiguration(), statement.getId(), statement.getSqlSource(), statement.getSqlCommandType());
+        this(mapping, statement, statement.getSqlSource());
+    }
+
+    public StatementBuilder(IMapping mapping, MappedStatement statement, SqlSource sqlSource) {
+        this(mapping, statement, statement.getId(), sqlSource);
+    }
+
+    private StatementBuilder(IMapping mapping, MappedStatement statement, String id, SqlSource sqlSource) {
+        super(statement.getConfiguration(), id, sqlSource, statement.getSqlCommandType());
         this.mapping = mapping;
-        this.id = statement.getId();
+        this.id = id;
         this.statement = statement;
         this.configuration = statement.getConfiguration();
         this.typeHandlerRegistry = this.configuration.getTypeHandlerRegistry();
@@ -92,17 +105,74 @@ public class StatementBuilder extends MappedStatement.Builder {
 
     /**
      * 补充方法 {@link SqlProvider#listEntity(Map, ProviderContext)} 声明
+     * <p>
+     * ResultMap保留给游标等仍由mybatis处理结果集的场景, 列表查询由 {@link EntityRowInterceptor} 接管
      */
     public MappedStatement listEntityStatement() {
         List<ResultMapping> resultMappings = new ArrayList<>();
         for (FieldMapping f : mapping.allFields()) {
             resultMappings.add(this.resultMapping(f));
         }
+        /* 标准分页查询的 COUNT(*) OVER() 字段, 不对应实体属性 */
+        resultMappings.add(new ResultMapping.Builder(this.configuration, null, WINDOW_TOTAL, WindowTotalHandler.INSTANCE).build());
         Class type = this.mapping.entityClass();
         this.resultMaps(this.statementResultMaps(type.getName() + "-RM", type, resultMappings));
+        if (this.mapping instanceof IEntityKit) {
+            IEntityKit kit = (IEntityKit) this.mapping;
+            EntityRowMapper mapper = new EntityRowMapper(this.configuration, kit::newEntity, this.mapping.allFields(), resultMappings);
+            EntityRowInterceptor.of(this.configuration).register(this.id, mapper);
+        }
         return this.build();
     }
 
+    /**
+     * 替换SqlProvider方法的SqlSource, 按sql文本缓存LanguageDriver的解析结果
+     *
+     * @param mapping   IMapping
+     * @param statement 原MappedStatement
+     * @param method    SqlProvider方法名称
+     * @return 替换SqlSource后的MappedStatement
+     * @see FluentSqlSource
+     */
+    public static MappedStatement sqlSourceStatement(IMapping mapping, MappedStatement statement, String method) {
+        SqlSource origin = statement.getSqlSource();
+        if (!(origin instanceof ProviderSqlSource) || !(statement.getLang() instanceof XMLLanguageDriver)) {
+            return statement;
+        }
+        SqlSource sqlSource = new FluentSqlSource(statement.getConfiguration(), mapping, method, origin, statement.getLang());
+        return new StatementBuilder(mapping, statement, sqlSource).build();
+    }
+
+    /**
+     * 替换批量插入方法的SqlSource, 单元格变量按位置绑定
+     *
+     * @param mapping   IMapping
+     * @param statement 原MappedStatement
+     * @return 替换SqlSource后的MappedStatement
+     * @see BatchSqlSource
+     */
+    public static MappedStatement batchSqlSourceStatement(IMapping mapping, MappedStatement statement) {
+        if (!(statement.getSqlSource() instanceof ProviderSqlSource)) {
+            return statement;
+        }
+        SqlSource sqlSource = new BatchSqlSource(statement.getConfiguration(), mapping, statement.getSqlSource());
+        return new StatementBuilder(mapping, statement, sqlSource).build();
+    }
+
+    /**
+     * 复制MappedStatement, 只替换id; 不注册到Configuration上
+     * <p>
+     * statement id是一级/二级缓存key的一部分, 相同语句需要区分缓存时使用
+     *
+     * @param statement 原MappedStatement
+     * @param id        新的statement id
+     * @return MappedStatement副本
+     * @see PoJoRowInterceptor
+     */
+    public static MappedStatement renamedStatement(MappedStatement statement, String id) {
+        return new StatementBuilder(null, statement, id, statement.getSqlSource()).build();
+    }
+
     /**
      * @see org.apache.ibatis.annotations.SelectKey
      */
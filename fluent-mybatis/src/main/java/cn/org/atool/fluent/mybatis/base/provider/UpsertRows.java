@@ -0,0 +1,70 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.UniqueType;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * upsert语句构造数据: 插入部分和批量插入相同, 更新部分按设置insert默认值前的非空字段
+ *
+ * @author darui.wu
+ */
+class UpsertRows {
+    final IMapping mapping;
+    /**
+     * 插入的表名称(含动态表名)
+     */
+    final String table;
+    /**
+     * 主键字段
+     */
+    final FieldMapping primary;
+    /**
+     * 版本锁字段, 可为null
+     */
+    final FieldMapping version;
+    /**
+     * 插入字段列表
+     */
+    final List<FieldMapping> nonFields;
+    /**
+     * 插入字段在IMapping.allFields()中的下标
+     */
+    final int[] indexes;
+    /**
+     * 每条记录的插入字段标记(含insert默认值)
+     */
+    final List<BitSet> rows;
+    /**
+     * 每条记录的更新字段标记(设置insert默认值前的非空字段)
+     */
+    final List<BitSet> updates;
+    /**
+     * 记录下标 -> 变量前缀
+     */
+    final IntFunction<String> prefix;
+
+    UpsertRows(IMapping mapping, String table, List<FieldMapping> nonFields, int[] indexes,
+               List<BitSet> rows, List<BitSet> updates, IntFunction<String> prefix) {
+        this.mapping = mapping;
+        this.table = table;
+        this.primary = mapping.primaryMapping();
+        this.version = mapping.findField(UniqueType.LOCK_VERSION).orElse(null);
+        this.nonFields = nonFields;
+        this.indexes = indexes;
+        this.rows = rows;
+        this.updates = updates;
+        this.prefix = prefix;
+    }
+
+    /**
+     * 字段在插入字段列表中的位置, 不插入时返回-1
+     */
+    int column(FieldMapping f) {
+        return this.nonFields.indexOf(f);
+    }
+}
@@ -71,6 +71,8 @@ class SqlFunctions {
         .put(M_Insert, SqlFunctions::insert)
         .put(M_InsertWithPk, SqlFunctions::insert)
         .put(M_InsertBatch, SqlFunctions::insert)
+        .put(M_Upsert, SqlFunctions::insert)
+        .put(M_UpsertBatch, SqlFunctions::insert)
         .put(M_ListEntity, EW_FUNCTION)
         .put(M_ListMaps, EW_FUNCTION)
         .put(M_ListObjs, EW_FUNCTION)
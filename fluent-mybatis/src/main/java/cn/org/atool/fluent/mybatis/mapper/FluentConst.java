@@ -75,6 +75,10 @@ public interface FluentConst {
 
     String M_InsertBatchWithPk = "insertBatchWithPk";
 
+    String M_Upsert = "upsert";
+
+    String M_UpsertBatch = "upsertBatch";
+
     String M_ListEntity = "listEntity";
 
     String M_internalListEntity = "internalListEntity";
@@ -1,7 +1,6 @@
 package cn.org.atool.fluent.mybatis.mapper;
 
 
-import cn.org.atool.fluent.mybatis.If;
 import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
 import cn.org.atool.fluent.mybatis.segment.fragment.IFragment;
@@ -9,11 +8,9 @@ import cn.org.atool.fluent.mybatis.segment.fragment.JoiningFrag;
 import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 import static cn.org.atool.fluent.mybatis.If.*;
 import static cn.org.atool.fluent.mybatis.segment.fragment.KeyFrag.*;
@@ -27,30 +24,55 @@ import static cn.org.atool.fluent.mybatis.utility.StrConstant.*;
  */
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class MapperSql {
-    private final List<String> text = new ArrayList<>();
+    /**
+     * 直接写入sql片段的缓冲区, 片段去除首尾空白后以单个空格分隔, 空片段忽略
+     * <p>
+     * 片段(如子查询)渲染时会嵌套构造MapperSql, 所以缓冲区跟随实例, 不做线程共享
+     */
+    private final StringBuilder buff = new StringBuilder(256);
 
     @Override
     public String toString() {
-        return text.stream().map(String::trim)
-            .filter(If::notBlank).collect(Collectors.joining(SPACE));
+        return buff.toString();
     }
 
     public MapperSql SELECT(String table, String columns) {
-        this.add(SELECT.key(), columns, FROM.key(), table);
+        this.add(SELECT.key()).add(columns).add(FROM.key()).add(table);
         return this;
     }
 
-    private void add(String... objects) {
-        text.addAll(Arrays.asList(objects));
+    /**
+     * 追加sql片段: 等价于 trim 后非空才以空格拼接, 但不产生 trim 的中间字符串
+     *
+     * @param segment sql片段
+     * @return MapperSql
+     */
+    private MapperSql add(String segment) {
+        if (segment == null) {
+            return this;
+        }
+        int start = 0;
+        int end = segment.length();
+        while (start < end && segment.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && segment.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start < end) {
+            if (buff.length() > 0) {
+                buff.append(' ');
+            }
+            buff.append(segment, start, end);
+        }
+        return this;
     }
 
     public MapperSql COUNT(IMapping mapping, IFragment table, WrapperData data) {
         String count = this.selectCount(mapping, data);
-        this.add(
-            data.hint(Before_All), SELECT.key(), data.hint(After_CrudKey),
-            count, FROM.key(),
-            data.hint(Before_Table), table.get(mapping), data.hint(After_Table)
-        );
+        this.add(data.hint(Before_All)).add(SELECT.key()).add(data.hint(After_CrudKey))
+            .add(count).add(FROM.key())
+            .add(data.hint(Before_Table)).add(table.get(mapping)).add(data.hint(After_Table));
         return this;
     }
 
@@ -83,7 +105,7 @@ public class MapperSql {
     }
 
     public MapperSql INSERT_INTO(String table) {
-        this.add(INSERT_INTO.key(), table);
+        this.add(INSERT_INTO.key()).add(table);
         return this;
     }
 
@@ -93,55 +115,58 @@ public class MapperSql {
     }
 
     public MapperSql INSERT_COLUMNS(IMapping mapping, List<String> columns) {
-        String joining = columns.stream()
-            .map(String::trim)
-            .map(mapping.db()::wrap)
-            .collect(Collectors.joining(COMMA_SPACE));
-        this.add(brackets(joining));
+        if (buff.length() > 0) {
+            buff.append(' ');
+        }
+        buff.append('(');
+        for (int index = 0; index < columns.size(); index++) {
+            if (index > 0) {
+                buff.append(COMMA_SPACE);
+            }
+            buff.append(mapping.wrap(columns.get(index).trim()));
+        }
+        buff.append(')');
         return this;
     }
 
     public MapperSql DELETE_FROM(IMapping mapping, IFragment table, WrapperData data) {
-        this.add(
-            data.hint(Before_All), DELETE.key(), data.hint(After_CrudKey),
-            FROM.key(),
-            data.hint(Before_Table), table.get(mapping), data.hint(After_Table));
+        this.add(data.hint(Before_All)).add(DELETE.key()).add(data.hint(After_CrudKey))
+            .add(FROM.key())
+            .add(data.hint(Before_Table)).add(table.get(mapping)).add(data.hint(After_Table));
         return this;
     }
 
     public MapperSql UPDATE(IMapping mapping, IFragment table) {
-        this.add(UPDATE.key(), table.get(mapping));
+        this.add(UPDATE.key()).add(table.get(mapping));
         return this;
     }
 
     public MapperSql UPDATE(IMapping mapping, IFragment table, WrapperData data) {
-        this.add(
-            data.hint(Before_All), UPDATE.key(), data.hint(After_CrudKey),
-            data.hint(Before_Table), table.get(mapping), data.hint(After_Table)
-        );
+        this.add(data.hint(Before_All)).add(UPDATE.key()).add(data.hint(After_CrudKey))
+            .add(data.hint(Before_Table)).add(table.get(mapping)).add(data.hint(After_Table));
         return this;
     }
 
     public MapperSql SET(String... sets) {
-        this.add(SET.key(), String.join(COMMA_SPACE, sets));
+        this.add(SET.key()).add(String.join(COMMA_SPACE, sets));
         return this;
     }
 
     public MapperSql SET(IMapping mapping, JoiningFrag sets) {
-        this.add(SET.key(), sets.get(mapping));
+        this.add(SET.key()).add(sets.get(mapping));
         return this;
     }
 
     public MapperSql WHERE(String where) {
         if (notBlank(where)) {
-            this.add(WHERE.key(), where);
+            this.add(WHERE.key()).add(where);
         }
         return this;
     }
 
     public MapperSql WHERE(List<String> where) {
         if (!where.isEmpty()) {
-            this.add(WHERE.key(), String.join(" AND ", where));
+            this.add(WHERE.key()).add(String.join(" AND ", where));
         }
         return this;
     }
@@ -198,12 +223,16 @@ public class MapperSql {
 
     public MapperSql SELECT(IMapping mapping, IFragment table, WrapperData data, IFragment defaultColumns) {
         String select = data.select().get(mapping);
-        this.add(
-            data.hint(Before_All), SELECT.key(), data.hint(After_CrudKey),
-            data.isDistinct() ? DISTINCT.key() : EMPTY,
-            isBlank(select) ? defaultColumns.get(mapping) : select,
-            FROM.key(), data.hint(Before_Table), table.get(mapping), data.hint(After_Table)
-        );
+        if (isBlank(select)) {
+            select = defaultColumns.get(mapping);
+        }
+        if (data.isWindowTotal()) {
+            select = select + COMMA_SPACE + COUNT_ASTERISK + " OVER() AS " + WINDOW_TOTAL;
+        }
+        this.add(data.hint(Before_All)).add(SELECT.key()).add(data.hint(After_CrudKey))
+            .add(data.isDistinct() ? DISTINCT.key() : EMPTY)
+            .add(select)
+            .add(FROM.key()).add(data.hint(Before_Table)).add(table.get(mapping)).add(data.hint(After_Table));
         return this;
     }
 
@@ -80,6 +80,16 @@ public class PrinterMapper implements IWrapperMapper {
         return this.simulate(M_InsertBatchWithPk, entities);
     }
 
+    @Override
+    public int upsert(IEntity entity) {
+        return this.simulate(M_Upsert, entity);
+    }
+
+    @Override
+    public int upsertBatch(Collection entities) {
+        return this.simulate(M_UpsertBatch, entities);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public int insertSelect(String[] fields, IQuery query) {
@@ -2,6 +2,8 @@ package cn.org.atool.fluent.mybatis.metadata;
 
 import cn.org.atool.fluent.common.kits.KeyMap;
 import cn.org.atool.fluent.common.kits.SegmentLocks;
+import cn.org.atool.fluent.mybatis.functions.ISetter;
+import cn.org.atool.fluent.mybatis.utility.LambdaUtil;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -23,6 +25,8 @@ public class SetterMeta {
 
     public final Type fType;
 
+    private volatile ISetter setter;
+
     private SetterMeta(Method method) {
         this.method = method;
         String name = method.getName();
@@ -34,6 +38,18 @@ public class SetterMeta {
         this.method.invoke(target, value);
     }
 
+    /**
+     * 返回直接调用setter方法的 ISetter 实例, 第一次使用时生成
+     *
+     * @return ISetter
+     */
+    public ISetter setter() {
+        if (this.setter == null) {
+            this.setter = LambdaUtil.setter(this.method);
+        }
+        return this.setter;
+    }
+
     private static final KeyMap<KeyMap<SetterMeta>> methodMetas = new KeyMap<>();
 
     /**
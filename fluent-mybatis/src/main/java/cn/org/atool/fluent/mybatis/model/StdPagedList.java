@@ -30,6 +30,11 @@ public class StdPagedList<E> implements IPagedList<E> {
     @Getter(AccessLevel.NONE)
     private boolean hasNextPage;
 
+    /**
+     * 总记录数是否为估算值, 见 IQuery#approximateCount(int)
+     */
+    private boolean approximate;
+
     public StdPagedList() {
     }
 
@@ -53,6 +53,10 @@ public abstract class BaseWrapper<
         return tableAlias == null ? null : tableAlias.get();
     }
 
+    StringSupplier tableAliasSupplier() {
+        return this.tableAlias;
+    }
+
     protected void setTableAlias(StringSupplier tableAlias) {
         this.tableAlias = tableAlias;
     }
@@ -3,6 +3,8 @@ package cn.org.atool.fluent.mybatis.segment;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.*;
 import cn.org.atool.fluent.mybatis.metadata.JoinType;
+import cn.org.atool.fluent.mybatis.functions.StringSupplier;
+import cn.org.atool.fluent.mybatis.segment.model.JoinAlias;
 import cn.org.atool.fluent.mybatis.segment.model.PagedOffset;
 import cn.org.atool.fluent.mybatis.segment.model.Parameters;
 import lombok.experimental.Accessors;
@@ -12,6 +14,7 @@ import java.util.List;
 
 import static cn.org.atool.fluent.mybatis.If.isBlank;
 import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.assertNotNull;
+import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.isTrue;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.UNION;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.UNION_ALL;
 
@@ -74,26 +77,55 @@ public class JoinQuery<QL extends BaseQuery<?, QL>>
         return join(JoinType.RightJoin, query);
     }
 
+    /**
+     * 添加join查询, join树中的表别名不允许重复
+     */
     private <QR extends BaseQuery<?, QR>> JoinOn<QL, QR, JoinToBuilder<QL>> join(
         JoinType joinType, QR query) {
         this.assertQueryAlias(query);
+        String alias = query.getTableAlias();
+        isTrue(!this.alias.contains(alias), "the table alias[%s] is already used by another query in the join, please set a different alias.", alias);
         query.sharedParameter(this.query);
 
         this.queries.add(query);
-        this.alias.add(query.getTableAlias());
+        this.alias.add(alias);
         return new JoinOn<>(this, this.query, joinType, query);
     }
 
     /**
-     * 判断query查询表别名已经设置
+     * 判断query查询表别名已经设置, 未设置时按在join树中的位置分配别名: j_0, j_1, ...
+     * <p>
+     * 前缀"j_"区别于显式设置别名的习惯(t1, t2, ...)和全局序号别名(a_1, a_2, ...), 避免自动分配的别名占用后续显式设置的别名
      *
      * @param query BaseQuery
      */
     private void assertQueryAlias(BaseQuery query) {
         assertNotNull("query", query);
-        if (isBlank(query.getTableAlias())) {
-            query.setTableAlias(Parameters.alias());
+        StringSupplier supplier = ((BaseWrapper) query).tableAliasSupplier();
+        if (supplier instanceof JoinAlias) {
+            ((JoinAlias) supplier).assign(this.nextAlias());
+        } else if (isBlank(query.getTableAlias())) {
+            query.setTableAlias(this.nextAlias());
+        }
+    }
+
+    /**
+     * 自动分配的表别名前缀
+     */
+    private static final String AUTO_ALIAS = "j_";
+
+    /**
+     * 按join树中的位置生成别名, 跳过已显式使用的别名
+     *
+     * @return 表别名
+     */
+    private String nextAlias() {
+        int index = this.alias.size();
+        String alias = AUTO_ALIAS + index;
+        while (this.alias.contains(alias)) {
+            alias = AUTO_ALIAS + (++index);
         }
+        return alias;
     }
 
     @Override
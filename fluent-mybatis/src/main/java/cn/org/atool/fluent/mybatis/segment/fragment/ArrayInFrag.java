@@ -0,0 +1,68 @@
+package cn.org.atool.fluent.mybatis.segment.fragment;
+
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.model.ISqlOp;
+import cn.org.atool.fluent.mybatis.base.model.SqlOp;
+import cn.org.atool.fluent.mybatis.typehandler.TypedArrayHandler;
+
+import static cn.org.atool.fluent.mybatis.base.provider.SqlKitFactory.factory;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+import static cn.org.atool.fluent.mybatis.utility.StrConstant.COMMA_SPACE;
+
+/**
+ * IN/NOT IN 集合作为单个数组变量
+ * <p>
+ * 数据库支持数组参数时(由SqlKit决定), 整个集合绑定为一个JDBC Array;
+ * 否则按数组下标展开为 IN (#{x[0]}, #{x[1]}, ...)
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings("rawtypes")
+public class ArrayInFrag implements IFragment {
+    private final ISqlOp op;
+
+    private final IFragment column;
+    /**
+     * 数组变量名
+     */
+    private final String variable;
+
+    private final Object[] values;
+
+    public ArrayInFrag(ISqlOp op, IFragment column, String variable, Object[] values) {
+        this.op = op;
+        this.column = column;
+        this.variable = variable;
+        this.values = values;
+    }
+
+    @Override
+    public String get(IMapping mapping) {
+        String array = "#{" + Param_EW + Column.Wrapper_Para + variable + ", typeHandler=" + TypedArrayHandler.class.getName() + "}";
+        String sql = factory(mapping).inArray(mapping, op, array);
+        return sql == null ? this.expand() : sql;
+    }
+
+    /**
+     * 按数组下标展开占位符, 开启分桶时重复最后一个下标补齐
+     *
+     * @return IN (#{x[0]}, #{x[1]}, ...)
+     */
+    private String expand() {
+        int size = SqlOp.bucket(values.length);
+        StringBuilder buff = new StringBuilder(op == SqlOp.IN ? "IN (" : "NOT IN (");
+        for (int index = 0; index < size; index++) {
+            if (index > 0) {
+                buff.append(COMMA_SPACE);
+            }
+            int at = Math.min(index, values.length - 1);
+            buff.append(Column.expression(column, variable + "[" + at + "]", values[at]));
+        }
+        return buff.append(")").toString();
+    }
+
+    @Override
+    public String toString() {
+        return op.name() + " " + variable;
+    }
+}
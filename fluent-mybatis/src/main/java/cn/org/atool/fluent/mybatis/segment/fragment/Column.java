@@ -4,6 +4,7 @@ import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
 import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.segment.BaseWrapper;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.Objects;
@@ -27,6 +28,11 @@ public class Column extends CachedFrag {
      * 表别名
      */
     private final String tAlias;
+    /**
+     * 字段所属查询, 表别名可能在join时才分配, 所以不在构造时读取别名
+     */
+    @Getter(AccessLevel.NONE)
+    private final IWrapper wrapper;
     /**
      * 字段名称
      */
@@ -37,17 +43,23 @@ public class Column extends CachedFrag {
     private Column(IWrapper wrapper, String column, FieldMapping mapping) {
         super(m -> wrap(m, wrapper, column));
         this.column = column;
-        this.tAlias = wrapper.getTableAlias();
+        this.tAlias = null;
+        this.wrapper = wrapper;
         this.mapping = mapping == null ? ((BaseWrapper) wrapper).column(column) : mapping;
     }
 
     private Column(String tAlias, String column, FieldMapping mapping) {
         super(m -> wrap(m, tAlias, column));
         this.tAlias = tAlias;
+        this.wrapper = null;
         this.column = column;
         this.mapping = mapping;
     }
 
+    public String getTAlias() {
+        return this.wrapper == null ? this.tAlias : this.wrapper.getTableAlias();
+    }
+
     public boolean isAssignableFrom(Object para) {
         if (para == null ||
             this.mapping == null ||
@@ -131,9 +143,9 @@ public class Column extends CachedFrag {
         if (isBlank(column)) {
             return EMPTY;
         } else if (isBlank(tAlias)) {
-            return mapping.db().wrap(column);
+            return mapping.wrap(column);
         } else {
-            return tAlias + DOT + mapping.db().wrap(column);
+            return tAlias + DOT + mapping.wrap(column);
         }
     }
 
@@ -145,18 +157,12 @@ public class Column extends CachedFrag {
     private static String wrap(IMapping mapping, IWrapper wrapper, String column) {
         if (isBlank(column)) {
             return EMPTY;
+        } else if (!isColumnNameAndNotAlias(wrapper, column)) {
+            return column;
         }
-        String columnAs = column;
-        if (isColumnNameAndNotAlias(wrapper, column)) {
-            columnAs = mapping.db().wrap(column);
-        }
-        if (wrapper == null || isBlank(wrapper.getTableAlias())) {
-            return columnAs;
-        } else if (isColumnNameAndNotAlias(wrapper, column)) {
-            return wrapper.getTableAlias() + DOT + columnAs;
-        } else {
-            return columnAs;
-        }
+        String columnAs = mapping.wrap(column);
+        String tAlias = wrapper.getTableAlias();
+        return isBlank(tAlias) ? columnAs : tAlias + DOT + columnAs;
     }
 
     private static boolean isColumnNameAndNotAlias(IWrapper wrapper, String column) {
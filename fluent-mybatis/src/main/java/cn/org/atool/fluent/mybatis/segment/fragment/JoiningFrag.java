@@ -56,15 +56,19 @@ public class JoiningFrag implements IFragment {
     }
 
     private String merge(IMapping mapping) {
-        List<String> list = new ArrayList<>(segments.size());
+        StringBuilder buff = new StringBuilder(32 * segments.size());
+        boolean first = true;
         for (IFragment seg : segments) {
             String text = seg.get(mapping);
             if (filter == null || filter.test(text)) {
-                list.add(text);
+                if (!first) {
+                    buff.append(delimiter);
+                }
+                buff.append(text);
+                first = false;
             }
         }
-        String text = String.join(delimiter, list);
-        return text.trim();
+        return buff.toString().trim();
     }
 
     public JoiningFrag add(IFragment... segments) {
@@ -1,8 +1,10 @@
 package cn.org.atool.fluent.mybatis.segment.list;
 
 import cn.org.atool.fluent.mybatis.If;
+import cn.org.atool.fluent.mybatis.segment.fragment.BracketFrag;
 import cn.org.atool.fluent.mybatis.segment.fragment.Column;
 import cn.org.atool.fluent.mybatis.segment.fragment.IFragment;
+import cn.org.atool.fluent.mybatis.segment.fragment.JoiningFrag;
 import cn.org.atool.fluent.mybatis.segment.fragment.KeyFrag;
 
 import java.util.ArrayList;
@@ -12,6 +14,7 @@ import static cn.org.atool.fluent.mybatis.If.isBlank;
 import static cn.org.atool.fluent.mybatis.segment.fragment.Column.columnEquals;
 import static cn.org.atool.fluent.mybatis.segment.fragment.Fragments.SEG_EMPTY;
 import static cn.org.atool.fluent.mybatis.segment.fragment.Fragments.SEG_SPACE;
+import static cn.org.atool.fluent.mybatis.segment.fragment.KeyFrag.AND;
 import static cn.org.atool.fluent.mybatis.utility.StrConstant.SPACE;
 
 /**
@@ -62,6 +65,36 @@ public class WhereSegmentList extends BaseSegmentList {
         return super.merge(SEG_EMPTY);
     }
 
+    /**
+     * 已有条件整体加上括号后再 AND 新条件, 避免已有条件中的 OR 改变新条件的作用范围
+     * <p>
+     * 示例: (column1 = ? OR column2 = ?) AND segment
+     *
+     * @param segment 新条件
+     * @return self
+     */
+    public WhereSegmentList andBracket(IFragment segment) {
+        if (!this.segments.isEmpty()) {
+            JoiningFrag existed = JoiningFrag.get(SPACE).setFilter(NOT_ONLY_KEY);
+            existed.getSegments().addAll(this.segments.getSegments());
+            this.segments.getSegments().clear();
+            this.segments.add(BracketFrag.set(existed));
+        }
+        this.cached = null;
+        return this.add(AND, segment);
+    }
+
+    /**
+     * 恢复where条件到 {@link JoiningFrag#toArray()} 时的状态
+     *
+     * @param segments 之前保存的条件片段
+     */
+    public void reset(IFragment[] segments) {
+        this.segments.clear();
+        this.segments.add(segments);
+        this.cached = null;
+    }
+
     /**
      * 清空where条件设置
      */
@@ -0,0 +1,38 @@
+package cn.org.atool.fluent.mybatis.segment.model;
+
+import cn.org.atool.fluent.mybatis.functions.StringSupplier;
+
+/**
+ * 延迟分配的表别名
+ * <p>
+ * 参与join时, 由JoinQuery按查询在join树中的位置分配(j_0, j_1, ...), 相同结构的join查询得到相同的sql;
+ * 未参与join(或在join前已经被使用)时, 从全局序号分配 {@link Parameters#alias()}
+ *
+ * @author darui.wu
+ */
+public class JoinAlias implements StringSupplier {
+    private String alias;
+
+    @Override
+    public synchronized String get() {
+        if (this.alias == null) {
+            this.alias = Parameters.alias();
+        }
+        return this.alias;
+    }
+
+    /**
+     * 别名尚未分配时, 设置别名
+     *
+     * @param alias 表别名
+     * @return true: 设置成功; false: 别名已经分配
+     */
+    public synchronized boolean assign(String alias) {
+        if (this.alias == null) {
+            this.alias = alias;
+            return true;
+        } else {
+            return false;
+        }
+    }
+}
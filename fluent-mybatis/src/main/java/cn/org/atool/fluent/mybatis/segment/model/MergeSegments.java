@@ -55,6 +55,30 @@ public class MergeSegments extends BaseSegmentList {
         return this;
     }
 
+    /**
+     * 已有where条件整体加上括号后再 AND 新条件
+     *
+     * @param segment 新条件
+     * @return self
+     */
+    public MergeSegments andBracket(IFragment segment) {
+        this.where.andBracket(segment);
+        super.cached = null;
+        return this;
+    }
+
+    /**
+     * 恢复where条件
+     *
+     * @param segments 之前保存的where条件片段
+     * @return self
+     */
+    public MergeSegments resetWhere(IFragment[] segments) {
+        this.where.reset(segments);
+        super.cached = null;
+        return this;
+    }
+
     /**
      * <pre>
      * 拼接sql语句 (where)
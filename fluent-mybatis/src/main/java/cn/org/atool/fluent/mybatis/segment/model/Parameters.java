@@ -98,9 +98,94 @@ public class Parameters extends HashMap<String, Object> {
      * @return 占位符
      */
     public String putParameter(IFragment column, Object para) {
+        String paramName = this.putVariable(para);
+        return Column.expression(column, paramName, para);
+    }
+
+    /**
+     * 构造参数变量名, 并设置变量值
+     *
+     * @param para 变量
+     * @return 变量名
+     */
+    public String putVariable(Object para) {
         String paramName = WRAPPER_PARAM + this.instanceNo + "_" + this.sequence.incrementAndGet();
         this.put(paramName, para);
-        return Column.expression(column, paramName, para);
+        return paramName;
+    }
+
+    /**
+     * 将sql中全局唯一的变量名(variable_实例号_序号)按在sql中首次出现的顺序改写为位置变量名(p_1, p_2, ...)
+     * <p>
+     * 变量名中带有全局实例号, 相同结构的查询每次生成的sql文本都不一样;
+     * 改写后相同结构的查询得到相同的sql文本, 便于按sql文本缓存和复用语句
+     *
+     * @param sql 包含 #{ew.data.parameters.variable_x_y} 占位符的sql
+     * @return 改写后的sql
+     */
+    public String positional(String sql) {
+        return this.positional(sql, null);
+    }
+
+    /**
+     * 同 {@link #positional(String)}, values不为null时按位置收集变量值, 不在变量表中登记位置变量
+     *
+     * @param sql    包含 #{ew.data.parameters.variable_x_y} 占位符的sql
+     * @param values 按位置收集的变量值, 和改写后的 p_1, p_2 ... 一一对应
+     * @return 改写后的sql
+     */
+    public String positional(String sql, List<Object> values) {
+        if (sql == null || !sql.contains(PARAM_PATH)) {
+            return sql;
+        }
+        Map<String, String> names = new HashMap<>(8);
+        StringBuilder buff = new StringBuilder(sql.length());
+        int from = 0;
+        int index = sql.indexOf(PARAM_PATH);
+        while (index >= 0) {
+            int start = index + PARAM_PATH.length();
+            int end = endOfVariable(sql, start);
+            String name = sql.substring(start, end);
+            String positional = names.get(name);
+            if (positional == null && this.containsKey(name)) {
+                positional = positionalName(names.size() + 1);
+                names.put(name, positional);
+                if (values != null) {
+                    values.add(this.get(name));
+                } else {
+                    /* 只在当前变量表中登记, 不传播到共享变量表 */
+                    super.put(positional, this.get(name));
+                }
+            }
+            buff.append(sql, from, start).append(positional == null ? name : positional);
+            from = end;
+            index = sql.indexOf(PARAM_PATH, end);
+        }
+        return buff.append(sql, from, sql.length()).toString();
+    }
+
+    /**
+     * 位置变量名
+     *
+     * @param index 变量在sql中出现的顺序, 从1开始
+     * @return p_index
+     */
+    public static String positionalName(int index) {
+        return POSITIONAL_PARAM + index;
+    }
+
+    /**
+     * 变量名结束位置, 变量名由 variable_实例号_序号 构成
+     */
+    private static int endOfVariable(String sql, int start) {
+        int end = start;
+        if (sql.startsWith(WRAPPER_PARAM, start)) {
+            end = start + WRAPPER_PARAM.length();
+            while (end < sql.length() && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '_')) {
+                end++;
+            }
+        }
+        return end;
     }
 
     private static final char char_question = '?';
@@ -109,6 +194,14 @@ public class Parameters extends HashMap<String, Object> {
      * 变量名称格式, 前缀+序号
      */
     private static final String WRAPPER_PARAM = "variable_";
+    /**
+     * 位置变量名称格式, 前缀+变量在sql中出现的顺序
+     */
+    private static final String POSITIONAL_PARAM = "p_";
+    /**
+     * sql中引用变量的路径
+     */
+    private static final String PARAM_PATH = ".data.parameters.";
 
     /**
      * 共享变量
@@ -100,6 +100,39 @@ public class WrapperData implements IWrapperData, IDataByColumn {
         return this.paged;
     }
 
+    @Getter(AccessLevel.NONE)
+    private String[] pagedVariables;
+
+    /**
+     * 查询字段后追加 COUNT(*) OVER() 总记录数字段, 只在标准分页查询执行期间设置
+     */
+    @Setter
+    protected boolean windowTotal = false;
+
+    /**
+     * 标准分页查询时估算总记录数: 没有查询条件时读取表统计信息, 否则最多数到 approximateCount 条; 0表示精确count
+     */
+    @Setter
+    protected int approximateCount = 0;
+
+    /**
+     * count语句按估算方式渲染, 只在标准分页查询count期间设置
+     */
+    @Setter
+    protected boolean estimating = false;
+
+    /**
+     * 结果集直接映射成的PoJo类型, 只在 listPoJos(Class, IQuery) 执行期间设置
+     */
+    @Setter
+    protected Class poJoClass;
+
+    /**
+     * 查询语句的 Statement.fetchSize, 0表示使用驱动默认值
+     */
+    @Setter
+    protected int fetchSize = 0;
+
     /**
      * 按条件更新时, 跳过检查乐观锁条件字段
      * 默认必须有乐观锁
@@ -190,11 +223,8 @@ public class WrapperData implements IWrapperData, IDataByColumn {
             return CachedFrag.set(sql);
         }
         return m -> {
-            Parameters p = this.getParameters();
-            String offset = p.putParameter(null, paged.getOffset());
-            String size = p.putParameter(null, paged.getLimit());
-            String endOffset = p.putParameter(null, paged.getEndOffset());
-            return m.db().paged(sql, offset, size, endOffset);
+            String[] vars = this.pagedVariables(paged);
+            return m.db().paged(sql, vars[0], vars[1], vars[2]);
         };
     }
 
@@ -213,13 +243,39 @@ public class WrapperData implements IWrapperData, IDataByColumn {
             return withoutPaged;
         } else {
             return m -> {
-                Parameters p = this.getParameters();
-                String offset = p.putParameter(null, paged.getOffset());
-                String size = p.putParameter(null, paged.getLimit());
-                String endOffset = p.putParameter(null, paged.getEndOffset());
-                return m.db().paged(withoutPaged.get(m), offset, size, endOffset);
+                String[] vars = this.pagedVariables(paged);
+                return m.db().paged(withoutPaged.get(m), vars[0], vars[1], vars[2]);
+            };
+        }
+    }
+
+    /**
+     * 预先写入分页参数变量(含union子查询), 之后生成分页sql只读取参数, 不再修改参数表
+     */
+    public void preparePaged() {
+        if (this.paged != null) {
+            this.pagedVariables(this.paged);
+        }
+        for (Union union : this.unions) {
+            union.query.data().preparePaged();
+        }
+    }
+
+    /**
+     * 分页参数变量 [offset, size, endOffset], 分页值不变时重复生成sql复用同一组变量, 不再写入参数
+     */
+    private synchronized String[] pagedVariables(PagedOffset paged) {
+        String key = paged.getOffset() + COMMA + paged.getLimit();
+        if (this.pagedVariables == null || !key.equals(this.pagedVariables[3])) {
+            Parameters p = this.getParameters();
+            this.pagedVariables = new String[]{
+                p.putParameter(null, paged.getOffset()),
+                p.putParameter(null, paged.getLimit()),
+                p.putParameter(null, paged.getEndOffset()),
+                key
             };
         }
+        return this.pagedVariables;
     }
 
     private IFragment withoutPaged() {
@@ -395,9 +451,14 @@ public class WrapperData implements IWrapperData, IDataByColumn {
         }
     }
 
+    /**
+     * 返回指定位置的hint, 未设置时返回null
+     *
+     * @param type hint位置
+     * @return hint
+     */
     public String hint(HintType type) {
-        String hint = this.hints.get(type);
-        return isBlank(hint) ? SPACE : SPACE + hint + SPACE;
+        return this.hints.get(type);
     }
 
     public void sharedParameter(WrapperData data) {
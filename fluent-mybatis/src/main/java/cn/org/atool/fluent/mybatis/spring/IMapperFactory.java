@@ -48,6 +48,7 @@ public interface IMapperFactory {
      * o Entity关联关系实现设置
      * o MapperRef中所有Mapper实例设置
      * o insert, insertBatch, listEntity中主键映射和ResultMap设置
+     * o SqlProvider方法的SqlSource替换
      * o Banner打印
      * </pre>
      */
@@ -78,7 +79,11 @@ public interface IMapperFactory {
             new ConfigurationKit(factory.getConfiguration(), RefKit.MAPPINGS)
                 .insert()
                 .batchInsert()
-                .listEntity();
+                .listEntity()
+                .listPoJo()
+                .fetchSize()
+                .countCache()
+                .sqlSource();
         }
     }
 }
\ No newline at end of file
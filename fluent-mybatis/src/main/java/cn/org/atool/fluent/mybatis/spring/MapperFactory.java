@@ -3,6 +3,7 @@ package cn.org.atool.fluent.mybatis.spring;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.intf.IRelation;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
 import cn.org.atool.fluent.mybatis.functions.IExecutor;
 import cn.org.atool.fluent.mybatis.functions.TableDynamic;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
@@ -81,6 +82,17 @@ public class MapperFactory implements IMapperFactory {
         return this.initializer(() -> RefKit.dbType(dbType, eClasses));
     }
 
+    /**
+     * 修改实体类批量插入(save(Collection))的执行方式
+     *
+     * @param insertMode 批量插入执行方式, null: 未指定, 由数据库方言按批量大小选择
+     * @param eClasses   if empty 修改所有实体的批量插入方式
+     * @return ignore
+     */
+    public MapperFactory insertMode(InsertMode insertMode, Class<? extends IEntity>... eClasses) {
+        return this.initializer(() -> RefKit.insertMode(insertMode, eClasses));
+    }
+
     /**
      * 更改实体对应的数据库表名称
      *
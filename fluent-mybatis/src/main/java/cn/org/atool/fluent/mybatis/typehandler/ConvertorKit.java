@@ -143,6 +143,16 @@ public class ConvertorKit {
         return CONVERTORS.get(type.getTypeName());
     }
 
+    /**
+     * 是否注册了type类型的转换器
+     *
+     * @param type 转换成类型
+     * @return true: 有预置的转换器
+     */
+    public static boolean hasConvertor(Type type) {
+        return findConvertor(type) != null;
+    }
+
     public static void register(Type type, IConvertor convertor) {
         CONVERTORS.put(type.getTypeName(), convertor);
     }
@@ -0,0 +1,61 @@
+package cn.org.atool.fluent.mybatis.typehandler;
+
+import org.apache.ibatis.type.ArrayTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.lang.reflect.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * 将Object[]或Collection参数按元素的实际类型绑定为JDBC Array
+ * <p>
+ * mybatis的ArrayTypeHandler按数组声明的元素类型确定数据库数组类型, Object[]会被当作JAVA_OBJECT;
+ * 这里先按元素实际类型(如Long, String)转换为对应类型的数组, 枚举按name()转换为字符串
+ *
+ * @author darui.wu
+ */
+public class TypedArrayHandler extends ArrayTypeHandler {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
+        if (parameter instanceof Collection) {
+            parameter = ((Collection<?>) parameter).toArray();
+        }
+        if (parameter instanceof Object[] && parameter.getClass().getComponentType() == Object.class) {
+            parameter = typed((Object[]) parameter);
+        }
+        super.setNonNullParameter(ps, i, parameter, jdbcType);
+    }
+
+    /**
+     * 元素类型一致时, 转换为该类型的数组
+     *
+     * @param values Object[]
+     * @return 具体类型数组
+     */
+    static Object[] typed(Object[] values) {
+        Class<?> type = null;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            Class<?> klass = value instanceof Enum ? String.class : value.getClass();
+            if (type == null) {
+                type = klass;
+            } else if (type != klass) {
+                return values;
+            }
+        }
+        if (type == null) {
+            return values;
+        }
+        Object[] typed = (Object[]) Array.newInstance(type, values.length);
+        for (int index = 0; index < values.length; index++) {
+            Object value = values[index];
+            typed[index] = value instanceof Enum ? ((Enum<?>) value).name() : value;
+        }
+        return typed;
+    }
+}
@@ -0,0 +1,59 @@
+package cn.org.atool.fluent.mybatis.typehandler;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 读取 COUNT(*) OVER() 总记录数字段
+ * <p>
+ * 作为实体ResultMap中没有属性的映射项使用: 结果集中有该字段时记录到当前线程, 返回null, 不设置实体属性;
+ * 结果集中没有该字段时mybatis不会调用
+ *
+ * @author darui.wu
+ */
+public class WindowTotalHandler implements TypeHandler<Object> {
+    public static final WindowTotalHandler INSTANCE = new WindowTotalHandler();
+
+    private static final ThreadLocal<Integer> TOTAL = new ThreadLocal<>();
+
+    private WindowTotalHandler() {
+    }
+
+    /**
+     * 返回并清除当前线程最近一次读取的总记录数
+     *
+     * @return 没有读取时返回null
+     */
+    public static Integer total() {
+        Integer total = TOTAL.get();
+        TOTAL.remove();
+        return total;
+    }
+
+    @Override
+    public Object getResult(ResultSet rs, String columnName) throws SQLException {
+        TOTAL.set(rs.getInt(columnName));
+        return null;
+    }
+
+    @Override
+    public Object getResult(ResultSet rs, int columnIndex) throws SQLException {
+        TOTAL.set(rs.getInt(columnIndex));
+        return null;
+    }
+
+    @Override
+    public Object getResult(CallableStatement cs, int columnIndex) {
+        return null;
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) {
+        throw new UnsupportedOperationException("WindowTotalHandler is only used to read the result.");
+    }
+}
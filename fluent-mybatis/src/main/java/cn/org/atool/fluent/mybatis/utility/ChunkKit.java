@@ -0,0 +1,296 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import org.apache.ibatis.binding.MapperProxy;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 超长IN列表分段执行工具
+ * <p>
+ * listByIds, deleteByIds, 关联加载等场景会把整个集合放进一个IN条件,
+ * 集合过大时会超出数据库限制(如Oracle IN列表1000个元素, MySQL/PG 65535个绑定参数), 语句本身也会过大;
+ * 这里按固定大小切分集合, 分段执行后按分段顺序合并结果
+ * <p>
+ * 批量插入的多值insert语句同理, 按最大行数和估算字节数(如MySQL max_allowed_packet)切分成多条语句
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ChunkKit {
+    /**
+     * 每段IN列表的最大长度
+     */
+    private static int CHUNK_SIZE = 1000;
+    /**
+     * 并行查询的执行器, null表示串行执行
+     */
+    private static Executor PARALLEL = null;
+    /**
+     * 多值insert语句的最大行数
+     */
+    private static int INSERT_ROWS = 2000;
+    /**
+     * 多值insert语句的最大估算字节数, 默认为MySQL max_allowed_packet默认值4M
+     */
+    private static long INSERT_BYTES = 4L * 1024 * 1024;
+
+    private static final Class SESSION_TEMPLATE = sessionTemplate();
+
+    /**
+     * 设置每段IN列表的最大长度
+     *
+     * @param chunkSize 每段最大长度
+     */
+    public static void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("the chunk size must be greater than 0.");
+        }
+        CHUNK_SIZE = chunkSize;
+    }
+
+    public static int getChunkSize() {
+        return CHUNK_SIZE;
+    }
+
+    /**
+     * 设置分段查询的并行执行器, 每段使用各自的连接执行
+     * <p>
+     * 并行执行的分段不在调用方的事务中, 只用于查询; 删除等写操作始终串行执行;
+     * 只在mapper由spring管理(SqlSessionTemplate)且当前没有spring事务时并行, 否则退回串行
+     *
+     * @param executor 执行器, null表示串行执行(默认)
+     */
+    public static void setParallel(Executor executor) {
+        PARALLEL = executor;
+    }
+
+    /**
+     * 设置多值insert语句的切分上限, 超过任一上限时切分成多条insert语句
+     *
+     * @param maxRows  每条语句最大行数
+     * @param maxBytes 每条语句最大估算字节数(sql文本和参数值)
+     */
+    public static void setInsertLimit(int maxRows, long maxBytes) {
+        if (maxRows < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("the insert limit must be greater than 0.");
+        }
+        INSERT_ROWS = maxRows;
+        INSERT_BYTES = maxBytes;
+    }
+
+    /**
+     * 按最大行数和估算字节数切分批量插入的实例列表
+     *
+     * @param mapping  IMapping
+     * @param entities 实例列表
+     * @param <E>      实例类型
+     * @return 分段列表
+     */
+    public static <E extends IEntity> List<Collection<E>> insertChunks(IMapping mapping, Collection<E> entities) {
+        List<E> list = entities instanceof List ? (List<E>) entities : new ArrayList<>(entities);
+        List<FieldMapping> fields = mapping.allFields();
+        int maxRows = INSERT_ROWS;
+        long maxBytes = INSERT_BYTES;
+        List<Collection<E>> chunks = new ArrayList<>();
+        int from = 0;
+        long bytes = 0;
+        for (int index = 0; index < list.size(); index++) {
+            long row = rowBytes(fields, list.get(index));
+            if (index > from && (index - from == maxRows || bytes + row > maxBytes)) {
+                chunks.add(list.subList(from, index));
+                from = index;
+                bytes = 0;
+            }
+            bytes += row;
+        }
+        chunks.add(list.subList(from, list.size()));
+        return chunks;
+    }
+
+    /**
+     * 估算单行插入的字节数: 每个字段的占位符和分隔符按24字节计, 加上参数值长度
+     */
+    private static long rowBytes(List<FieldMapping> fields, IEntity entity) {
+        long bytes = 0;
+        for (FieldMapping f : fields) {
+            Object value = f.getter.get(entity);
+            bytes += 24;
+            if (value instanceof CharSequence) {
+                /* 按UTF-8最大3字节估算, 加上转义余量 */
+                bytes += ((CharSequence) value).length() * 3L;
+            } else if (value instanceof byte[]) {
+                /* 二进制按十六进制文本估算 */
+                bytes += ((byte[]) value).length * 2L;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 按主键批量更新(CASE WHEN)时按绑定参数上限切分实例列表
+     * <p>
+     * 每个实例占用 2*非空字段数+1 个绑定参数(WHEN主键, THEN字段值, IN列表主键),
+     * 每段记录数不超过 maxParameters / (2*非空字段数+1), 也不超过CHUNK_SIZE
+     *
+     * @param mapping       IMapping
+     * @param maxParameters 单条语句允许的绑定参数上限
+     * @param entities      实例列表
+     * @param <E>           实例类型
+     * @return 分段列表
+     */
+    public static <E extends IEntity> List<Collection<E>> updateChunks(IMapping mapping, int maxParameters, Collection<E> entities) {
+        List<FieldMapping> fields = mapping.allFields();
+        int columns = 1;
+        for (E entity : entities) {
+            int nonNulls = 0;
+            for (FieldMapping f : fields) {
+                if (!f.isPrimary() && f.getter.get(entity) != null) {
+                    nonNulls++;
+                }
+            }
+            columns = Math.max(columns, nonNulls);
+        }
+        int size = Math.max(1, Math.min(CHUNK_SIZE, maxParameters / (2 * columns + 1)));
+        return chunks(entities, size);
+    }
+
+    /**
+     * 分段查询(串行), 按分段顺序合并结果
+     *
+     * @param values IN列表
+     * @param loader 单段查询
+     * @param <V>    IN列表元素类型
+     * @param <R>    查询结果类型
+     * @return 合并后的结果
+     */
+    public static <V, R> List<R> list(Collection<V> values, Function<Collection<V>, List<R>> loader) {
+        return list(null, values, loader);
+    }
+
+    /**
+     * 分段查询, 按分段顺序合并结果
+     * <p>
+     * 设置了并行执行器时, 只在mapper由spring管理(每次调用各自获取会话)且不在spring事务中时并行查询;
+     * 非spring环境的mapper共享同一个非线程安全的SqlSession, 事务中的查询要使用事务连接, 都退回串行执行
+     *
+     * @param mapper 执行单段查询的mapper
+     * @param values IN列表
+     * @param loader 单段查询
+     * @param <V>    IN列表元素类型
+     * @param <R>    查询结果类型
+     * @return 合并后的结果
+     */
+    public static <V, R> List<R> list(Object mapper, Collection<V> values, Function<Collection<V>, List<R>> loader) {
+        if (values.size() <= CHUNK_SIZE) {
+            return loader.apply(values);
+        }
+        List<Collection<V>> chunks = chunks(values);
+        Executor executor = springManaged(mapper) ? PagedKit.concurrent(PARALLEL) : null;
+        List<R> list = new ArrayList<>(values.size());
+        if (executor == null) {
+            for (Collection<V> chunk : chunks) {
+                list.addAll(loader.apply(chunk));
+            }
+            return list;
+        }
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(chunks.size());
+        for (Collection<V> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> loader.apply(chunk), executor));
+        }
+        for (CompletableFuture<List<R>> future : futures) {
+            list.addAll(join(future));
+        }
+        return list;
+    }
+
+    /**
+     * mapper是否由spring管理: mapper代理的SqlSession为线程安全的SqlSessionTemplate
+     */
+    static boolean springManaged(Object mapper) {
+        if (SESSION_TEMPLATE == null || mapper == null || !Proxy.isProxyClass(mapper.getClass())) {
+            return false;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(mapper);
+        if (!(handler instanceof MapperProxy)) {
+            return false;
+        }
+        Object session = SystemMetaObject.forObject(handler).getValue("sqlSession");
+        return SESSION_TEMPLATE.isInstance(session);
+    }
+
+    /**
+     * mybatis-spring SqlSessionTemplate, 没有mybatis-spring时为null
+     */
+    private static Class sessionTemplate() {
+        try {
+            return Class.forName("org.mybatis.spring.SqlSessionTemplate");
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 分段执行(串行), 累加每段的返回值
+     *
+     * @param values   IN列表
+     * @param executor 单段执行
+     * @param <V>      IN列表元素类型
+     * @return 累加值
+     */
+    public static <V> int sum(Collection<V> values, ToIntFunction<Collection<V>> executor) {
+        if (values.size() <= CHUNK_SIZE) {
+            return executor.applyAsInt(values);
+        }
+        int sum = 0;
+        for (Collection<V> chunk : chunks(values)) {
+            sum += executor.applyAsInt(chunk);
+        }
+        return sum;
+    }
+
+    /**
+     * 按CHUNK_SIZE切分集合
+     *
+     * @param values 集合
+     * @param <V>    元素类型
+     * @return 分段列表
+     */
+    public static <V> List<Collection<V>> chunks(Collection<V> values) {
+        return chunks(values, CHUNK_SIZE);
+    }
+
+    private static <V> List<Collection<V>> chunks(Collection<V> values, int size) {
+        List<V> list = values instanceof List ? (List<V>) values : new ArrayList<>(values);
+        List<Collection<V>> chunks = new ArrayList<>((list.size() + size - 1) / size);
+        for (int from = 0; from < list.size(); from += size) {
+            chunks.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return chunks;
+    }
+
+    private static <R> List<R> join(CompletableFuture<List<R>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new FluentMybatisException(cause.getMessage(), cause);
+        }
+    }
+}
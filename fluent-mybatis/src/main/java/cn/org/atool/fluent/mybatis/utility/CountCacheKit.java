@@ -0,0 +1,264 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.provider.CountCacheInterceptor;
+import cn.org.atool.fluent.mybatis.base.provider.SqlKit;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cn.org.atool.fluent.mybatis.utility.StrConstant.DOLLAR_LEFT_CURLY;
+
+/**
+ * 标准分页查询的count结果缓存
+ * <p>
+ * 翻页时查询条件不变, 每页都要重新执行相同的count语句; 开启后按 count sql + 变量值 缓存总记录数,
+ * 超过有效期或count语句涉及的任一张表(含join表, 子查询)执行了 insert/update/delete 语句后失效, 默认关闭
+ * <p>
+ * 表的数据版本号在写语句执行完成后递增, 有事务时在事务结束后再递增一次,
+ * 避免事务提交前其它线程按旧数据count的结果被缓存, 见 {@link CountCacheInterceptor}
+ * <p>
+ * 只在本JVM内失效, 其它应用实例或直接执行sql修改的数据, 在有效期内可能读到旧的总记录数
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes"})
+public class CountCacheKit {
+    /**
+     * 缓存有效期(纳秒), 0表示不缓存
+     */
+    private static long TTL = 0;
+
+    private static int MAX_SIZE = 1024;
+    /**
+     * 按访问顺序淘汰超过上限的缓存项
+     */
+    private static final Map<Key, Total> CACHED = new LinkedHashMap<Key, Total>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Total> eldest) {
+            return this.size() > MAX_SIZE;
+        }
+    };
+    /**
+     * 表的数据版本号, 执行写语句时递增, count语句涉及的表的版本号是缓存key的一部分
+     * <p>
+     * key: 小写的表名(不含schema和引号)
+     */
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+    /**
+     * 全局版本号, 写语句涉及的表无法确定时递增, 使所有缓存失效
+     */
+    private static final AtomicLong EPOCH = new AtomicLong();
+
+    private CountCacheKit() {
+    }
+
+    /**
+     * 开启count结果缓存
+     * <p>
+     * 开启时才把使缓存失效的 {@link CountCacheInterceptor} 安装到Configuration上,
+     * 插件只对之后打开的会话生效, 应在应用启动时开启
+     *
+     * @param ttl     有效期, 小于等于0时关闭缓存
+     * @param unit    有效期单位
+     * @param maxSize 最多缓存的count结果数量
+     */
+    public static void setCountCache(long ttl, TimeUnit unit, int maxSize) {
+        synchronized (CACHED) {
+            TTL = ttl <= 0 || maxSize <= 0 ? 0 : unit.toNanos(ttl);
+            MAX_SIZE = maxSize;
+            CACHED.clear();
+        }
+        if (TTL > 0) {
+            CountCacheInterceptor.installAll();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return TTL > 0;
+    }
+
+    /**
+     * 使Mapper对应表上缓存的count结果失效
+     *
+     * @param mapping IMapping
+     */
+    public static void invalidate(IMapping mapping) {
+        invalidate(mapping.getTableName());
+    }
+
+    /**
+     * 使表上缓存的count结果失效, 在写语句执行完成(或事务结束)后调用
+     *
+     * @param table 表名, 为空时使所有缓存的count结果失效
+     */
+    public static void invalidate(String table) {
+        if (TTL <= 0) {
+            return;
+        }
+        String name = tableName(table);
+        if (name.isEmpty()) {
+            clear();
+        } else {
+            VERSIONS.computeIfAbsent(name, c -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * 使所有缓存的count结果失效, 在写语句涉及的表无法确定(如 batchCrud)时调用
+     */
+    public static void clear() {
+        EPOCH.incrementAndGet();
+        synchronized (CACHED) {
+            CACHED.clear();
+        }
+    }
+
+    /**
+     * 去掉schema和引号, 转为小写: `db`.`student` → student
+     */
+    static String tableName(String table) {
+        if (table == null) {
+            return "";
+        }
+        String name = table.substring(table.lastIndexOf('.') + 1);
+        return name.replaceAll("[`\"\\[\\]]", "").trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * 构造count缓存key, 版本号在执行count前取得, count期间有写语句时结果不会再被命中
+     * <p>
+     * 只有执行过写语句的表才有版本号, 按表名是否出现在count语句中判断涉及的表(join, 子查询, union),
+     * 表名相互包含时多失效一些缓存, 不会读到旧的结果
+     *
+     * @return 没有开启缓存, 或sql中有${}文本替换时返回null
+     */
+    static Key key(SqlKit kit, IMapping mapping, WrapperData data) {
+        if (TTL <= 0) {
+            return null;
+        }
+        long epoch = EPOCH.get();
+        String sql = kit.countNoLimit(mapping, data);
+        if (sql == null || sql.contains(DOLLAR_LEFT_CURLY)) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>();
+        sql = data.getParameters().positional(sql, values);
+        String lower = sql.toLowerCase(Locale.ENGLISH);
+        Map<String, Long> versions = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : VERSIONS.entrySet()) {
+            if (lower.contains(entry.getKey())) {
+                versions.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return new Key(mapping.mapperClass(), epoch, versions, data.getApproximateCount(), sql, values.toArray());
+    }
+
+    /**
+     * 读取缓存的总记录数
+     *
+     * @param key 缓存key, 为null时不读取
+     * @return 只设置了总记录数的分页结果, 没有缓存或已过期时返回null
+     */
+    static <T> StdPagedList<T> get(Key key) {
+        if (key == null) {
+            return null;
+        }
+        Total total;
+        synchronized (CACHED) {
+            total = CACHED.get(key);
+            if (total != null && System.nanoTime() - total.expired > 0) {
+                CACHED.remove(key);
+                total = null;
+            }
+        }
+        return total == null ? null : new StdPagedList<T>().setTotal(total.count).setApproximate(total.approximate);
+    }
+
+    /**
+     * 缓存总记录数
+     *
+     * @param key   缓存key, 为null时不缓存
+     * @param paged 设置了总记录数的分页结果
+     */
+    static void put(Key key, StdPagedList paged) {
+        long ttl = TTL;
+        if (key == null || ttl <= 0) {
+            return;
+        }
+        Total total = new Total(paged.getTotal(), paged.isApproximate(), System.nanoTime() + ttl);
+        synchronized (CACHED) {
+            CACHED.put(key, total);
+        }
+    }
+
+    static class Key {
+        private final Class mapperClass;
+
+        private final long epoch;
+        /**
+         * count语句涉及的表的版本号
+         */
+        private final Map<String, Long> versions;
+
+        private final int approximateCount;
+
+        private final String sql;
+
+        private final Object[] values;
+
+        Key(Class mapperClass, long epoch, Map<String, Long> versions, int approximateCount, String sql, Object[] values) {
+            this.mapperClass = mapperClass;
+            this.epoch = epoch;
+            this.versions = versions;
+            this.approximateCount = approximateCount;
+            this.sql = sql;
+            this.values = values;
+        }
+
+        /**
+         * 变量值可能是数组(如 in (?, ?) 的参数), 按元素比较
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return this.epoch == key.epoch
+                && this.approximateCount == key.approximateCount
+                && Objects.equals(this.mapperClass, key.mapperClass)
+                && this.versions.equals(key.versions)
+                && this.sql.equals(key.sql)
+                && Arrays.deepEquals(this.values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.mapperClass, this.epoch, this.versions, this.approximateCount, this.sql)
+                * 31 + Arrays.deepHashCode(this.values);
+        }
+    }
+
+    private static class Total {
+        final int count;
+
+        final boolean approximate;
+        /**
+         * 过期时间(System.nanoTime())
+         */
+        final long expired;
+
+        Total(int count, boolean approximate, long expired) {
+            this.count = count;
+            this.approximate = approximate;
+            this.expired = expired;
+        }
+    }
+}
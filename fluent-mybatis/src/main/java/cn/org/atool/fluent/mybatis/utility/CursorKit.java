@@ -0,0 +1,190 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.base.provider.FetchSizeInterceptor;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.assertTrue;
+
+/**
+ * 游标查询工具
+ * <p>
+ * 游标(mybatis Cursor)逐条读取记录, 不需要把全部结果加载到内存, 适合大数据量导出;
+ * 游标需要在读取期间一直占用连接, 所以从mapper所属的SqlSessionFactory打开独立会话,
+ * 在游标/Stream关闭或读取完毕时关闭会话
+ * <p>
+ * spring环境下会话通过 SpringManagedTransaction 获取连接: 有事务时使用当前事务的连接, 读取须在事务结束前完成;
+ * 没有事务时使用一个新连接, 关闭会话时归还连接池
+ * <p>
+ * MySQL流式读取(fetchSize = Integer.MIN_VALUE)时, 游标关闭前连接上不能执行其它语句;
+ * spring事务中游标和事务内的其它语句共用连接, 须先读取完毕或关闭游标, 再执行其它语句,
+ * 否则驱动报错: Streaming result set ... is still active
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class CursorKit {
+    /**
+     * 游标查询默认的 Statement.fetchSize, 0表示使用驱动默认值
+     */
+    private static int FETCH_SIZE = 0;
+
+    /**
+     * 设置游标查询默认的 Statement.fetchSize, 查询条件上设置的 {@link IQuery#fetchSize(int)} 优先
+     *
+     * @param fetchSize 0: 驱动默认值; 大于0; 或者 Integer.MIN_VALUE(MySQL逐行流式读取)
+     */
+    public static void setFetchSize(int fetchSize) {
+        assertTrue("The fetchSize must be zero, greater than zero or Integer.MIN_VALUE.", fetchSize >= 0 || fetchSize == Integer.MIN_VALUE);
+        FETCH_SIZE = fetchSize;
+    }
+
+    public static int getFetchSize() {
+        return FETCH_SIZE;
+    }
+
+    /**
+     * 以游标方式执行mapper查询语句
+     *
+     * @param mapper    调用的mapper, 游标会话从它所用会话的SqlSessionFactory打开
+     * @param method    mapper查询方法名称
+     * @param query     查询条件
+     * @param converter 记录转换
+     * @return 游标, 使用完毕须关闭
+     */
+    public static <T> Cursor<T> cursor(IEntityMapper mapper, String method, IQuery query, Function<Object, T> converter) {
+        Class mapperClass = mapper.mapping().mapperClass();
+        SqlSessionFactory factory = JdbcBatchKit.factory(mapper);
+        FetchSizeInterceptor.of(factory.getConfiguration());
+        WrapperData data = query.data();
+        boolean fetchDefault = data.getFetchSize() == 0 && FETCH_SIZE != 0;
+        SqlSession session = factory.openSession();
+        try {
+            if (fetchDefault) {
+                data.setFetchSize(FETCH_SIZE);
+            }
+            Map<String, Object> parameter = new MapperMethod.ParamMap<>();
+            parameter.put(Param_EW, query);
+            parameter.put("param1", query);
+            Cursor cursor = session.selectCursor(mapperClass.getName() + "." + method, parameter);
+            return new SessionCursor<>(session, cursor, converter);
+        } catch (RuntimeException | Error e) {
+            session.close();
+            throw e;
+        } finally {
+            if (fetchDefault) {
+                data.setFetchSize(0);
+            }
+        }
+    }
+
+    /**
+     * 将游标转换为Stream, 关闭Stream时关闭游标
+     *
+     * @param cursor 游标
+     * @return Stream, 使用完毕须关闭(try-with-resources)
+     */
+    public static <T> Stream<T> stream(Cursor<T> cursor) {
+        try {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor.iterator(), Spliterator.ORDERED), false)
+                .onClose(() -> close(cursor));
+        } catch (RuntimeException | Error e) {
+            close(cursor);
+            throw e;
+        }
+    }
+
+    private static void close(Cursor cursor) {
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            throw new FluentMybatisException("close cursor error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 关闭游标时同时关闭会话(归还连接), 记录读取完毕时自动关闭
+     */
+    private static class SessionCursor<T> implements Cursor<T> {
+        private final SqlSession session;
+
+        private final Cursor cursor;
+
+        private final Function<Object, T> converter;
+
+        private boolean closed = false;
+
+        SessionCursor(SqlSession session, Cursor cursor, Function<Object, T> converter) {
+            this.session = session;
+            this.cursor = cursor;
+            this.converter = converter;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !this.closed && this.cursor.isOpen();
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return this.cursor.isConsumed();
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return this.cursor.getCurrentIndex();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator iterator = this.cursor.iterator();
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    if (closed) {
+                        return false;
+                    }
+                    boolean hasNext = iterator.hasNext();
+                    if (!hasNext) {
+                        SessionCursor.this.close();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public T next() {
+                    return converter.apply(iterator.next());
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                CursorKit.close(this.cursor);
+            } finally {
+                this.session.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.base.provider.RenderedSql;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import org.apache.ibatis.binding.MapperProxy;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * JDBC批处理(ExecutorType.BATCH)执行工具
+ * <p>
+ * 多值insert语句在数据量大时会超出数据库报文大小限制, 且每次批量的sql文本都不相同;
+ * 这里使用单条insert语句模板, 通过PreparedStatement.addBatch按批提交
+ * <p>
+ * 批处理会话从调用mapper所用会话的SqlSessionFactory打开, spring环境下会复用当前事务的连接;
+ * 非spring环境下使用调用方会话的连接, 加入调用方会话的事务
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class JdbcBatchKit {
+    /**
+     * 每批提交的语句数量
+     */
+    private static int FLUSH_SIZE = 500;
+    /**
+     * 按主键批量更新(updateEntityByIds)时, 超过该记录数改用IRichMapper.updateByIds, 代替';'拼接的多语句
+     */
+    private static int UPDATE_ROWS = 100;
+
+    /**
+     * 设置每批提交的语句数量
+     *
+     * @param flushSize 每批语句数量
+     */
+    public static void setFlushSize(int flushSize) {
+        if (flushSize < 1) {
+            throw new IllegalArgumentException("the flush size must be greater than 0.");
+        }
+        FLUSH_SIZE = flushSize;
+    }
+
+    public static int getFlushSize() {
+        return FLUSH_SIZE;
+    }
+
+    /**
+     * 设置按主键批量更新(updateEntityByIds)使用JDBC批处理的记录数阈值
+     *
+     * @param updateRows 超过该记录数时使用JDBC批处理
+     */
+    public static void setUpdateRows(int updateRows) {
+        UPDATE_ROWS = Math.max(updateRows, 1);
+    }
+
+    public static int getUpdateRows() {
+        return UPDATE_ROWS;
+    }
+
+    /**
+     * 按JDBC批处理方式逐条插入实例
+     *
+     * @param mapper   调用的mapper
+     * @param entities 实例列表
+     * @param withPk   是否带主键插入
+     * @return 插入记录数
+     */
+    public static <E extends IEntity> int insert(IEntityMapper mapper, Collection<E> entities, boolean withPk) {
+        return execute(mapper, entities, withPk ? IEntityMapper::insertWithPk : IEntityMapper::insert);
+    }
+
+    /**
+     * 使用批处理会话中的mapper逐条执行, 每FLUSH_SIZE条提交一次
+     *
+     * @param mapper   调用的mapper
+     * @param items    执行参数列表
+     * @param executor 单条执行
+     * @return 影响记录数
+     */
+    public static <T> int execute(IEntityMapper mapper, Collection<T> items, BiConsumer<IEntityMapper, T> executor) {
+        int count = 0;
+        for (int updated : counts(mapper, items, executor)) {
+            count += updated;
+        }
+        return count;
+    }
+
+    /**
+     * 使用批处理会话中的mapper逐条执行, 每FLUSH_SIZE条提交一次
+     * <p>
+     * 连续相同sql的语句复用同一个PreparedStatement, 作为一组addBatch执行; 执行顺序和items顺序一致
+     *
+     * @param mapper   调用的mapper
+     * @param items    执行参数列表
+     * @param executor 单条执行
+     * @return 按items顺序的每条语句影响记录数
+     */
+    public static <T> int[] counts(IEntityMapper mapper, Collection<T> items, BiConsumer<IEntityMapper, T> executor) {
+        Class mapperClass = mapper.mapping().mapperClass();
+        return counts(mapper, items, item -> mapperClass, executor);
+    }
+
+    /**
+     * 在同一个批处理会话中逐条执行, 语句可以分属同一个SqlSessionFactory下的不同mapper
+     * <p>
+     * 所有语句在同一个事务中, 事务处理同{@link #atomic(SqlSession, Supplier)}
+     *
+     * @param mapper      调用的mapper, 批处理会话使用它所在会话的事务
+     * @param items       执行参数列表
+     * @param mapperClass 执行参数 -> 执行语句的mapper类型
+     * @param executor    单条执行: (会话中的mapper实例, 执行参数)
+     * @return 按items顺序的每条语句影响记录数
+     */
+    public static <T> int[] counts(IEntityMapper mapper, Collection<T> items, Function<T, Class> mapperClass,
+                                   BiConsumer<IEntityMapper, T> executor) {
+        int flushSize = FLUSH_SIZE;
+        try (SqlSession session = openSession(mapper, ExecutorType.BATCH)) {
+            return atomic(session, () -> {
+                int[] counts = new int[items.size()];
+                int offset = 0;
+                Map<Class, IEntityMapper> mappers = new HashMap<>(4);
+                int pending = 0;
+                for (T item : items) {
+                    executor.accept(mappers.computeIfAbsent(mapperClass.apply(item), k -> (IEntityMapper) session.getMapper(k)), item);
+                    if (++pending == flushSize) {
+                        offset = counts(session.flushStatements(), counts, offset);
+                        pending = 0;
+                    }
+                }
+                counts(session.flushStatements(), counts, offset);
+                return counts;
+            });
+        } finally {
+            clearCache(mapper);
+        }
+    }
+
+    /**
+     * 在调用方的事务中执行多条语句, 全部执行成功后提交, 异常时回滚
+     * <pre>
+     * o 调用方有事务(spring事务, 或非自动提交的会话): 直接使用调用的mapper执行, 由调用方提交或回滚
+     * o 否则: 打开会话原子执行, 事务处理同{@link #atomic(SqlSession, Supplier)}
+     * </pre>
+     *
+     * @param mapper   调用的mapper
+     * @param executor 使用mapper执行语句
+     * @return 影响记录数
+     */
+    public static int transaction(IEntityMapper mapper, ToIntFunction<IEntityMapper> executor) {
+        boolean spring = ChunkKit.springManaged(mapper);
+        if (spring ? PagedKit.springTransaction() : !autoCommit(sqlSession(mapper).getConnection())) {
+            return executor.applyAsInt(mapper);
+        }
+        Class mapperClass = mapper.mapping().mapperClass();
+        try (SqlSession session = openSession(mapper, ExecutorType.SIMPLE)) {
+            IEntityMapper inSession = (IEntityMapper) session.getMapper(mapperClass);
+            return atomic(session, () -> executor.applyAsInt(inSession));
+        } finally {
+            clearCache(mapper);
+        }
+    }
+
+    /**
+     * 打开执行语句的会话
+     * <pre>
+     * o spring环境: 从mapper的SqlSessionFactory打开, 有事务时 SpringManagedTransaction 使用当前事务的连接
+     * o 否则: 使用调用方会话的连接, 由调用方会话提交或回滚, 和调用方已执行的语句在同一个事务中
+     * </pre>
+     */
+    private static SqlSession openSession(IEntityMapper mapper, ExecutorType type) {
+        if (ChunkKit.springManaged(mapper)) {
+            return factory(mapper).openSession(type, false);
+        }
+        SqlSession caller = sqlSession(mapper);
+        Configuration configuration = caller.getConfiguration();
+        Executor executor = configuration.newExecutor(new JoinedTransaction(caller.getConnection()), type);
+        return new DefaultSqlSession(configuration, executor, false);
+    }
+
+    /**
+     * 非spring环境下语句在调用方会话的连接上执行, 清除调用方会话的一级缓存
+     */
+    private static void clearCache(IEntityMapper mapper) {
+        if (!ChunkKit.springManaged(mapper)) {
+            sqlSession(mapper).clearCache();
+        }
+    }
+
+    /**
+     * 在会话中原子执行, 全部执行成功后提交, 异常时回滚
+     * <p>
+     * 连接在事务中时(spring事务, 或调用方非自动提交的会话)由事务所有方提交; spring没有事务时 SpringManagedTransaction
+     * 忽略openSession的autoCommit参数, 拿到的是自动提交的连接, 这时在连接上显式关闭自动提交, 执行完毕后提交或回滚, 再恢复自动提交
+     *
+     * @param session  会话
+     * @param executor 执行语句
+     * @return 执行结果
+     */
+    private static <R> R atomic(SqlSession session, Supplier<R> executor) {
+        Connection connection = session.getConnection();
+        if (!autoCommit(connection)) {
+            R result = executor.get();
+            session.commit();
+            return result;
+        }
+        setAutoCommit(connection, false);
+        try {
+            R result = executor.get();
+            session.commit();
+            connection.commit();
+            return result;
+        } catch (RuntimeException | Error e) {
+            rollback(connection, e);
+            throw e;
+        } catch (SQLException e) {
+            rollback(connection, e);
+            throw new FluentMybatisException("commit transaction error: " + e.getMessage(), e);
+        } finally {
+            setAutoCommit(connection, true);
+        }
+    }
+
+    private static boolean autoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            throw new FluentMybatisException("get auto commit error: " + e.getMessage(), e);
+        }
+    }
+
+    private static void setAutoCommit(Connection connection, boolean autoCommit) {
+        try {
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            throw new FluentMybatisException("set auto commit error: " + e.getMessage(), e);
+        }
+    }
+
+    private static void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * 在独立的会话(autoCommit)中执行mapper查询语句, 使用连接池中的另一个连接, 不加入调用方的事务;
+     * 入参为调用线程预先渲染好的语句
+     *
+     * @param mapper   调用的mapper
+     * @param method   mapper查询方法名称
+     * @param rendered 渲染好的sql和变量值
+     * @return 查询结果
+     */
+    public static <R> R selectOne(IEntityMapper mapper, String method, RenderedSql rendered) {
+        try (SqlSession session = factory(mapper).openSession(true)) {
+            return session.selectOne(mapper.mapping().mapperClass().getName() + "." + method, rendered);
+        }
+    }
+
+    /**
+     * 按执行顺序把批处理结果写入counts, 返回下一个写入位置
+     * 驱动不返回具体行数(SUCCESS_NO_INFO)时按1条计
+     */
+    static int counts(List<BatchResult> results, int[] counts, int offset) {
+        for (BatchResult result : results) {
+            for (int updated : result.getUpdateCounts()) {
+                if (offset < counts.length) {
+                    counts[offset] = count(updated);
+                }
+                offset++;
+            }
+        }
+        return offset;
+    }
+
+    private static int count(int updated) {
+        return updated == Statement.SUCCESS_NO_INFO ? 1 : Math.max(updated, 0);
+    }
+
+    /**
+     * 返回mapper所用会话的SqlSessionFactory, 多数据源时各mapper使用各自的SqlSessionFactory
+     * <pre>
+     * o spring环境: mapper代理的SqlSessionTemplate.getSqlSessionFactory()
+     * o 否则: 按mapper所在会话的Configuration构造
+     * </pre>
+     *
+     * @param mapper mybatis mapper代理实例
+     * @return SqlSessionFactory
+     * @throws FluentMybatisException mapper不是由SqlSession.getMapper创建的代理
+     */
+    static SqlSessionFactory factory(Object mapper) {
+        SqlSession session = sqlSession(mapper);
+        if (ChunkKit.springManaged(mapper)) {
+            return (SqlSessionFactory) SystemMetaObject.forObject(session).getValue("sqlSessionFactory");
+        } else {
+            return new DefaultSqlSessionFactory(session.getConfiguration());
+        }
+    }
+
+    /**
+     * mapper代理(MapperProxy)使用的SqlSession
+     */
+    static SqlSession sqlSession(Object mapper) {
+        if (mapper != null && Proxy.isProxyClass(mapper.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(mapper);
+            if (handler instanceof MapperProxy) {
+                return (SqlSession) SystemMetaObject.forObject(handler).getValue("sqlSession");
+            }
+        }
+        throw new FluentMybatisException("The SqlSession of mapper[" + mapper + "] not found, the mapper should be created by SqlSession.getMapper(Class).");
+    }
+
+    /**
+     * 使用调用方会话的连接, 提交, 回滚和关闭都由调用方会话负责
+     */
+    private static class JoinedTransaction implements Transaction {
+        private final Connection connection;
+
+        JoinedTransaction(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return this.connection;
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Integer getTimeout() {
+            return null;
+        }
+    }
+}
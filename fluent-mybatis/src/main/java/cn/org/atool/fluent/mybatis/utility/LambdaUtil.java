@@ -1,9 +1,14 @@
 package cn.org.atool.fluent.mybatis.utility;
 
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.functions.IGetter;
+import cn.org.atool.fluent.mybatis.functions.ISetter;
 
-import java.lang.invoke.SerializedLambda;
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
 
 import static cn.org.atool.fluent.common.kits.StringKit.PRE_GET;
 import static cn.org.atool.fluent.common.kits.StringKit.PRE_IS;
@@ -13,7 +18,10 @@ import static cn.org.atool.fluent.common.kits.StringKit.PRE_IS;
  *
  * @author darui.wu
  */
+@SuppressWarnings({"unchecked", "rawtypes"})
 public class LambdaUtil {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     /**
      * 返回getter lambda表达式
      *
@@ -58,4 +66,102 @@ public class LambdaUtil {
             throw new RuntimeException("not a getter method, please use lambda as 'entity::getXyz'");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 将setter方法生成为 ISetter 实例
+     * <p>
+     * 通过 LambdaMetafactory 生成直接调用setter方法的实现类, 调用开销同直接调用 set 方法;
+     * 方法或参数类型不是public, 或在当前ClassLoader下不可见时, 退化为 MethodHandle 调用
+     *
+     * @param method setter方法
+     * @return ISetter
+     */
+    public static <E> ISetter<E> setter(Method method) {
+        Class klass = method.getDeclaringClass();
+        Class type = method.getParameterTypes()[0];
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = LOOKUP.unreflect(method);
+        } catch (Exception e) {
+            throw new FluentMybatisException("build setter of method[" + method + "] error: " + e.getMessage(), e);
+        }
+        if (Modifier.isPublic(method.getModifiers()) && accessible(klass) && accessible(type)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "set", MethodType.methodType(ISetter.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, klass, MethodType.methodType(type).wrap().returnType()));
+                return (ISetter<E>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
+                /* 退化为 MethodHandle 调用 */
+            }
+        }
+        MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (entity, value) -> {
+            try {
+                generic.invokeExact((Object) entity, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new FluentMybatisException("invoke method[" + method + "] error: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * 将无参构造函数生成为 Supplier 实例, 规则同 {@link #setter(Method)}
+     *
+     * @param klass 实例类型
+     * @return Supplier
+     */
+    public static <T> Supplier<T> creator(Class<T> klass) {
+        Constructor<T> constructor;
+        MethodHandle handle;
+        try {
+            constructor = klass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            handle = LOOKUP.unreflectConstructor(constructor);
+        } catch (Exception e) {
+            throw new FluentMybatisException("build constructor of class[" + klass.getName() + "] error: " + e.getMessage(), e);
+        }
+        if (Modifier.isPublic(constructor.getModifiers()) && accessible(klass)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, MethodType.methodType(klass));
+                return (Supplier<T>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
+                /* 退化为 MethodHandle 调用 */
+            }
+        }
+        MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return (T) (Object) generic.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new FluentMybatisException("new instance of class[" + klass.getName() + "] error: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * 生成的实现类定义在 LambdaUtil 所在的ClassLoader中, 只能直接访问 public 并且可见的类型
+     */
+    private static boolean accessible(Class klass) {
+        while (klass.isArray()) {
+            klass = klass.getComponentType();
+        }
+        if (klass.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(klass.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(klass.getName(), false, LambdaUtil.class.getClassLoader()) == klass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.base.provider.RenderedSql;
+import cn.org.atool.fluent.mybatis.base.provider.SqlKit;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.model.SeekPagedList;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.segment.fragment.CachedFrag;
+import cn.org.atool.fluent.mybatis.segment.fragment.IFragment;
+import cn.org.atool.fluent.mybatis.segment.model.PagedOffset;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import static cn.org.atool.fluent.mybatis.If.isBlank;
+import static cn.org.atool.fluent.mybatis.If.notBlank;
+import static cn.org.atool.fluent.mybatis.base.provider.SqlKitFactory.factory;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_CountNoLimit;
+import static cn.org.atool.fluent.mybatis.utility.StrConstant.*;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * 标准分页查询工具
+ * <p>
+ * 默认先执行count语句, 总数大于0时再查询当前页数据, 共2次查询;
+ * 开启窗口函数后, 在查询字段后追加 COUNT(*) OVER() 总记录数字段, 一次查询同时返回当前页数据和总记录数,
+ * 当前页没有数据(如页码超出范围)时无法得到总数, 再退回执行count语句;
+ * 设置并发执行器后, 不在事务中时 count 和当前页数据并发查询;
+ * 查询设置了 {@link IQuery#approximateCount(int)} 时估算总记录数, 不使用窗口函数;
+ * 开启 {@link CountCacheKit} 后, 命中缓存的总记录数时只查询当前页数据
+ * <p>
+ * keyset分页: 按排序字段值定位下一页, 见 {@link #seekPaged(SqlKit, IMapping, IQuery, String, Function, BiFunction)}
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class PagedKit {
+    /**
+     * 是否使用 COUNT(*) OVER() 窗口函数返回总记录数
+     * <p>
+     * 需要数据库版本支持窗口函数(如 MySQL 8.0, MariaDB 10.2 以上), 无法从方言区分版本, 所以默认关闭
+     */
+    private static boolean WINDOW_TOTAL_ENABLED = false;
+    /**
+     * count 和当前页数据并发查询的执行器, null表示串行执行
+     */
+    private static Executor CONCURRENT = null;
+
+    private static final Method TX_ACTIVE = txActive();
+
+    /**
+     * 设置标准分页查询是否使用 COUNT(*) OVER() 窗口函数返回总记录数
+     *
+     * @param windowTotal true: 一次查询返回当前页数据和总记录数
+     */
+    public static void setWindowTotal(boolean windowTotal) {
+        WINDOW_TOTAL_ENABLED = windowTotal;
+    }
+
+    public static boolean isWindowTotal() {
+        return WINDOW_TOTAL_ENABLED;
+    }
+
+    /**
+     * 设置标准分页查询时 count 和当前页数据并发查询的执行器, 两个查询各自使用连接池中的连接
+     * <p>
+     * 只在没有spring事务时并发执行, 有事务时仍在事务连接上串行执行;
+     * 非spring环境无法判断调用方是否有未提交的事务, 由调用方自行保证
+     *
+     * @param executor 执行器(如线程池, 或 JDK21+ 的 Executors.newVirtualThreadPerTaskExecutor()), null表示串行执行(默认)
+     */
+    public static void setConcurrent(Executor executor) {
+        CONCURRENT = executor;
+    }
+
+    public static Executor getConcurrent() {
+        return CONCURRENT;
+    }
+
+    /**
+     * 标准分页查询
+     *
+     * @param mapper 实体Mapper
+     * @param query  分页查询条件
+     * @param lister 当前页数据查询
+     * @param total  从查询结果中取出窗口函数返回的总记录数, 没有时返回null
+     * @param <T>    记录类型
+     * @return 标准分页查询结果
+     */
+    public static <T> StdPagedList<T> stdPaged(IEntityMapper mapper, IQuery query,
+                                               Function<IQuery, List<T>> lister,
+                                               Function<List<T>, Integer> total) {
+        IMapping mapping = mapper.mapping();
+        SqlKit kit = factory(mapping);
+        WrapperData data = query.data();
+        CountCacheKit.Key key = CountCacheKit.key(kit, mapping, data);
+        StdPagedList<T> cached = CountCacheKit.get(key);
+        if (cached != null) {
+            return page(cached, query, lister);
+        }
+        if (!approximate(data) && windowTotal(kit, mapping, data)) {
+            List<T> list;
+            data.setWindowTotal(true);
+            try {
+                list = lister.apply(query);
+            } finally {
+                data.setWindowTotal(false);
+            }
+            Integer count = total.apply(list);
+            if (!list.isEmpty() && count != null) {
+                StdPagedList<T> paged = new StdPagedList<>(count, list, data.hasNext(count));
+                CountCacheKit.put(key, paged);
+                return paged;
+            }
+        }
+        Executor executor = concurrent();
+        StdPagedList<T> concurrent = executor == null ? null : concurrent(executor, kit, mapper, query, lister);
+        if (concurrent != null) {
+            CountCacheKit.put(key, concurrent);
+            return concurrent;
+        }
+        StdPagedList<T> paged = total(kit, mapping, data, () -> mapper.countNoLimit(query));
+        CountCacheKit.put(key, paged);
+        return page(paged, query, lister);
+    }
+
+    /**
+     * 按总记录数查询当前页数据
+     *
+     * @param paged 只设置了总记录数的分页结果
+     */
+    private static <T> StdPagedList<T> page(StdPagedList<T> paged, IQuery query, Function<IQuery, List<T>> lister) {
+        /* 统计信息可能滞后, 估算总数为0时仍查询当前页 */
+        boolean empty = paged.getTotal() == 0 && !paged.isApproximate();
+        List<T> list = empty ? Collections.emptyList() : lister.apply(query);
+        return paged.setData(list).setHasNextPage(query.data().hasNext(paged.getTotal()));
+    }
+
+    /**
+     * count在执行器中使用独立会话执行, 当前页数据在调用线程中查询
+     * <p>
+     * count语句在调用线程预先渲染, 变量值随渲染结果传给执行器, 并发期间count不读写查询条件上共享的变量表
+     *
+     * @return count语句中有${}文本替换, 无法预先渲染时返回null
+     */
+    private static <T> StdPagedList<T> concurrent(Executor executor, SqlKit kit, IEntityMapper mapper, IQuery query,
+                                                  Function<IQuery, List<T>> lister) {
+        IMapping mapping = mapper.mapping();
+        WrapperData data = query.data();
+        boolean approximate = approximate(data);
+        RenderedSql exact = renderCount(kit, mapping, data, false);
+        RenderedSql estimating = approximate ? renderCount(kit, mapping, data, true) : null;
+        if (exact == null || approximate && estimating == null) {
+            return null;
+        }
+        boolean statistics = approximate && kit.tableRows(mapping, data) != null;
+        /* 分页参数在调用线程预先写入 */
+        data.preparePaged();
+        CompletableFuture<StdPagedList<T>> future = CompletableFuture.supplyAsync(() -> total(data, statistics,
+            estimate -> JdbcBatchKit.selectOne(mapper, M_CountNoLimit, estimate ? estimating : exact)), executor);
+        List<T> list = lister.apply(query);
+        StdPagedList<T> paged;
+        try {
+            paged = future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new FluentMybatisException(cause.getMessage(), cause);
+        }
+        return paged.setData(list).setHasNextPage(data.hasNext(paged.getTotal()));
+    }
+
+    /**
+     * 渲染countNoLimit语句并收集位置变量值
+     *
+     * @param estimating 是否按估算方式渲染
+     * @return sql中有${}文本替换时返回null
+     */
+    static RenderedSql renderCount(SqlKit kit, IMapping mapping, WrapperData data, boolean estimating) {
+        String sql;
+        data.setEstimating(estimating);
+        try {
+            sql = kit.countNoLimit(mapping, data);
+        } finally {
+            data.setEstimating(false);
+        }
+        if (sql == null || sql.contains(DOLLAR_LEFT_CURLY)) {
+            return null;
+        }
+        List<Object> values = new ArrayList<>();
+        return new RenderedSql(data.getParameters().positional(sql, values), values);
+    }
+
+    /**
+     * 执行count, 设置了估算总数时按估算方式渲染count语句
+     *
+     * @param counter 执行countNoLimit
+     * @return 只设置了总记录数的分页结果
+     */
+    static <T> StdPagedList<T> total(SqlKit kit, IMapping mapping, WrapperData data, IntSupplier counter) {
+        boolean statistics = approximate(data) && kit.tableRows(mapping, data) != null;
+        return total(data, statistics, estimating -> {
+            if (!estimating) {
+                return counter.getAsInt();
+            }
+            data.setEstimating(true);
+            try {
+                return counter.getAsInt();
+            } finally {
+                data.setEstimating(false);
+            }
+        });
+    }
+
+    /**
+     * 按是否估算总数执行count
+     * <pre>
+     * 表统计信息: 总是近似值, 没有统计信息(返回-1)时退回精确count
+     * 最多count条数: 结果小于最多条数时为精确值
+     * </pre>
+     *
+     * @param statistics 是否按表统计信息估算
+     * @param counter    入参为是否估算, 返回count结果
+     * @return 只设置了总记录数的分页结果
+     */
+    private static <T> StdPagedList<T> total(WrapperData data, boolean statistics, Function<Boolean, Integer> counter) {
+        if (!approximate(data)) {
+            return new StdPagedList<T>().setTotal(counter.apply(false));
+        }
+        int count = counter.apply(true);
+        if (statistics && count < 0) {
+            return new StdPagedList<T>().setTotal(counter.apply(false));
+        }
+        return new StdPagedList<T>().setTotal(count).setApproximate(statistics || count >= data.getApproximateCount());
+    }
+
+    /**
+     * 是否估算总记录数: 设置了最多count条数, 且没有 DISTINCT, UNION 和自定义sql
+     */
+    static boolean approximate(WrapperData data) {
+        return data.getApproximateCount() > 0
+            && !data.isDistinct()
+            && data.getUnions().isEmpty()
+            && !data.getCustomizedSql().notEmpty();
+    }
+
+    /**
+     * 返回并发执行器, 没有设置或当前在spring事务中时返回null
+     */
+    static Executor concurrent() {
+        return concurrent(CONCURRENT);
+    }
+
+    /**
+     * 当前在spring事务中时返回null, 事务中的语句需要在事务连接上串行执行
+     *
+     * @param executor 执行器
+     * @return 执行器或null
+     */
+    static Executor concurrent(Executor executor) {
+        return executor == null || springTransaction() ? null : executor;
+    }
+
+    /**
+     * 当前线程是否在spring事务中, 无法判断时按在事务中处理
+     */
+    static boolean springTransaction() {
+        if (TX_ACTIVE == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(TX_ACTIVE.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return true;
+        }
+    }
+
+    /**
+     * spring TransactionSynchronizationManager.isActualTransactionActive(), 没有spring-tx时为null
+     */
+    private static Method txActive() {
+        try {
+            return Class.forName("org.springframework.transaction.support.TransactionSynchronizationManager")
+                .getMethod("isActualTransactionActive");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 是否可以用窗口函数返回总记录数: 分页查询, 且没有 DISTINCT, UNION 和自定义sql
+     */
+    static boolean windowTotal(SqlKit kit, IMapping mapping, WrapperData data) {
+        return WINDOW_TOTAL_ENABLED
+            && data.paged() != null
+            && !data.isDistinct()
+            && data.getUnions().isEmpty()
+            && !data.getCustomizedSql().notEmpty()
+            && kit.windowTotal(mapping);
+    }
+
+    /**
+     * 按排序字段值(keyset)分页查询
+     * <p>
+     * 根据查询的 ORDER BY 字段和上一页游标构造条件 (c1, c2) > (?, ?), 或展开成 c1 > ? OR (c1 = ? AND c2 > ?),
+     * 不使用OFFSET, 翻到多深的页面都和首页代价相同;
+     * 排序字段组合必须唯一(通常最后一个排序字段为主键), 且值不能为null
+     * <p>
+     * 游标条件和 limit(size + 1) 只在查询执行期间加到query上, 返回前恢复, query可以继续用于下一页
+     *
+     * @param kit     数据库方言
+     * @param mapping IMapping
+     * @param query   查询条件, 必须设置排序和 limit(size)
+     * @param cursor  上一页返回的游标, 首页传null
+     * @param lister  数据查询
+     * @param valueOf 按字段名称从记录中取值
+     * @param <T>     记录类型
+     * @return 当前页数据和下一页游标
+     */
+    public static <T> SeekPagedList<T> seekPaged(SqlKit kit, IMapping mapping, IQuery query, String cursor,
+                                                 Function<IQuery, List<T>> lister,
+                                                 BiFunction<T, String, Object> valueOf) {
+        int size = PoJoHelper.validateTagPaged(query);
+        WrapperData data = query.data();
+        if (!data.segments().groupBy.isEmpty()) {
+            throw new FluentMybatisException("The seek paged query does not support GROUP BY.");
+        }
+        List<SeekOrder> orders = seekOrders(mapping, data);
+        int signature = orders.stream().map(o -> o.expression + (o.asc ? " ASC" : " DESC")).collect(joining(COMMA)).hashCode();
+        IFragment[] where = data.segments().where.getSegments().toArray();
+        PagedOffset paged = data.paged();
+        List<T> list;
+        try {
+            if (notBlank(cursor)) {
+                Object[] values = SeekCursor.decode(signature, cursor);
+                if (values.length != orders.size()) {
+                    throw new FluentMybatisException("The seek cursor does not match the order by of query.");
+                }
+                boolean rowValue = orders.size() > 1 && kit.rowValue(mapping)
+                    && orders.stream().allMatch(o -> o.asc == orders.get(0).asc);
+                String sql = data.getParameters().paramSql(null, seekSql(orders, rowValue), seekArgs(values, orders, rowValue));
+                data.segments().andBracket(CachedFrag.set(sql));
+            }
+            query.limit(size + 1);
+            list = lister.apply(query);
+        } finally {
+            /* 恢复调用方的查询条件和分页 */
+            data.segments().resetWhere(where);
+            data.setPaged(paged);
+        }
+        String next = null;
+        if (list.size() > size) {
+            list.remove(size);
+            T last = list.get(size - 1);
+            Object[] values = new Object[orders.size()];
+            for (int index = 0; index < values.length; index++) {
+                String column = orders.get(index).column;
+                values[index] = valueOf.apply(last, column);
+                if (values[index] == null) {
+                    throw new FluentMybatisException("The value of seek order column[" + column + "] is null.");
+                }
+            }
+            next = SeekCursor.encode(signature, values);
+        }
+        return new SeekPagedList<>(list, next);
+    }
+
+    /**
+     * 解析查询的 ORDER BY 字段和顺序
+     */
+    static List<SeekOrder> seekOrders(IMapping mapping, WrapperData data) {
+        List<SeekOrder> orders = new ArrayList<>();
+        for (IFragment segment : data.orderBy().getSegments()) {
+            String text = segment.get(mapping).trim();
+            if (isBlank(text)) {
+                continue;
+            }
+            int space = text.lastIndexOf(' ');
+            String direction = space < 0 ? EMPTY : text.substring(space + 1);
+            if (ASC.equalsIgnoreCase(direction) || DESC.equalsIgnoreCase(direction)) {
+                orders.add(new SeekOrder(text.substring(0, space).trim(), ASC.equalsIgnoreCase(direction)));
+            } else {
+                orders.add(new SeekOrder(text, true));
+            }
+        }
+        if (orders.isEmpty()) {
+            throw new FluentMybatisException("The seek paged query must be ordered, please set order by columns.");
+        }
+        return orders;
+    }
+
+    /**
+     * 下一页条件: 单个排序字段 c1 > ?; 行值比较 (c1, c2) > (?, ?); 否则展开成 (c1 > ? OR (c1 = ? AND c2 > ?))
+     *
+     * @param orders   排序字段
+     * @param rowValue 是否使用行值比较(排序方向相同且数据库支持)
+     */
+    static String seekSql(List<SeekOrder> orders, boolean rowValue) {
+        if (orders.size() == 1) {
+            return orders.get(0).compare();
+        }
+        if (rowValue) {
+            String columns = orders.stream().map(o -> o.expression).collect(joining(COMMA_SPACE));
+            String holders = orders.stream().map(o -> QUESTION_MARK).collect(joining(COMMA_SPACE));
+            return "(" + columns + ") " + (orders.get(0).asc ? ">" : "<") + " (" + holders + ")";
+        }
+        StringBuilder buff = new StringBuilder("(");
+        for (int index = 0; index < orders.size(); index++) {
+            if (index > 0) {
+                buff.append(" OR ");
+            }
+            buff.append("(");
+            for (int prev = 0; prev < index; prev++) {
+                buff.append(orders.get(prev).expression).append(" = ? AND ");
+            }
+            buff.append(orders.get(index).compare()).append(")");
+        }
+        return buff.append(")").toString();
+    }
+
+    /**
+     * 和 {@link #seekSql(List, boolean)} 占位符对应的参数列表
+     */
+    static Object[] seekArgs(Object[] values, List<SeekOrder> orders, boolean rowValue) {
+        if (orders.size() == 1 || rowValue) {
+            return values;
+        }
+        List<Object> args = new ArrayList<>();
+        for (int index = 0; index < values.length; index++) {
+            args.addAll(Arrays.asList(values).subList(0, index + 1));
+        }
+        return args.toArray();
+    }
+
+    /**
+     * 排序字段
+     */
+    static class SeekOrder {
+        /**
+         * 排序表达式, 如: t1.`user_name`
+         */
+        final String expression;
+        /**
+         * 去掉别名和包装符号的字段名称, 用于从记录中取值
+         */
+        final String column;
+
+        final boolean asc;
+
+        SeekOrder(String expression, boolean asc) {
+            this.expression = expression;
+            this.asc = asc;
+            String column = expression.substring(expression.lastIndexOf('.') + 1);
+            this.column = column.replaceAll("[`\"\\[\\]]", EMPTY);
+        }
+
+        String compare() {
+            return this.expression + (this.asc ? " > ?" : " < ?");
+        }
+    }
+
+    /**
+     * 按字段名称(忽略大小写)从Map记录中取值
+     *
+     * @param map    Map记录
+     * @param column 字段名称
+     * @return 字段值
+     */
+    public static Object mapValue(Map<String, Object> map, String column) {
+        Object value = map.get(column);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (column.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从Map结果集中移除窗口函数总记录数字段, 返回第一条记录上的总数
+     *
+     * @param list Map结果集
+     * @return 总记录数, 结果集中没有该字段时返回null
+     */
+    public static Integer mapTotal(List<Map<String, Object>> list) {
+        Integer total = null;
+        for (Map<String, Object> map : list) {
+            Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Object> entry = it.next();
+                if (WINDOW_TOTAL.equalsIgnoreCase(entry.getKey())) {
+                    if (total == null && entry.getValue() instanceof Number) {
+                        total = ((Number) entry.getValue()).intValue();
+                    }
+                    it.remove();
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -3,15 +3,18 @@ package cn.org.atool.fluent.mybatis.utility;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.intf.IToMap;
+import cn.org.atool.fluent.mybatis.base.provider.PoJoRowInterceptor;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
 import cn.org.atool.fluent.mybatis.metadata.SetterMeta;
 import cn.org.atool.fluent.mybatis.segment.model.PagedOffset;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
 import lombok.NonNull;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
 import static cn.org.atool.fluent.mybatis.typehandler.ConvertorKit.convertValueToType;
@@ -49,6 +52,31 @@ public class PoJoHelper {
         return map == null ? null : (POJO) converter.apply(map);
     }
 
+    /**
+     * 按query查询PoJo列表
+     * <p>
+     * 查询期间在条件上设置PoJo类型, 注册了 {@link PoJoRowInterceptor} 时直接从结果集映射PoJo,
+     * 否则 lister 返回的仍是Map列表, 按下划线转驼峰规则转换
+     *
+     * @param clazz  POJO类型
+     * @param query  查询条件
+     * @param lister listMaps查询
+     * @param <POJO> POJO类型
+     * @return POJO实例列表
+     */
+    public static <POJO> List<POJO> listPoJos(@NonNull Class<POJO> clazz, IQuery query, Function<IQuery, List> lister) {
+        WrapperData data = query.data();
+        data.setPoJoClass(PoJoRowInterceptor.isEnabled() ? clazz : null);
+        List list;
+        try {
+            list = lister.apply(query);
+        } finally {
+            data.setPoJoClass(null);
+        }
+        Object first = list == null ? null : list.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        return first == null || clazz.isInstance(first) ? list : toPoJoList(clazz, (List<Map<String, Object>>) list);
+    }
+
     /**
      * 将Map转换为指定的PoJo对象
      *
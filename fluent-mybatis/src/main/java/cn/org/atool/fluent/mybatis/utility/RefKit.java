@@ -11,6 +11,7 @@ import cn.org.atool.fluent.mybatis.base.entity.IMapping;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
 import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
 import cn.org.atool.fluent.mybatis.base.mapper.IWrapperMapper;
+import cn.org.atool.fluent.mybatis.base.model.InsertMode;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.functions.IGetter;
 import cn.org.atool.fluent.mybatis.functions.RefFinder;
@@ -220,6 +221,19 @@ public final class RefKit {
         }
     }
 
+    /**
+     * 设置实体类批量插入的执行方式
+     *
+     * @param insertMode 批量插入执行方式, null: 未指定, 由数据库方言按批量大小选择
+     * @param eClasses   如果为空, 变更应用中所有的实体类; 如果不为空, 变更指定类
+     */
+    public static void insertMode(InsertMode insertMode, Class<? extends IEntity>... eClasses) {
+        Set<String> list = RefKit.getEntityClass(eClasses);
+        for (String klass : list) {
+            RefKit.byEntity(klass).insertMode(insertMode);
+        }
+    }
+
     /**
      * 设置对应表的命名策略
      *
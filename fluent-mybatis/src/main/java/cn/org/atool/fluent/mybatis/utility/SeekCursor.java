@@ -0,0 +1,161 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * keyset分页游标编解码: 排序字段签名 + 排序字段值列表, 编码为URL安全的Base64字符串
+ * <p>
+ * 只支持常用的标量类型, 按类型标记+文本形式编码, 不使用java序列化, 解码客户端传回的游标不会实例化任意类型
+ *
+ * @author darui.wu
+ */
+class SeekCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private SeekCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param signature 排序字段签名
+     * @param values    排序字段值
+     * @return 游标
+     */
+    static String encode(int signature, Object[] values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(signature);
+            out.writeShort(values.length);
+            for (Object value : values) {
+                write(out, value);
+            }
+        } catch (IOException e) {
+            throw new FluentMybatisException("encode seek cursor error: " + e.getMessage(), e);
+        }
+        return ENCODER.encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 解码游标
+     * <p>
+     * 游标由客户端传回, 分配数组前校验字段数量, 任何格式错误都以 FluentMybatisException 抛出
+     *
+     * @param signature 当前查询的排序字段签名
+     * @param cursor    游标
+     * @return 排序字段值
+     */
+    static Object[] decode(int signature, String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(DECODER.decode(cursor)))) {
+            if (in.readInt() != signature) {
+                throw new FluentMybatisException("The seek cursor does not match the order by of query.");
+            }
+            int size = in.readShort();
+            /* 每个字段值至少4个字节: 类型标记(2) + 文本长度(2) */
+            if (size < 0 || size > in.available() / 4) {
+                throw new IOException("illegal value size: " + size);
+            }
+            Object[] values = new Object[size];
+            for (int index = 0; index < values.length; index++) {
+                values[index] = read(in);
+            }
+            return values;
+        } catch (FluentMybatisException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new FluentMybatisException("Illegal seek cursor: " + cursor, e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        char type;
+        String text;
+        if (value instanceof String) {
+            type = 'S';
+            text = (String) value;
+        } else if (value instanceof Long) {
+            type = 'J';
+            text = value.toString();
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            type = 'I';
+            text = value.toString();
+        } else if (value instanceof BigDecimal) {
+            type = 'D';
+            text = value.toString();
+        } else if (value instanceof BigInteger) {
+            type = 'G';
+            text = value.toString();
+        } else if (value instanceof Double || value instanceof Float) {
+            type = 'F';
+            text = value.toString();
+        } else if (value instanceof Boolean) {
+            type = 'Z';
+            text = value.toString();
+        } else if (value instanceof Timestamp) {
+            type = 'T';
+            text = value.toString();
+        } else if (value instanceof Date) {
+            type = 'U';
+            text = String.valueOf(((Date) value).getTime());
+        } else if (value instanceof LocalDateTime) {
+            type = 'L';
+            text = value.toString();
+        } else if (value instanceof LocalDate) {
+            type = 'A';
+            text = value.toString();
+        } else if (value instanceof LocalTime) {
+            type = 'H';
+            text = value.toString();
+        } else {
+            String name = value == null ? "null" : value.getClass().getName();
+            throw new FluentMybatisException("The value type of seek order column is not supported: " + name);
+        }
+        out.writeChar(type);
+        out.writeUTF(text);
+    }
+
+    private static Object read(DataInputStream in) throws IOException {
+        char type = in.readChar();
+        String text = in.readUTF();
+        switch (type) {
+            case 'S':
+                return text;
+            case 'J':
+                return Long.valueOf(text);
+            case 'I':
+                return Integer.valueOf(text);
+            case 'D':
+                return new BigDecimal(text);
+            case 'G':
+                return new BigInteger(text);
+            case 'F':
+                return Double.valueOf(text);
+            case 'Z':
+                return Boolean.valueOf(text);
+            case 'T':
+                return Timestamp.valueOf(text);
+            case 'U':
+                return new Date(Long.parseLong(text));
+            case 'L':
+                return LocalDateTime.parse(text);
+            case 'A':
+                return LocalDate.parse(text);
+            case 'H':
+                return LocalTime.parse(text);
+            default:
+                throw new IOException("unknown value type: " + type);
+        }
+    }
+}
@@ -51,6 +51,10 @@ public interface StrConstant {
     String COUNT_1 = "COUNT(1)";
 
     String COUNT_ASTERISK = "COUNT(*)";
+    /**
+     * 标准分页查询中随数据一起返回总记录数的窗口函数字段别名
+     */
+    String WINDOW_TOTAL = "FM_TOTAL";
     /**
      * 换行
      */
@@ -56,6 +56,8 @@ public final class ProviderContextKit {
         .put(M_InsertBatch, SqlProvider::insertBatch)
         .put(M_InsertWithPk, SqlProvider::insertWithPk)
         .put(M_InsertBatchWithPk, SqlProvider::insertBatchWithPk)
+        .put(M_Upsert, SqlProvider::upsert)
+        .put(M_UpsertBatch, SqlProvider::upsertBatch)
         .put(M_InsertSelect, SqlProvider::insertSelect)
         .put(M_UpdateBy, SqlProvider::updateBy)
         .put(M_ListEntity, SqlProvider::listEntity)
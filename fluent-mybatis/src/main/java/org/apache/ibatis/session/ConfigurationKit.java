@@ -3,12 +3,20 @@ package org.apache.ibatis.session;
 import cn.org.atool.fluent.common.kits.KeyMap;
 import cn.org.atool.fluent.mybatis.base.entity.AMapping;
 import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.provider.BatchSqlSource;
+import cn.org.atool.fluent.mybatis.base.provider.CountCacheInterceptor;
+import cn.org.atool.fluent.mybatis.base.provider.FetchSizeInterceptor;
+import cn.org.atool.fluent.mybatis.base.provider.FluentSqlSource;
+import cn.org.atool.fluent.mybatis.base.provider.PoJoRowInterceptor;
 import cn.org.atool.fluent.mybatis.base.provider.StatementBuilder;
 import org.apache.ibatis.mapping.MappedStatement;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
 
@@ -25,6 +33,26 @@ public class ConfigurationKit {
     private final Map<String, IMapping> inserts = new HashMap<>();
     private final Map<String, IMapping> batchInserts = new HashMap<>();
     private final Map<String, IMapping> listEntities = new HashMap<>();
+    /**
+     * key: mapper类名; value: IMapping
+     */
+    private final Map<String, IMapping> mappers = new HashMap<>();
+
+    /**
+     * 使用 {@link FluentSqlSource} 的SqlProvider方法
+     * <pre>
+     * o batchCrud多个语句共享变量, 变量名无法位置化, 不做替换
+     * o insertBatch/insertBatchWithPk/upsertBatch的sql文本随记录数变化, 几乎不会重复, 不缓存解析结果, 见 BATCH_SOURCE_METHODS
+     * </pre>
+     */
+    private static final List<String> SQL_SOURCE_METHODS = Arrays.asList(
+        M_Insert, M_InsertWithPk, M_InsertSelect, M_Upsert, M_UpdateBy, M_ListEntity, M_ListMaps, M_ListObjs, M_Count, M_CountNoLimit, M_Delete
+    );
+
+    /**
+     * 使用 {@link BatchSqlSource} 的批量插入方法, 单元格变量按位置绑定
+     */
+    private static final List<String> BATCH_SOURCE_METHODS = Arrays.asList(M_InsertBatch, M_InsertBatchWithPk, M_UpsertBatch);
 
     public ConfigurationKit(Configuration configuration, KeyMap<AMapping> mappers) {
         this.configuration = configuration;
@@ -32,6 +60,7 @@ public class ConfigurationKit {
             inserts.put(entry.getKey() + "." + M_Insert, entry.getValue());
             batchInserts.put(entry.getKey() + "." + M_InsertBatch, entry.getValue());
             listEntities.put(entry.getKey() + "." + M_internalListEntity, entry.getValue());
+            this.mappers.put(entry.getKey(), entry.getValue());
         }
     }
 
@@ -71,12 +100,72 @@ public class ConfigurationKit {
         return this;
     }
 
+    /**
+     * 注册 listPoJos(Class, IQuery) 直接从结果集映射PoJo的插件
+     *
+     * @return ignore
+     */
+    public ConfigurationKit listPoJo() {
+        PoJoRowInterceptor.of(this.configuration);
+        return this;
+    }
+
+    /**
+     * 注册按查询条件设置 Statement.fetchSize 的插件
+     *
+     * @return ignore
+     */
+    public ConfigurationKit fetchSize() {
+        FetchSizeInterceptor.of(this.configuration);
+        return this;
+    }
+
+    /**
+     * 登记写语句执行后使count缓存失效的插件, 开启count缓存时才安装到Configuration上
+     *
+     * @return ignore
+     */
+    public ConfigurationKit countCache() {
+        CountCacheInterceptor interceptor = CountCacheInterceptor.of(this.configuration);
+        for (Map.Entry<String, IMapping> entry : mappers.entrySet()) {
+            interceptor.register(entry.getKey(), entry.getValue().getTableName());
+        }
+        return this;
+    }
+
+    /**
+     * 将SqlProvider方法的ProviderSqlSource替换为按sql文本缓存解析结果的FluentSqlSource,
+     * 批量插入方法替换为单元格变量按位置绑定的BatchSqlSource
+     *
+     * @return ignore
+     */
+    public ConfigurationKit sqlSource() {
+        for (Map.Entry<String, IMapping> entry : mappers.entrySet()) {
+            IMapping m = entry.getValue();
+            for (String method : SQL_SOURCE_METHODS) {
+                String statementId = entry.getKey() + "." + (M_ListEntity.equals(method) ? M_internalListEntity : method);
+                this.replaced(statementId, existed -> StatementBuilder.sqlSourceStatement(m, existed, method));
+            }
+            for (String method : BATCH_SOURCE_METHODS) {
+                this.replaced(entry.getKey() + "." + method, existed -> StatementBuilder.batchSqlSourceStatement(m, existed));
+            }
+        }
+        this.mappers.clear();
+        return this;
+    }
+
     private void replaced(String statementId, IMapping mapping, Function<StatementBuilder, MappedStatement> replaced) {
+        this.replaced(statementId, existed -> replaced.apply(new StatementBuilder(mapping, existed)));
+    }
+
+    private void replaced(String statementId, UnaryOperator<MappedStatement> replaced) {
         if (this.configuration.hasStatement(statementId, false)) {
             MappedStatement existed = this.configuration.getMappedStatement(statementId, false);
-            MappedStatement newer = replaced.apply(new StatementBuilder(mapping, existed));
-            configuration.mappedStatements.remove(statementId);
-            configuration.addMappedStatement(newer);
+            MappedStatement newer = replaced.apply(existed);
+            if (newer != existed) {
+                configuration.mappedStatements.remove(statementId);
+                configuration.addMappedStatement(newer);
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package cn.org.atool.fluent.mybatis.base.model;
+
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import static cn.org.atool.fluent.mybatis.segment.fragment.Fragments.SEG_EMPTY;
+
+class SqlOpTest implements IWant {
+    @AfterEach
+    void reset() {
+        SqlOp.setInBuckets();
+    }
+
+    @Test
+    void bucket() {
+        SqlOp.setInBuckets(16, 4, 8);
+        want.number(SqlOp.bucket(1)).eq(1);
+        want.number(SqlOp.bucket(3)).eq(4);
+        want.number(SqlOp.bucket(8)).eq(8);
+        want.number(SqlOp.bucket(9)).eq(16);
+        want.number(SqlOp.bucket(17)).eq(32);
+    }
+
+    @Test
+    void bucket_powerTwo() {
+        SqlOp.setInBucketsOfPowerTwo(64);
+        want.number(SqlOp.bucket(3)).eq(4);
+        want.number(SqlOp.bucket(33)).eq(64);
+        want.number(SqlOp.bucket(65)).eq(128);
+    }
+
+    @Test
+    void bucket_powerTwo_notPowerOfTwo() {
+        /* 最大阶梯不是2的幂次时, 补上max作为最后一级阶梯 */
+        SqlOp.setInBucketsOfPowerTwo(100);
+        want.number(SqlOp.bucket(64)).eq(64);
+        want.number(SqlOp.bucket(65)).eq(100);
+        want.number(SqlOp.bucket(101)).eq(200);
+    }
+
+    @Test
+    void operator_padding() {
+        SqlOp.setInBuckets(4);
+        Parameters parameters = new Parameters();
+        String sql = parameters.positional(SqlOp.IN.operator(SEG_EMPTY, parameters, (String) null, 1, 2, 3).get(null));
+        want.string(sql).eq("IN (#{ew.data.parameters.p_1}, #{ew.data.parameters.p_2}, #{ew.data.parameters.p_3}, #{ew.data.parameters.p_4})");
+        want.number((Integer) parameters.get("p_4")).eq(3);
+    }
+
+    @Test
+    void operator_noBucket() {
+        Parameters parameters = new Parameters();
+        String sql = parameters.positional(SqlOp.IN.operator(SEG_EMPTY, parameters, (String) null, 1, 2, 3).get(null));
+        want.string(sql).eq("IN (#{ew.data.parameters.p_1}, #{ew.data.parameters.p_2}, #{ew.data.parameters.p_3})");
+    }
+}
@@ -0,0 +1,50 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ClockCacheTest implements IWant {
+    @Test
+    void evict_skipUsed() {
+        ClockCache<String, Integer> cache = new ClockCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        /* a最近读取过, 淘汰时跳过 */
+        want.number(cache.get("a")).eq(1);
+        cache.put("c", 3);
+        want.number(cache.size()).eq(2);
+        want.number(cache.get("a")).eq(1);
+        want.object(cache.get("b")).isNull();
+        want.number(cache.get("c")).eq(3);
+    }
+
+    @Test
+    void put_concurrent() throws Exception {
+        ClockCache<Integer, Integer> cache = new ClockCache<>(16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int base = t * 1000;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        cache.put(base + i, i);
+                        cache.get(base + i / 2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        want.bool(cache.size() <= 16).is(true);
+    }
+}
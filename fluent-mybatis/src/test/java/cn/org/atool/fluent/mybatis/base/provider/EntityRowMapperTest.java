@@ -0,0 +1,139 @@
+package cn.org.atool.fluent.mybatis.base.provider;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
+import cn.org.atool.fluent.mybatis.base.model.UniqueType;
+import cn.org.atool.fluent.mybatis.typehandler.WindowTotalHandler;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("all")
+class EntityRowMapperTest implements IWant {
+    static final AtomicInteger SETS = new AtomicInteger();
+
+    static final FieldMapping id = new FieldMapping("id", "id", UniqueType.PRIMARY_ID, null, null, Long.class, null)
+        .sg((e, v) -> set(() -> ((RowEntity) e).setId((Long) v)), e -> ((RowEntity) e).getId());
+    static final FieldMapping userName = new FieldMapping("userName", "user_name", null, null, null, String.class, null)
+        .sg((e, v) -> set(() -> ((RowEntity) e).setUserName((String) v)), e -> ((RowEntity) e).getUserName());
+    static final FieldMapping age = new FieldMapping("age", "age", null, null, null, Integer.class, null)
+        .sg((e, v) -> set(() -> ((RowEntity) e).setAge((Integer) v)), e -> ((RowEntity) e).getAge());
+
+    /**
+     * 记录通过 FieldMapping.setter 赋值的次数
+     */
+    private static void set(Runnable setter) {
+        SETS.incrementAndGet();
+        setter.run();
+    }
+
+    @AfterEach
+    void reset() {
+        EntityRowInterceptor.setEnabled(true);
+    }
+
+    @Test
+    void rows() throws Exception {
+        SqlSession session = session("SELECT id, user_name, age, COUNT(*) OVER() AS FM_TOTAL FROM row_entity ORDER BY id", false);
+        SETS.set(0);
+        List<RowEntity> list = session.selectList("test.rows");
+        want.number(SETS.get()).eq(5);
+        want.number(WindowTotalHandler.total()).eq(2);
+        want.list(list).sizeEq(2);
+        want.string(list.get(0).getUserName()).eq("darui");
+        want.number(list.get(1).getId()).eq(2L);
+        want.number(list.get(1).getAge()).isNull();
+
+        EntityRowInterceptor.setEnabled(false);
+        SETS.set(0);
+        List<RowEntity> origin = session.selectList("test.rows");
+        want.number(SETS.get()).eq(0);
+        want.list(origin).eqReflect(list);
+        session.close();
+    }
+
+    @Test
+    void rows_autoMapping() throws Exception {
+        SqlSession session = session("SELECT id, user_name AS userName, age AS a_g_e, 'x' AS remark FROM row_entity ORDER BY id", true);
+        List<RowEntity> list = session.selectList("test.rows");
+        want.list(list).sizeEq(2);
+        want.string(list.get(0).getUserName()).eq("darui");
+        want.number(list.get(0).getAge()).eq(30);
+        want.string(list.get(1).getUserName()).eq("wu");
+        session.close();
+
+        session = session("SELECT id, user_name, 'other' AS userName FROM row_entity ORDER BY id", false);
+        list = session.selectList("test.rows");
+        /* ResultMap声明的字段优先 */
+        want.string(list.get(0).getUserName()).eq("darui");
+        session.close();
+    }
+
+    private static SqlSession session(String sql, boolean camelCase) throws Exception {
+        UnpooledDataSource ds = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:entity_row;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS row_entity");
+            stmt.execute("CREATE TABLE row_entity (id BIGINT PRIMARY KEY, user_name VARCHAR(20), age INT)");
+            stmt.execute("INSERT INTO row_entity VALUES (1, 'darui', 30), (2, 'wu', NULL)");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), ds));
+        configuration.setMapUnderscoreToCamelCase(camelCase);
+        List<ResultMapping> mappings = new ArrayList<>();
+        for (FieldMapping f : Arrays.asList(id, userName, age)) {
+            mappings.add(new ResultMapping.Builder(configuration, f.name, f.column, f.javaType).build());
+        }
+        ResultMap resultMap = new ResultMap.Builder(configuration, "test.rows-RM", RowEntity.class, mappings, null).build();
+        configuration.addMappedStatement(new MappedStatement.Builder(configuration, "test.rows",
+            new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).resultMaps(Arrays.asList(resultMap)).build());
+        EntityRowMapper mapper = new EntityRowMapper(configuration, RowEntity::new, Arrays.asList(id, userName, age), mappings);
+        EntityRowInterceptor.of(configuration).register("test.rows", mapper);
+        want.bool(EntityRowInterceptor.of(configuration) == EntityRowInterceptor.of(configuration)).is(true);
+        return new DefaultSqlSessionFactory(configuration).openSession();
+    }
+
+    public static class RowEntity implements IEntity {
+        private Long id;
+
+        private String userName;
+
+        private Integer age;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+    }
+}
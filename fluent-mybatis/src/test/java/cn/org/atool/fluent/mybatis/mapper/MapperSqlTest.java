@@ -0,0 +1,31 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import java.util.Arrays;
+
+class MapperSqlTest implements IWant {
+
+    @Test
+    void append_trimAndSkipBlank() {
+        String sql = new MapperSql()
+            .APPEND("  SELECT ")
+            .APPEND(null)
+            .APPEND("   ")
+            .APPEND("*\n")
+            .APPEND("")
+            .APPEND(" FROM t")
+            .toString();
+        want.string(sql).eq("SELECT * FROM t");
+    }
+
+    @Test
+    void where() {
+        String sql = new MapperSql()
+            .SELECT("t", "id, name")
+            .WHERE(Arrays.asList("id = 1", "name = 'a'"))
+            .toString();
+        want.string(sql).eq("SELECT id, name FROM t WHERE id = 1 AND name = 'a'");
+    }
+}
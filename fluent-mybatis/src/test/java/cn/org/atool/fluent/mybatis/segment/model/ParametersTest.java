@@ -0,0 +1,39 @@
+package cn.org.atool.fluent.mybatis.segment.model;
+
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+@SuppressWarnings("all")
+class ParametersTest implements IWant {
+
+    @Test
+    void positional() {
+        Parameters parameters = new Parameters();
+        String sql = parameters.paramSql(null, "id = ? AND name = ? OR id = ?", 1, "test", 2);
+        String positional = parameters.positional(sql);
+        want.string(positional).eq("" +
+            "id = #{ew.data.parameters.p_1} " +
+            "AND name = #{ew.data.parameters.p_2} " +
+            "OR id = #{ew.data.parameters.p_3}");
+        want.number((Integer) parameters.get("p_1")).eq(1);
+        want.string((String) parameters.get("p_2")).eq("test");
+        want.number((Integer) parameters.get("p_3")).eq(2);
+    }
+
+    @Test
+    void positional_sameShape() {
+        Parameters p1 = new Parameters();
+        Parameters p2 = new Parameters();
+        String sql1 = p1.positional(p1.paramSql(null, "id = ? AND age > ?", 1, 20));
+        String sql2 = p2.positional(p2.paramSql(null, "id = ? AND age > ?", 3, 40));
+        want.string(sql1).eq(sql2);
+        want.number((Integer) p2.get("p_2")).eq(40);
+    }
+
+    @Test
+    void positional_keepUnknown() {
+        Parameters parameters = new Parameters();
+        String sql = "#{ew.data.parameters.list[0].name} = #{ew.data.parameters.variable_0_1}";
+        want.string(parameters.positional(sql)).eq(sql);
+    }
+}
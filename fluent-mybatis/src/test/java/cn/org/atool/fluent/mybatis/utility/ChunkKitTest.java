@@ -0,0 +1,36 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@SuppressWarnings("all")
+class ChunkKitTest implements IWant {
+    @AfterEach
+    void reset() {
+        ChunkKit.setChunkSize(1000);
+    }
+
+    @Test
+    void list() {
+        ChunkKit.setChunkSize(2);
+        List<Integer> sizes = new ArrayList<>();
+        List<Integer> list = ChunkKit.list(Arrays.asList(1, 2, 3, 4, 5), chunk -> {
+            sizes.add(chunk.size());
+            return new ArrayList<>(chunk);
+        });
+        want.list(list).eqReflect(Arrays.asList(1, 2, 3, 4, 5));
+        want.list(sizes).eqReflect(Arrays.asList(2, 2, 1));
+    }
+
+    @Test
+    void sum() {
+        ChunkKit.setChunkSize(2);
+        int sum = ChunkKit.sum(Arrays.asList(1, 2, 3, 4, 5), chunk -> chunk.size() * 10);
+        want.number(sum).eq(50);
+    }
+}
@@ -0,0 +1,150 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+@SuppressWarnings("all")
+class JdbcBatchKitTest implements IWant {
+    interface BatchMapper {
+    }
+
+    @AfterEach
+    void reset() {
+        JdbcBatchKit.setFlushSize(500);
+    }
+
+    @Test
+    void count() {
+        BatchResult result = new BatchResult(null, "", null);
+        result.setUpdateCounts(new int[]{1, Statement.SUCCESS_NO_INFO, 2, Statement.EXECUTE_FAILED});
+        int[] counts = new int[4];
+        want.number(JdbcBatchKit.counts(Collections.singletonList(result), counts, 0)).eq(4);
+        want.array(counts).eqReflect(new int[]{1, 1, 2, 0});
+    }
+
+    @Test
+    void factory() {
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(),
+            new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:batch_kit;DB_CLOSE_DELAY=-1", "sa", "")));
+        configuration.addMapper(BatchMapper.class);
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession()) {
+            /* 不依赖全局登记, 同一个mapper登记在多个SqlSessionFactory中也按调用mapper所在的会话确定 */
+            want.bool(JdbcBatchKit.factory(session.getMapper(BatchMapper.class)).getConfiguration() == configuration).is(true);
+        }
+        want.exception(() -> JdbcBatchKit.factory(new Object()), FluentMybatisException.class)
+            .contains("the mapper should be created by SqlSession.getMapper(Class)");
+    }
+
+    @Test
+    void counts_joinCallerSession() throws Exception {
+        UnpooledDataSource ds = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:batch_join;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS batch_row");
+            stmt.execute("CREATE TABLE batch_row (id BIGINT PRIMARY KEY)");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), ds));
+        configuration.addMapper(RowMapper.class);
+        JdbcBatchKit.setFlushSize(2);
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession(false)) {
+            RowMapper mapper = session.getMapper(RowMapper.class);
+            int[] counts = JdbcBatchKit.counts(mapper, Arrays.asList(1L, 2L, 3L), id -> RowMapper.class,
+                (inBatch, id) -> ((RowMapper) inBatch).insertRow(id));
+            want.array(counts).eqReflect(new int[]{1, 1, 1});
+            /* 批处理在调用方会话的连接上执行, 调用方回滚时一起回滚 */
+            want.number(mapper.countRows()).eq(3);
+            session.rollback();
+        }
+        want.number(rows(ds)).eq(0);
+
+        /* 调用方会话自动提交时, 批处理整体提交或回滚 */
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession(true)) {
+            RowMapper mapper = session.getMapper(RowMapper.class);
+            want.exception(() -> JdbcBatchKit.counts(mapper, Arrays.asList(1L, 2L, 3L, 1L), id -> RowMapper.class,
+                (inBatch, id) -> ((RowMapper) inBatch).insertRow(id)), PersistenceException.class);
+            want.bool(session.getConnection().getAutoCommit()).is(true);
+        }
+        want.number(rows(ds)).eq(0);
+    }
+
+    @Test
+    void transaction_joinCallerSession() throws Exception {
+        UnpooledDataSource ds = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:batch_tx;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS batch_row");
+            stmt.execute("CREATE TABLE batch_row (id BIGINT PRIMARY KEY)");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), ds));
+        configuration.addMapper(RowMapper.class);
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession(false)) {
+            RowMapper mapper = session.getMapper(RowMapper.class);
+            /* 调用方会话有未提交的事务: 使用调用方的mapper执行, 不另开连接提交 */
+            int count = JdbcBatchKit.transaction(mapper, inTx -> {
+                want.bool(inTx == mapper).is(true);
+                return mapper.insertRow(1L) + mapper.insertRow(2L);
+            });
+            want.number(count).eq(2);
+            want.number(rows(ds)).eq(0);
+            session.rollback();
+        }
+        want.number(rows(ds)).eq(0);
+    }
+
+    @Test
+    void transaction_rollbackOnAutoCommit() throws Exception {
+        UnpooledDataSource ds = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:batch_rollback;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS batch_row");
+            stmt.execute("CREATE TABLE batch_row (id BIGINT PRIMARY KEY)");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), ds));
+        configuration.addMapper(RowMapper.class);
+        try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession(true)) {
+            RowMapper mapper = session.getMapper(RowMapper.class);
+            /* 调用方自动提交: 第一段成功, 第二段主键冲突, 第一段一起回滚 */
+            want.exception(() -> JdbcBatchKit.transaction(mapper, inTx -> {
+                RowMapper rowMapper = (RowMapper) inTx;
+                int count = rowMapper.insertRow(1L) + rowMapper.insertRow(2L);
+                return count + rowMapper.insertRow(1L);
+            }), PersistenceException.class);
+            want.bool(session.getConnection().getAutoCommit()).is(true);
+        }
+        want.number(rows(ds)).eq(0);
+    }
+
+    private static int rows(DataSource ds) throws Exception {
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM batch_row")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    public interface RowMapper extends IEntityMapper {
+        @Insert("INSERT INTO batch_row (id) VALUES (#{id})")
+        int insertRow(@Param("id") Long id);
+
+        @Select("SELECT COUNT(*) FROM batch_row")
+        int countRows();
+    }
+}
@@ -0,0 +1,72 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@SuppressWarnings("all")
+class PagedKitTest implements IWant {
+    interface PagedMapper {
+    }
+
+    @Test
+    void mapTotal() {
+        List<Map<String, Object>> list = Arrays.asList(row(1, 12L), row(2, 12L));
+        Integer total = PagedKit.mapTotal(list);
+        want.number(total).eq(12);
+        want.bool(list.get(0).containsKey("fm_total")).is(false);
+        want.bool(list.get(1).containsKey("fm_total")).is(false);
+        want.number((Integer) list.get(1).get("id")).eq(2);
+    }
+
+    @Test
+    void countCache_arrayValues() {
+        CountCacheKit.Key key1 = new CountCacheKit.Key(PagedMapper.class, 0, new HashMap<>(), 0, "sql", new Object[]{new Object[]{1, "a"}, 2});
+        CountCacheKit.Key key2 = new CountCacheKit.Key(PagedMapper.class, 0, new HashMap<>(), 0, "sql", new Object[]{new Object[]{1, "a"}, 2});
+        want.bool(key1.equals(key2)).is(true);
+        want.number(key1.hashCode()).eq(key2.hashCode());
+        want.bool(key1.equals(new CountCacheKit.Key(PagedMapper.class, 0, new HashMap<>(), 0, "sql", new Object[]{new Object[]{1, "b"}, 2}))).is(false);
+    }
+
+    @Test
+    void seekSql() {
+        List<PagedKit.SeekOrder> orders = Arrays.asList(new PagedKit.SeekOrder("t1.`age`", false), new PagedKit.SeekOrder("t1.`id`", true));
+        want.string(orders.get(0).column).eq("age");
+        want.string(PagedKit.seekSql(orders.subList(0, 1), false)).eq("t1.`age` < ?");
+        want.string(PagedKit.seekSql(orders, false)).eq("((t1.`age` < ?) OR (t1.`age` = ? AND t1.`id` > ?))");
+        want.array(PagedKit.seekArgs(new Object[]{20, 7L}, orders, false)).eqReflect(new Object[]{20, 20, 7L});
+        List<PagedKit.SeekOrder> asc = Arrays.asList(new PagedKit.SeekOrder("`age`", true), new PagedKit.SeekOrder("`id`", true));
+        want.string(PagedKit.seekSql(asc, true)).eq("(`age`, `id`) > (?, ?)");
+        want.array(PagedKit.seekArgs(new Object[]{20, 7L}, asc, true)).eqReflect(new Object[]{20, 7L});
+    }
+
+    @Test
+    void seekCursor() {
+        Object[] values = {"a,b", 1, 2L, new BigDecimal("1.50"), LocalDateTime.of(2021, 1, 2, 3, 4, 5), new Date(1000L)};
+        String cursor = SeekCursor.encode(9, values);
+        want.bool(cursor.matches("[A-Za-z0-9_-]+")).is(true);
+        want.array(SeekCursor.decode(9, cursor)).eqReflect(values);
+    }
+
+    @Test
+    void seekCursor_illegal() {
+        /* 签名9, 字段数量 -1 / 1000 */
+        String negative = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[]{0, 0, 0, 9, (byte) 0xFF, (byte) 0xFF});
+        String oversize = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[]{0, 0, 0, 9, 0x03, (byte) 0xE8, 0, 'S', 0, 0});
+        for (String cursor : Arrays.asList(negative, oversize, "not*base64", SeekCursor.encode(9, new Object[]{1}).substring(0, 8))) {
+            want.exception(() -> SeekCursor.decode(9, cursor), FluentMybatisException.class)
+                .contains("Illegal seek cursor");
+        }
+    }
+
+    private static Map<String, Object> row(int id, long total) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("fm_total", total);
+        return map;
+    }
+}